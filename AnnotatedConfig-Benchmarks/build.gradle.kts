@@ -0,0 +1,21 @@
+plugins {
+    id("me.champeau.gradle.jmh") version "0.5.0"
+}
+
+dependencies {
+    jmh(project(":AnnotatedConfig-Core"))
+    jmh(project(":AnnotatedConfig-Hocon"))
+    jmh(project(":AnnotatedConfig-Yaml"))
+    jmh(project(":AnnotatedConfig-Toml"))
+}
+
+jmh {
+    jmhVersion = "1.23"
+    // e.g. -Pjmh.include=FormatBenchmark.load
+    (project.findProperty("jmh.include") as String?)?.let { include = listOf(it) }
+    // Allocation rates are reported next to the timings.
+    profilers = listOf("gc")
+    // Results can be compared between commits, e.g. -Pjmh.results=results-<commit>.json
+    resultFormat = "JSON"
+    resultsFile = project.file(project.findProperty("jmh.results") ?: "$buildDir/reports/jmh/results.json")
+}
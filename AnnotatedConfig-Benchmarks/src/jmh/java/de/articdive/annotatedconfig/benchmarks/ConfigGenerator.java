@@ -0,0 +1,198 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.benchmarks;
+
+import de.articdive.annotatedconfig.api.Configuration;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Generates and compiles configuration classes of arbitrary size for the benchmarks.
+ */
+public final class ConfigGenerator {
+    /**
+     * The most properties put into a single class, the class file format limits the number of fields.
+     */
+    private static final int PROPERTIES_PER_CLASS = 1000;
+    /**
+     * The name of the int property at the root of every generated configuration.
+     */
+    public static final String REVISION = "revision";
+
+    private ConfigGenerator() {
+    }
+
+    /**
+     * Generates a flat configuration with integer, double, boolean and string properties in equal parts.
+     *
+     * @see #generate(Class, int, int, ValueType, File)
+     */
+    public static <T extends Configuration> Class<? extends T> generate(
+        Class<T> baseClass, int properties, File directory
+    ) throws IOException {
+        return generate(baseClass, properties, 0, ValueType.MIXED, directory);
+    }
+
+    /**
+     * Generates a configuration whose properties are nested depth sections deep.
+     * Configurations with more than {@value #PROPERTIES_PER_CLASS} properties spread them over sections, so they are
+     * at least one section deep. Every configuration also has an int field {@value #REVISION} at its root, which
+     * benchmarks change to give a save something to write.
+     *
+     * @param baseClass  The configuration type to extend.
+     * @param properties The number of properties.
+     * @param depth      The number of sections enclosing each property.
+     * @param valueType  The type of the properties.
+     * @param directory  The directory to compile the configuration in.
+     * @param <T>        The configuration type.
+     * @return the generated configuration class.
+     * @throws IOException if the class could not be compiled.
+     */
+    public static <T extends Configuration> Class<? extends T> generate(
+        Class<T> baseClass, int properties, int depth, ValueType valueType, File directory
+    ) throws IOException {
+        String className = "Generated" + baseClass.getSimpleName() + properties + "Depth" + depth + valueType;
+        StringBuilder source = new StringBuilder()
+            .append("@SuppressWarnings(\"InnerClassMayBeStatic\")\n")
+            .append("public class ").append(className).append(" extends ").append(baseClass.getName()).append(" {\n")
+            .append("    @de.articdive.annotatedconfig.annotations.Property(\"").append(REVISION).append("\")\n")
+            .append("    public int ").append(REVISION).append(";\n");
+        if (properties <= PROPERTIES_PER_CLASS && depth == 0) {
+            appendProperties(source, 0, properties, valueType, "    ");
+        } else {
+            for (int start = 0, section = 0; start < properties; start += PROPERTIES_PER_CLASS, section++) {
+                String indent = "    ";
+                int levels = Math.max(1, depth);
+                for (int level = 0; level < levels; level++) {
+                    source.append(indent).append("@de.articdive.annotatedconfig.annotations.Section(\"")
+                        .append(level == 0 ? "section" + section : "level" + level).append("\")\n")
+                        .append(indent).append("public class Section").append(section).append("Level").append(level)
+                        .append(" {\n");
+                    indent += "    ";
+                }
+                appendProperties(source, start, Math.min(properties, start + PROPERTIES_PER_CLASS), valueType, indent);
+                for (int level = levels - 1; level >= 0; level--) {
+                    indent = indent.substring(4);
+                    source.append(indent).append("}\n");
+                }
+            }
+        }
+        source.append("}\n");
+        return compile(className, source.toString(), baseClass, directory).asSubclass(baseClass);
+    }
+
+    private static void appendProperties(StringBuilder source, int start, int end, ValueType valueType, String indent) {
+        ValueType[] types = ValueType.values();
+        for (int i = start; i < end; i++) {
+            source.append(indent).append("@de.articdive.annotatedconfig.annotations.Property(\"property")
+                .append(i).append("\")\n")
+                .append(indent).append("@de.articdive.annotatedconfig.annotations.Comment(\"Property ")
+                .append(i).append(".\")\n")
+                .append(indent).append("public ");
+            // Mixed configurations cycle through the other types.
+            ValueType type = valueType == ValueType.MIXED ? types[1 + i % (types.length - 1)] : valueType;
+            switch (type) {
+                case INT:
+                    source.append("int value").append(i).append(" = ").append(i);
+                    break;
+                case DOUBLE:
+                    source.append("double value").append(i).append(" = ").append(i).append(".5D");
+                    break;
+                case BOOLEAN:
+                    source.append("boolean value").append(i).append(" = true");
+                    break;
+                case STRING:
+                    source.append("String value").append(i).append(" = \"value ").append(i).append('"');
+                    break;
+                default:
+                    source.append("java.util.List<String> value").append(i)
+                        .append(" = java.util.Arrays.asList(\"first ").append(i).append("\", \"second\", \"third\")");
+                    break;
+            }
+            source.append(";\n");
+        }
+    }
+
+    private static Class<?> compile(
+        String className, String source, Class<?> baseClass, File directory
+    ) throws IOException {
+        File sourceFile = new File(directory, className + ".java");
+        Files.write(sourceFile.toPath(), source.getBytes(StandardCharsets.UTF_8));
+
+        List<String> classpath = new ArrayList<>();
+        for (String dependency : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            classpath.add(dependency);
+        }
+        classpath.add(codeSource(Configuration.class));
+        classpath.add(codeSource(baseClass));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+            boolean compiled = compiler.getTask(
+                null, fileManager, null,
+                Arrays.asList("-classpath", String.join(File.pathSeparator, classpath), "-d", directory.getPath()),
+                null, fileManager.getJavaFileObjects(sourceFile)
+            ).call();
+            if (!compiled) {
+                throw new IOException(String.format("Failed to compile the generated configuration %s.", className));
+            }
+        }
+
+        URLClassLoader classLoader = new URLClassLoader(
+            new URL[]{directory.toURI().toURL()}, ConfigGenerator.class.getClassLoader()
+        );
+        try {
+            return Class.forName(className, true, classLoader);
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static String codeSource(Class<?> type) throws IOException {
+        try {
+            return new File(type.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * The types of the generated properties.
+     */
+    public enum ValueType {
+        MIXED,
+        INT,
+        DOUBLE,
+        BOOLEAN,
+        STRING,
+        LIST
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.benchmarks;
+
+import de.articdive.annotatedconfig.api.Configuration;
+import de.articdive.annotatedconfig.api.SaveResult;
+import de.articdive.annotatedconfig.impl.HoconConfiguration;
+import de.articdive.annotatedconfig.impl.TomlConfiguration;
+import de.articdive.annotatedconfig.impl.YamlConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares creating, loading, saving and rendering the same configuration in every supported format.
+ * The defaults cover the sizes, the other nesting depths and value types can be selected with {@code -p}, for example
+ * {@code -p depth=16 -p valueType=LIST}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormatBenchmark {
+    @Param({"hocon", "yaml", "toml"})
+    public String format;
+
+    @Param({"10", "1000", "100000"})
+    public int properties;
+
+    @Param({"0", "4"})
+    public int depth;
+
+    @Param({"MIXED"})
+    public ConfigGenerator.ValueType valueType;
+
+    private File file;
+    private Class<? extends Configuration> configClass;
+    private Configuration config;
+    private Configuration patchConfig;
+    private Field revision;
+
+    @Setup
+    public void setup() throws IOException {
+        Class<? extends Configuration> baseClass;
+        switch (format) {
+            case "hocon":
+                baseClass = HoconConfiguration.class;
+                break;
+            case "yaml":
+                baseClass = YamlConfiguration.class;
+                break;
+            case "toml":
+                baseClass = TomlConfiguration.class;
+                break;
+            default:
+                throw new IllegalArgumentException(format);
+        }
+        File directory = Files.createTempDirectory("annotatedconfig-benchmark").toFile();
+        configClass = ConfigGenerator.generate(baseClass, properties, depth, valueType, directory);
+        file = new File(directory, "config." + format);
+        config = Configuration.createConfiguration(file, configClass);
+        config.setSkipUnchangedWrites(false);
+        config.setPatchWrites(false);
+        patchConfig = Configuration.createConfiguration(new File(directory, "patch." + format), configClass);
+        try {
+            revision = configClass.getField(ConfigGenerator.REVISION);
+        } catch (NoSuchFieldException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Creates the configuration from the existing file, which loads it and skips writing the unchanged file.
+     */
+    @Benchmark
+    public Configuration create() {
+        return Configuration.createConfiguration(file, configClass);
+    }
+
+    @Benchmark
+    public void load() {
+        config.reload();
+    }
+
+    /**
+     * Renders and writes the whole configuration.
+     */
+    @Benchmark
+    public SaveResult save() {
+        return config.save();
+    }
+
+    /**
+     * Changes a single property and patches it into the file.
+     */
+    @Benchmark
+    public SaveResult patchSave() throws IllegalAccessException {
+        revision.setInt(patchConfig, revision.getInt(patchConfig) + 1);
+        return patchConfig.save();
+    }
+
+    @Benchmark
+    public String strOutput() {
+        return config.strOutput();
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.benchmarks;
+
+import de.articdive.annotatedconfig.api.Configuration;
+import de.articdive.annotatedconfig.api.SaveResult;
+import de.articdive.annotatedconfig.impl.HoconConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how {@link HoconConfiguration#save()} scales with the number of properties, the time per property should
+ * stay flat as the configuration grows. Patching is disabled so that every save renders the whole configuration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HoconSaveBenchmark {
+    @Param({"10", "100", "1000", "10000"})
+    public int properties;
+
+    @Param({"false", "true"})
+    public boolean skipUnchangedWrites;
+
+    private HoconConfiguration config;
+
+    @Setup
+    public void setup() throws IOException {
+        File directory = Files.createTempDirectory("annotatedconfig-benchmark").toFile();
+        Class<? extends HoconConfiguration> configClass = ConfigGenerator.generate(
+            HoconConfiguration.class, properties, directory
+        );
+        config = Configuration.createConfiguration(new File(directory, "config.conf"), configClass);
+        config.setSkipUnchangedWrites(skipUnchangedWrites);
+        config.setPatchWrites(false);
+    }
+
+    @Benchmark
+    public SaveResult save() {
+        return config.save();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.benchmarks;
+
+import de.articdive.annotatedconfig.accessor.MethodHandlePropertyAccessor;
+import de.articdive.annotatedconfig.accessor.PropertyAccessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link MethodHandlePropertyAccessor} with the reflective path configurations used before it, which
+ * checked the field's accessibility and boxed the value on every set.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PropertyAccessorBenchmark {
+    private final Target target = new Target();
+    private Field intField;
+    private Field doubleField;
+    private Field stringField;
+    private PropertyAccessor intAccessor;
+    private PropertyAccessor doubleAccessor;
+    private PropertyAccessor stringAccessor;
+    private int intValue;
+    private double doubleValue;
+
+    @Setup
+    public void setup() throws NoSuchFieldException {
+        intField = Target.class.getDeclaredField("intValue");
+        doubleField = Target.class.getDeclaredField("doubleValue");
+        stringField = Target.class.getDeclaredField("stringValue");
+        intAccessor = new MethodHandlePropertyAccessor(intField);
+        doubleAccessor = new MethodHandlePropertyAccessor(doubleField);
+        stringAccessor = new MethodHandlePropertyAccessor(stringField);
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public void reflectiveSetInt() throws IllegalAccessException {
+        if (!intField.isAccessible()) {
+            intField.setAccessible(true);
+        }
+        intField.set(target, intValue++);
+    }
+
+    @Benchmark
+    public void accessorSetInt() {
+        intAccessor.setInt(target, intValue++);
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public void reflectiveSetDouble() throws IllegalAccessException {
+        if (!doubleField.isAccessible()) {
+            doubleField.setAccessible(true);
+        }
+        doubleField.set(target, doubleValue++);
+    }
+
+    @Benchmark
+    public void accessorSetDouble() {
+        doubleAccessor.setDouble(target, doubleValue++);
+    }
+
+    @Benchmark
+    public Object reflectiveGetInt() throws IllegalAccessException {
+        return intField.get(target);
+    }
+
+    @Benchmark
+    public int accessorGetInt() {
+        return intAccessor.getInt(target);
+    }
+
+    @Benchmark
+    public Object reflectiveGetString() throws IllegalAccessException {
+        return stringField.get(target);
+    }
+
+    @Benchmark
+    public Object accessorGetString() {
+        return stringAccessor.get(target);
+    }
+
+    public static class Target {
+        public int intValue;
+        public double doubleValue;
+        public String stringValue = "value";
+    }
+}
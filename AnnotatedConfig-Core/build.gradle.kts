@@ -1,3 +1,23 @@
+// Classes replacing their Java 8 versions on Java 11 and newer, packaged as a multi-release jar.
+val java11: SourceSet by sourceSets.creating {
+    java.srcDir("src/main/java11")
+    compileClasspath += sourceSets["main"].output + sourceSets["main"].compileClasspath
+}
+
+tasks.named<JavaCompile>(java11.compileJavaTaskName) {
+    sourceCompatibility = "11"
+    targetCompatibility = "11"
+}
+
+tasks.named<Jar>("jar") {
+    into("META-INF/versions/11") {
+        from(java11.output)
+    }
+    manifest {
+        attributes("Multi-Release" to "true")
+    }
+}
+
 publishing {
     publications {
         create<MavenPublication>("maven") {
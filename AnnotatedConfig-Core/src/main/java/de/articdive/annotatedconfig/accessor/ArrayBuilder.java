@@ -0,0 +1,288 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.articdive.annotatedconfig.accessor;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Collects the elements of a list in a document into an array property, formats add the elements as they read them
+ * so primitive elements are never boxed. Elements are narrowed like the values of primitive properties, a single
+ * element that doesn't fit the array's component type makes the whole list mismatch and the property then keeps its
+ * current value.
+ * Supported are {@code int[]}, {@code long[]}, {@code double[]}, {@code byte[]} and {@code String[]}.
+ *
+ * @see ValueBinder#newArray()
+ */
+public abstract class ArrayBuilder {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final PropertyAccessor accessor;
+    int size;
+    private boolean mismatched;
+
+    ArrayBuilder(@NotNull PropertyAccessor accessor) {
+        this.accessor = accessor;
+    }
+
+    /**
+     * @param type The type of a property.
+     * @return whether properties of the type are bound by an {@link ArrayBuilder}.
+     */
+    static boolean supports(@NotNull Class<?> type) {
+        return type == int[].class || type == long[].class || type == double[].class || type == byte[].class
+            || type == String[].class;
+    }
+
+    @NotNull
+    static ArrayBuilder of(@NotNull PropertyAccessor accessor) {
+        Class<?> type = accessor.getType();
+        if (type == int[].class) {
+            return new IntArrayBuilder(accessor);
+        } else if (type == long[].class) {
+            return new LongArrayBuilder(accessor);
+        } else if (type == double[].class) {
+            return new DoubleArrayBuilder(accessor);
+        } else if (type == byte[].class) {
+            return new ByteArrayBuilder(accessor);
+        }
+        return new StringArrayBuilder(accessor);
+    }
+
+    public void addNull() {
+        mismatched = true;
+    }
+
+    public void addBoolean(boolean value) {
+        mismatched = true;
+    }
+
+    public void addLong(long value) {
+        mismatched = true;
+    }
+
+    public void addDouble(double value) {
+        mismatched = true;
+    }
+
+    public void addString(@NotNull String value) {
+        mismatched = true;
+    }
+
+    /**
+     * Adds any element, numbers and booleans are unboxed. Nested lists and maps never fit an array.
+     */
+    public void addObject(@Nullable Object value) {
+        if (value == null) {
+            addNull();
+        } else if (value instanceof Boolean) {
+            addBoolean((Boolean) value);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+            || value instanceof Byte) {
+            addLong(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            addDouble(((Number) value).doubleValue());
+        } else if (value instanceof String) {
+            addString((String) value);
+        } else {
+            mismatched = true;
+        }
+    }
+
+    final void mismatch() {
+        mismatched = true;
+    }
+
+    /**
+     * Sets the property to the collected elements.
+     *
+     * @return true if every element fit the array and the property was set.
+     */
+    public boolean bind(@NotNull Object instance) {
+        if (mismatched) {
+            return false;
+        }
+        accessor.set(instance, build());
+        return true;
+    }
+
+    @NotNull
+    abstract Object build();
+
+    private static final class IntArrayBuilder extends ArrayBuilder {
+        private int[] values = new int[INITIAL_CAPACITY];
+
+        IntArrayBuilder(@NotNull PropertyAccessor accessor) {
+            super(accessor);
+        }
+
+        @Override
+        public void addLong(long value) {
+            if (value != (int) value) {
+                mismatch();
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = (int) value;
+        }
+
+        @Override
+        public void addDouble(double value) {
+            if (value == (int) value) {
+                addLong((int) value);
+            } else {
+                mismatch();
+            }
+        }
+
+        @NotNull
+        @Override
+        Object build() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static final class LongArrayBuilder extends ArrayBuilder {
+        private long[] values = new long[INITIAL_CAPACITY];
+
+        LongArrayBuilder(@NotNull PropertyAccessor accessor) {
+            super(accessor);
+        }
+
+        @Override
+        public void addLong(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        @Override
+        public void addDouble(double value) {
+            // Doubles at or above 2^63 are outside of the range of a long, casting them saturates.
+            if (value == (long) value && value < 0x1p63) {
+                addLong((long) value);
+            } else {
+                mismatch();
+            }
+        }
+
+        @NotNull
+        @Override
+        Object build() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static final class DoubleArrayBuilder extends ArrayBuilder {
+        private double[] values = new double[INITIAL_CAPACITY];
+
+        DoubleArrayBuilder(@NotNull PropertyAccessor accessor) {
+            super(accessor);
+        }
+
+        @Override
+        public void addLong(long value) {
+            addDouble(value);
+        }
+
+        @Override
+        public void addDouble(double value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        @NotNull
+        @Override
+        Object build() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static final class ByteArrayBuilder extends ArrayBuilder {
+        private byte[] values = new byte[INITIAL_CAPACITY];
+
+        ByteArrayBuilder(@NotNull PropertyAccessor accessor) {
+            super(accessor);
+        }
+
+        @Override
+        public void addLong(long value) {
+            if (value != (byte) value) {
+                mismatch();
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = (byte) value;
+        }
+
+        @Override
+        public void addDouble(double value) {
+            if (value == (byte) value) {
+                addLong((byte) value);
+            } else {
+                mismatch();
+            }
+        }
+
+        @NotNull
+        @Override
+        Object build() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static final class StringArrayBuilder extends ArrayBuilder {
+        private String[] values = new String[INITIAL_CAPACITY];
+
+        StringArrayBuilder(@NotNull PropertyAccessor accessor) {
+            super(accessor);
+        }
+
+        @Override
+        public void addNull() {
+            add(null);
+        }
+
+        @Override
+        public void addString(@NotNull String value) {
+            add(value);
+        }
+
+        private void add(@Nullable String value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        @NotNull
+        @Override
+        Object build() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.accessor;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * A {@link PropertyAccessor} that unreflects its field once and adapts the handles to every primitive type the field
+ * can be read as or written from, so the primitive accessors are invoked exactly and never box.
+ */
+public final class MethodHandlePropertyAccessor implements PropertyAccessor {
+    private final Field field;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+    private final MethodHandle booleanGetter;
+    private final MethodHandle booleanSetter;
+    private final MethodHandle byteGetter;
+    private final MethodHandle byteSetter;
+    private final MethodHandle shortGetter;
+    private final MethodHandle shortSetter;
+    private final MethodHandle intGetter;
+    private final MethodHandle intSetter;
+    private final MethodHandle longGetter;
+    private final MethodHandle longSetter;
+    private final MethodHandle floatGetter;
+    private final MethodHandle floatSetter;
+    private final MethodHandle doubleGetter;
+    private final MethodHandle doubleSetter;
+
+    public MethodHandlePropertyAccessor(@NotNull Field field) {
+        this.field = field;
+        MethodHandle fieldGetter;
+        MethodHandle fieldSetter;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            fieldGetter = lookup.unreflectGetter(field);
+            fieldSetter = lookup.unreflectSetter(field);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException(String.format("The property %s is not accessible.", field.getName()), e);
+        }
+        if (Modifier.isStatic(field.getModifiers())) {
+            // Static properties take the same instance argument as every other property and ignore it.
+            fieldGetter = MethodHandles.dropArguments(fieldGetter, 0, Object.class);
+            fieldSetter = MethodHandles.dropArguments(fieldSetter, 0, Object.class);
+        }
+        this.getter = fieldGetter.asType(MethodType.methodType(Object.class, Object.class));
+        this.setter = fieldSetter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        this.booleanGetter = adaptGetter(fieldGetter, boolean.class);
+        this.booleanSetter = adaptSetter(fieldSetter, boolean.class);
+        this.byteGetter = adaptGetter(fieldGetter, byte.class);
+        this.byteSetter = adaptSetter(fieldSetter, byte.class);
+        this.shortGetter = adaptGetter(fieldGetter, short.class);
+        this.shortSetter = adaptSetter(fieldSetter, short.class);
+        this.intGetter = adaptGetter(fieldGetter, int.class);
+        this.intSetter = adaptSetter(fieldSetter, int.class);
+        this.longGetter = adaptGetter(fieldGetter, long.class);
+        this.longSetter = adaptSetter(fieldSetter, long.class);
+        this.floatGetter = adaptGetter(fieldGetter, float.class);
+        this.floatSetter = adaptSetter(fieldSetter, float.class);
+        this.doubleGetter = adaptGetter(fieldGetter, double.class);
+        this.doubleSetter = adaptSetter(fieldSetter, double.class);
+    }
+
+    @Nullable
+    private static MethodHandle adaptGetter(@NotNull MethodHandle getter, @NotNull Class<?> primitive) {
+        if (!getter.type().returnType().isPrimitive()) {
+            // Unboxing a property that can be null is not something the primitive getters should do silently.
+            return null;
+        }
+        try {
+            return getter.asType(MethodType.methodType(primitive, Object.class));
+        } catch (WrongMethodTypeException e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private static MethodHandle adaptSetter(@NotNull MethodHandle setter, @NotNull Class<?> primitive) {
+        try {
+            return setter.asType(MethodType.methodType(void.class, Object.class, primitive));
+        } catch (WrongMethodTypeException e) {
+            return null;
+        }
+    }
+
+    @NotNull
+    private IllegalArgumentException unsupported(@NotNull Class<?> primitive) {
+        return new IllegalArgumentException(String.format(
+            "The property %s of type %s can't be accessed as a %s.", field.getName(), field.getType(), primitive
+        ));
+    }
+
+    @NotNull
+    private static RuntimeException rethrow(@NotNull Throwable throwable) {
+        if (throwable instanceof RuntimeException) {
+            return (RuntimeException) throwable;
+        }
+        if (throwable instanceof Error) {
+            throw (Error) throwable;
+        }
+        return new IllegalStateException(throwable);
+    }
+
+    @NotNull
+    @Override
+    public Class<?> getType() {
+        return field.getType();
+    }
+
+    @Nullable
+    @Override
+    public Object get(@NotNull Object instance) {
+        try {
+            return getter.invokeExact(instance);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    @Override
+    public void set(@NotNull Object instance, @Nullable Object value) {
+        try {
+            setter.invokeExact(instance, value);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    @Override
+    public boolean getBoolean(@NotNull Object instance) {
+        if (booleanGetter == null) {
+            throw unsupported(boolean.class);
+        }
+        try {
+            return (boolean) booleanGetter.invokeExact(instance);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    @Override
+    public void setBoolean(@NotNull Object instance, boolean value) {
+        if (booleanSetter == null) {
+            throw unsupported(boolean.class);
+        }
+        try {
+            booleanSetter.invokeExact(instance, value);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    @Override
+    public byte getByte(@NotNull Object instance) {
+        if (byteGetter == null) {
+            throw unsupported(byte.class);
+        }
+        try {
+            return (byte) byteGetter.invokeExact(instance);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    @Override
+    public void setByte(@NotNull Object instance, byte value) {
+        if (byteSetter == null) {
+            throw unsupported(byte.class);
+        }
+        try {
+            byteSetter.invokeExact(instance, value);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    @Override
+    public short getShort(@NotNull Object instance) {
+        if (shortGetter == null) {
+            throw unsupported(short.class);
+        }
+        try {
+            return (short) shortGetter.invokeExact(instance);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    @Override
+    public void setShort(@NotNull Object instance, short value) {
+        if (shortSetter == null) {
+            throw unsupported(short.class);
+        }
+        try {
+            shortSetter.invokeExact(instance, value);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    @Override
+    public int getInt(@NotNull Object instance) {
+        if (intGetter == null) {
+            throw unsupported(int.class);
+        }
+        try {
+            return (int) intGetter.invokeExact(instance);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    @Override
+    public void setInt(@NotNull Object instance, int value) {
+        if (intSetter == null) {
+            throw unsupported(int.class);
+        }
+        try {
+            intSetter.invokeExact(instance, value);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    @Override
+    public long getLong(@NotNull Object instance) {
+        if (longGetter == null) {
+            throw unsupported(long.class);
+        }
+        try {
+            return (long) longGetter.invokeExact(instance);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    @Override
+    public void setLong(@NotNull Object instance, long value) {
+        if (longSetter == null) {
+            throw unsupported(long.class);
+        }
+        try {
+            longSetter.invokeExact(instance, value);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    @Override
+    public float getFloat(@NotNull Object instance) {
+        if (floatGetter == null) {
+            throw unsupported(float.class);
+        }
+        try {
+            return (float) floatGetter.invokeExact(instance);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    @Override
+    public void setFloat(@NotNull Object instance, float value) {
+        if (floatSetter == null) {
+            throw unsupported(float.class);
+        }
+        try {
+            floatSetter.invokeExact(instance, value);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    @Override
+    public double getDouble(@NotNull Object instance) {
+        if (doubleGetter == null) {
+            throw unsupported(double.class);
+        }
+        try {
+            return (double) doubleGetter.invokeExact(instance);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+
+    @Override
+    public void setDouble(@NotNull Object instance, double value) {
+        if (doubleSetter == null) {
+            throw unsupported(double.class);
+        }
+        try {
+            doubleSetter.invokeExact(instance, value);
+        } catch (Throwable throwable) {
+            throw rethrow(throwable);
+        }
+    }
+}
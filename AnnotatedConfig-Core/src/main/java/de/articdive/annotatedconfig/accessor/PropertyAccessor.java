@@ -0,0 +1,65 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.accessor;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Reads and writes a single property of a section instance.
+ * The primitive methods never box. The setters throw an {@link IllegalArgumentException} if the value can't be widened
+ * (or boxed) to the property's type, the getters if the property isn't a primitive that widens to the requested type.
+ */
+public interface PropertyAccessor {
+    @NotNull
+    Class<?> getType();
+
+    @Nullable
+    Object get(@NotNull Object instance);
+
+    void set(@NotNull Object instance, @Nullable Object value);
+
+    boolean getBoolean(@NotNull Object instance);
+
+    void setBoolean(@NotNull Object instance, boolean value);
+
+    byte getByte(@NotNull Object instance);
+
+    void setByte(@NotNull Object instance, byte value);
+
+    short getShort(@NotNull Object instance);
+
+    void setShort(@NotNull Object instance, short value);
+
+    int getInt(@NotNull Object instance);
+
+    void setInt(@NotNull Object instance, int value);
+
+    long getLong(@NotNull Object instance);
+
+    void setLong(@NotNull Object instance, long value);
+
+    float getFloat(@NotNull Object instance);
+
+    void setFloat(@NotNull Object instance, float value);
+
+    double getDouble(@NotNull Object instance);
+
+    void setDouble(@NotNull Object instance, double value);
+}
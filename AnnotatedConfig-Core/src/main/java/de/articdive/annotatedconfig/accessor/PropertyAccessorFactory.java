@@ -0,0 +1,46 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.accessor;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Field;
+
+/**
+ * Creates the {@link PropertyAccessor} of a property field.
+ */
+@FunctionalInterface
+public interface PropertyAccessorFactory {
+    /**
+     * Accessors backed by {@link java.lang.invoke.MethodHandle}s, this is what configurations use by default.
+     */
+    PropertyAccessorFactory METHOD_HANDLES = MethodHandlePropertyAccessor::new;
+
+    /**
+     * Accessors backed by {@link Field#get(Object)} and {@link Field#set(Object, Object)}.
+     */
+    PropertyAccessorFactory REFLECTION = ReflectionPropertyAccessor::new;
+
+    /**
+     * @param field The property field, it must already be accessible.
+     * @return an accessor for the field.
+     */
+    @NotNull
+    PropertyAccessor create(@NotNull Field field);
+}
@@ -0,0 +1,193 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.accessor;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Field;
+
+/**
+ * A {@link PropertyAccessor} that goes through {@link Field} directly.
+ * It is slower than {@link MethodHandlePropertyAccessor} and boxes on the generic accessors, it is kept as a fallback
+ * and as a baseline for comparisons.
+ */
+public final class ReflectionPropertyAccessor implements PropertyAccessor {
+    private final Field field;
+
+    public ReflectionPropertyAccessor(@NotNull Field field) {
+        this.field = field;
+    }
+
+    @NotNull
+    private IllegalArgumentException inaccessible(@NotNull IllegalAccessException e) {
+        return new IllegalArgumentException(String.format("The property %s is not accessible.", field.getName()), e);
+    }
+
+    @NotNull
+    @Override
+    public Class<?> getType() {
+        return field.getType();
+    }
+
+    @Nullable
+    @Override
+    public Object get(@NotNull Object instance) {
+        try {
+            return field.get(instance);
+        } catch (IllegalAccessException e) {
+            throw inaccessible(e);
+        }
+    }
+
+    @Override
+    public void set(@NotNull Object instance, @Nullable Object value) {
+        try {
+            field.set(instance, value);
+        } catch (IllegalAccessException e) {
+            throw inaccessible(e);
+        }
+    }
+
+    @Override
+    public boolean getBoolean(@NotNull Object instance) {
+        try {
+            return field.getBoolean(instance);
+        } catch (IllegalAccessException e) {
+            throw inaccessible(e);
+        }
+    }
+
+    @Override
+    public void setBoolean(@NotNull Object instance, boolean value) {
+        try {
+            field.setBoolean(instance, value);
+        } catch (IllegalAccessException e) {
+            throw inaccessible(e);
+        }
+    }
+
+    @Override
+    public byte getByte(@NotNull Object instance) {
+        try {
+            return field.getByte(instance);
+        } catch (IllegalAccessException e) {
+            throw inaccessible(e);
+        }
+    }
+
+    @Override
+    public void setByte(@NotNull Object instance, byte value) {
+        try {
+            field.setByte(instance, value);
+        } catch (IllegalAccessException e) {
+            throw inaccessible(e);
+        }
+    }
+
+    @Override
+    public short getShort(@NotNull Object instance) {
+        try {
+            return field.getShort(instance);
+        } catch (IllegalAccessException e) {
+            throw inaccessible(e);
+        }
+    }
+
+    @Override
+    public void setShort(@NotNull Object instance, short value) {
+        try {
+            field.setShort(instance, value);
+        } catch (IllegalAccessException e) {
+            throw inaccessible(e);
+        }
+    }
+
+    @Override
+    public int getInt(@NotNull Object instance) {
+        try {
+            return field.getInt(instance);
+        } catch (IllegalAccessException e) {
+            throw inaccessible(e);
+        }
+    }
+
+    @Override
+    public void setInt(@NotNull Object instance, int value) {
+        try {
+            field.setInt(instance, value);
+        } catch (IllegalAccessException e) {
+            throw inaccessible(e);
+        }
+    }
+
+    @Override
+    public long getLong(@NotNull Object instance) {
+        try {
+            return field.getLong(instance);
+        } catch (IllegalAccessException e) {
+            throw inaccessible(e);
+        }
+    }
+
+    @Override
+    public void setLong(@NotNull Object instance, long value) {
+        try {
+            field.setLong(instance, value);
+        } catch (IllegalAccessException e) {
+            throw inaccessible(e);
+        }
+    }
+
+    @Override
+    public float getFloat(@NotNull Object instance) {
+        try {
+            return field.getFloat(instance);
+        } catch (IllegalAccessException e) {
+            throw inaccessible(e);
+        }
+    }
+
+    @Override
+    public void setFloat(@NotNull Object instance, float value) {
+        try {
+            field.setFloat(instance, value);
+        } catch (IllegalAccessException e) {
+            throw inaccessible(e);
+        }
+    }
+
+    @Override
+    public double getDouble(@NotNull Object instance) {
+        try {
+            return field.getDouble(instance);
+        } catch (IllegalAccessException e) {
+            throw inaccessible(e);
+        }
+    }
+
+    @Override
+    public void setDouble(@NotNull Object instance, double value) {
+        try {
+            field.setDouble(instance, value);
+        } catch (IllegalAccessException e) {
+            throw inaccessible(e);
+        }
+    }
+}
@@ -0,0 +1,488 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.accessor;
+
+import de.articdive.annotatedconfig.converter.ConverterRegistry;
+import de.articdive.annotatedconfig.converter.ValueConverter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Binds parsed values to a property, used by formats to bind the values of their documents.
+ * The binder of a property is chosen once for the type of the property. Primitive properties are set without boxing,
+ * numbers are widened to the property's type and narrowed to it if they fit exactly. Boxed properties accept the same
+ * values as their primitives. A value that doesn't fit the type of the property is ignored and the property keeps its
+ * current value.
+ */
+public abstract class ValueBinder {
+    final PropertyAccessor accessor;
+
+    ValueBinder(@NotNull PropertyAccessor accessor) {
+        this.accessor = accessor;
+    }
+
+    /**
+     * Chooses the binder of a property, properties with a converter in the {@link ConverterRegistry} are converted.
+     *
+     * @param accessor The accessor of the property.
+     * @return the binder of the property.
+     */
+    @NotNull
+    public static ValueBinder of(@NotNull PropertyAccessor accessor) {
+        Class<?> type = accessor.getType();
+        if (!type.isPrimitive()) {
+            ValueConverter<?> converter = ConverterRegistry.get(type);
+            if (converter != null) {
+                return new ConverterBinder(accessor, converter);
+            }
+        }
+        if (type == int.class || type == Integer.class) {
+            return new IntBinder(accessor);
+        } else if (type == long.class || type == Long.class) {
+            return new LongBinder(accessor);
+        } else if (type == double.class || type == Double.class) {
+            return new DoubleBinder(accessor);
+        } else if (type == boolean.class || type == Boolean.class) {
+            return new BooleanBinder(accessor);
+        } else if (type == float.class || type == Float.class) {
+            return new FloatBinder(accessor);
+        } else if (type == short.class || type == Short.class) {
+            return new ShortBinder(accessor);
+        } else if (type == byte.class || type == Byte.class) {
+            return new ByteBinder(accessor);
+        } else if (type == char.class || type == Character.class) {
+            return new CharBinder(accessor);
+        } else if (ArrayBuilder.supports(type)) {
+            return new ArrayBinder(accessor);
+        }
+        return new ObjectBinder(accessor);
+    }
+
+    /**
+     * @return true if the value was bound to the property.
+     */
+    public boolean bindNull(@NotNull Object instance) {
+        if (accessor.getType().isPrimitive()) {
+            return false;
+        }
+        accessor.set(instance, null);
+        return true;
+    }
+
+    /**
+     * @return true if the value was bound to the property.
+     */
+    public boolean bindBoolean(@NotNull Object instance, boolean value) {
+        return false;
+    }
+
+    /**
+     * @return true if the value was bound to the property.
+     */
+    public boolean bindLong(@NotNull Object instance, long value) {
+        return false;
+    }
+
+    /**
+     * @return true if the value was bound to the property.
+     */
+    public boolean bindDouble(@NotNull Object instance, double value) {
+        return false;
+    }
+
+    /**
+     * @return true if the value was bound to the property.
+     */
+    public boolean bindString(@NotNull Object instance, @NotNull String value) {
+        return false;
+    }
+
+    /**
+     * Binds any value, numbers and booleans are unboxed for primitive properties.
+     *
+     * @return true if the value was bound to the property.
+     */
+    public boolean bindObject(@NotNull Object instance, @Nullable Object value) {
+        if (value == null) {
+            return bindNull(instance);
+        }
+        if (value instanceof Boolean) {
+            return bindBoolean(instance, (Boolean) value);
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return bindLong(instance, ((Number) value).longValue());
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return bindDouble(instance, ((Number) value).doubleValue());
+        }
+        if (value instanceof String) {
+            return bindString(instance, (String) value);
+        }
+        if (!accessor.getType().isInstance(value)) {
+            return false;
+        }
+        accessor.set(instance, value);
+        return true;
+    }
+
+    /**
+     * Starts collecting the elements of a list for an array property, so formats can add them without building a list
+     * of boxed elements first.
+     *
+     * @return a new builder of the property's array, null if the property isn't an array.
+     */
+    @Nullable
+    public ArrayBuilder newArray() {
+        return null;
+    }
+
+    /**
+     * Reads the value of the property to be written to a file, converted if the property has a converter.
+     * Array properties are read as their arrays.
+     *
+     * @return the value of the property.
+     */
+    @Nullable
+    public Object read(@NotNull Object instance) {
+        return accessor.get(instance);
+    }
+
+    /**
+     * @return the number as an Integer if it fits into one, otherwise as a Long.
+     */
+    @NotNull
+    public static Number boxIntegral(long value) {
+        if (value == (int) value) {
+            return (int) value;
+        }
+        return value;
+    }
+
+    private static final class IntBinder extends ValueBinder {
+        private final boolean boxed;
+
+        IntBinder(@NotNull PropertyAccessor accessor) {
+            super(accessor);
+            this.boxed = !accessor.getType().isPrimitive();
+        }
+
+        @Override
+        public boolean bindLong(@NotNull Object instance, long value) {
+            if (value != (int) value) {
+                return false;
+            }
+            if (boxed) {
+                accessor.set(instance, (int) value);
+            } else {
+                accessor.setInt(instance, (int) value);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean bindDouble(@NotNull Object instance, double value) {
+            return value == (int) value && bindLong(instance, (int) value);
+        }
+    }
+
+    private static final class LongBinder extends ValueBinder {
+        private final boolean boxed;
+
+        LongBinder(@NotNull PropertyAccessor accessor) {
+            super(accessor);
+            this.boxed = !accessor.getType().isPrimitive();
+        }
+
+        @Override
+        public boolean bindLong(@NotNull Object instance, long value) {
+            if (boxed) {
+                accessor.set(instance, value);
+            } else {
+                accessor.setLong(instance, value);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean bindDouble(@NotNull Object instance, double value) {
+            // Doubles at or above 2^63 are outside of the range of a long, casting them saturates.
+            return value == (long) value && value < 0x1p63 && bindLong(instance, (long) value);
+        }
+    }
+
+    private static final class ShortBinder extends ValueBinder {
+        private final boolean boxed;
+
+        ShortBinder(@NotNull PropertyAccessor accessor) {
+            super(accessor);
+            this.boxed = !accessor.getType().isPrimitive();
+        }
+
+        @Override
+        public boolean bindLong(@NotNull Object instance, long value) {
+            if (value != (short) value) {
+                return false;
+            }
+            if (boxed) {
+                accessor.set(instance, (short) value);
+            } else {
+                accessor.setShort(instance, (short) value);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean bindDouble(@NotNull Object instance, double value) {
+            return value == (short) value && bindLong(instance, (short) value);
+        }
+    }
+
+    private static final class ByteBinder extends ValueBinder {
+        private final boolean boxed;
+
+        ByteBinder(@NotNull PropertyAccessor accessor) {
+            super(accessor);
+            this.boxed = !accessor.getType().isPrimitive();
+        }
+
+        @Override
+        public boolean bindLong(@NotNull Object instance, long value) {
+            if (value != (byte) value) {
+                return false;
+            }
+            if (boxed) {
+                accessor.set(instance, (byte) value);
+            } else {
+                accessor.setByte(instance, (byte) value);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean bindDouble(@NotNull Object instance, double value) {
+            return value == (byte) value && bindLong(instance, (byte) value);
+        }
+    }
+
+    private static final class DoubleBinder extends ValueBinder {
+        private final boolean boxed;
+
+        DoubleBinder(@NotNull PropertyAccessor accessor) {
+            super(accessor);
+            this.boxed = !accessor.getType().isPrimitive();
+        }
+
+        @Override
+        public boolean bindLong(@NotNull Object instance, long value) {
+            return bindDouble(instance, value);
+        }
+
+        @Override
+        public boolean bindDouble(@NotNull Object instance, double value) {
+            if (boxed) {
+                accessor.set(instance, value);
+            } else {
+                accessor.setDouble(instance, value);
+            }
+            return true;
+        }
+    }
+
+    private static final class FloatBinder extends ValueBinder {
+        private final boolean boxed;
+
+        FloatBinder(@NotNull PropertyAccessor accessor) {
+            super(accessor);
+            this.boxed = !accessor.getType().isPrimitive();
+        }
+
+        @Override
+        public boolean bindLong(@NotNull Object instance, long value) {
+            return bindDouble(instance, value);
+        }
+
+        @Override
+        public boolean bindDouble(@NotNull Object instance, double value) {
+            if (boxed) {
+                accessor.set(instance, (float) value);
+            } else {
+                accessor.setFloat(instance, (float) value);
+            }
+            return true;
+        }
+    }
+
+    private static final class BooleanBinder extends ValueBinder {
+        private final boolean boxed;
+
+        BooleanBinder(@NotNull PropertyAccessor accessor) {
+            super(accessor);
+            this.boxed = !accessor.getType().isPrimitive();
+        }
+
+        @Override
+        public boolean bindBoolean(@NotNull Object instance, boolean value) {
+            if (boxed) {
+                accessor.set(instance, value);
+            } else {
+                accessor.setBoolean(instance, value);
+            }
+            return true;
+        }
+    }
+
+    private static final class CharBinder extends ValueBinder {
+        CharBinder(@NotNull PropertyAccessor accessor) {
+            super(accessor);
+        }
+
+        @Override
+        public boolean bindString(@NotNull Object instance, @NotNull String value) {
+            if (value.length() != 1) {
+                return false;
+            }
+            accessor.set(instance, value.charAt(0));
+            return true;
+        }
+    }
+
+    private static final class ObjectBinder extends ValueBinder {
+        private final boolean acceptsBoolean;
+        private final boolean acceptsNumber;
+        private final boolean acceptsString;
+
+        ObjectBinder(@NotNull PropertyAccessor accessor) {
+            super(accessor);
+            Class<?> type = accessor.getType();
+            this.acceptsBoolean = type.isAssignableFrom(Boolean.class);
+            this.acceptsNumber = type.isAssignableFrom(Number.class);
+            this.acceptsString = type.isAssignableFrom(String.class);
+        }
+
+        @Override
+        public boolean bindBoolean(@NotNull Object instance, boolean value) {
+            if (acceptsBoolean) {
+                accessor.set(instance, value);
+            }
+            return acceptsBoolean;
+        }
+
+        @Override
+        public boolean bindLong(@NotNull Object instance, long value) {
+            if (acceptsNumber) {
+                accessor.set(instance, boxIntegral(value));
+            }
+            return acceptsNumber;
+        }
+
+        @Override
+        public boolean bindDouble(@NotNull Object instance, double value) {
+            if (acceptsNumber) {
+                accessor.set(instance, value);
+            }
+            return acceptsNumber;
+        }
+
+        @Override
+        public boolean bindString(@NotNull Object instance, @NotNull String value) {
+            if (acceptsString) {
+                accessor.set(instance, value);
+            }
+            return acceptsString;
+        }
+    }
+
+    private static final class ArrayBinder extends ValueBinder {
+        ArrayBinder(@NotNull PropertyAccessor accessor) {
+            super(accessor);
+        }
+
+        @NotNull
+        @Override
+        public ArrayBuilder newArray() {
+            return ArrayBuilder.of(accessor);
+        }
+
+        @Override
+        public boolean bindObject(@NotNull Object instance, @Nullable Object value) {
+            if (!(value instanceof List)) {
+                return super.bindObject(instance, value);
+            }
+            ArrayBuilder array = newArray();
+            for (Object item : (List<?>) value) {
+                array.addObject(item);
+            }
+            return array.bind(instance);
+        }
+    }
+
+    private static final class ConverterBinder extends ValueBinder {
+        private final ValueConverter<Object> converter;
+
+        @SuppressWarnings("unchecked")
+        ConverterBinder(@NotNull PropertyAccessor accessor, @NotNull ValueConverter<?> converter) {
+            super(accessor);
+            this.converter = (ValueConverter<Object>) converter;
+        }
+
+        @Override
+        public boolean bindBoolean(@NotNull Object instance, boolean value) {
+            return bindObject(instance, value);
+        }
+
+        @Override
+        public boolean bindLong(@NotNull Object instance, long value) {
+            return bindObject(instance, boxIntegral(value));
+        }
+
+        @Override
+        public boolean bindDouble(@NotNull Object instance, double value) {
+            return bindObject(instance, value);
+        }
+
+        @Override
+        public boolean bindString(@NotNull Object instance, @NotNull String value) {
+            return bindObject(instance, value);
+        }
+
+        @Override
+        public boolean bindObject(@NotNull Object instance, @Nullable Object value) {
+            if (value == null) {
+                return bindNull(instance);
+            }
+            Object converted;
+            try {
+                converted = converter.read(value);
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+            accessor.set(instance, converted);
+            return true;
+        }
+
+        @Nullable
+        @Override
+        public Object read(@NotNull Object instance) {
+            Object value = accessor.get(instance);
+            return value == null ? null : converter.write(value);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.articdive.annotatedconfig.annotations;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+
+/**
+ * How the name of the environment variable or system property overriding a property is derived from its path.
+ */
+public enum OverrideNaming {
+    /**
+     * The path itself, {@code a.b.max-size}.
+     */
+    PATH {
+        @NotNull
+        @Override
+        public String format(@NotNull String path) {
+            return path;
+        }
+    },
+    /**
+     * The path in upper case with dots and dashes replaced by underscores, {@code A_B_MAX_SIZE}.
+     */
+    UPPER_SNAKE_CASE {
+        @NotNull
+        @Override
+        public String format(@NotNull String path) {
+            return path.toUpperCase(Locale.ROOT).replace('.', '_').replace('-', '_');
+        }
+    },
+    /**
+     * The path in lower case with dots and dashes replaced by underscores, {@code a_b_max_size}.
+     */
+    LOWER_SNAKE_CASE {
+        @NotNull
+        @Override
+        public String format(@NotNull String path) {
+            return path.toLowerCase(Locale.ROOT).replace('.', '_').replace('-', '_');
+        }
+    };
+
+    /**
+     * @param path The full path of a property.
+     * @return the name of the property, without a prefix.
+     */
+    @NotNull
+    public abstract String format(@NotNull String path);
+}
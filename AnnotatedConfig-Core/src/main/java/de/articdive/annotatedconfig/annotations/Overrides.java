@@ -0,0 +1,50 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.articdive.annotatedconfig.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Overrides the properties of a configuration with environment variables and system properties named after their
+ * path, system properties taking precedence. The names are computed once with the schema of the configuration.
+ * Overridden properties are saved with the value of the file, the overrides are never written to it.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Overrides {
+    /**
+     * @return whether properties are overridden by environment variables.
+     */
+    boolean environment() default true;
+
+    String environmentPrefix() default "";
+
+    OverrideNaming environmentNaming() default OverrideNaming.UPPER_SNAKE_CASE;
+
+    /**
+     * @return whether properties are overridden by system properties.
+     */
+    boolean systemProperties() default true;
+
+    String systemPropertyPrefix() default "";
+
+    OverrideNaming systemPropertyNaming() default OverrideNaming.PATH;
+}
@@ -0,0 +1,81 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.articdive.annotatedconfig.api;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the {@link Configuration#saveAsync() asynchronous saves} of all configurations in the background, so callers
+ * never wait for the disk.
+ * The saves of each configuration are chained one after another, so each file has at most one write in flight, while
+ * the saves of different configurations run on their own threads and a slow file doesn't hold up the others.
+ */
+final class AsyncWriter {
+    // Only ends the save windows, the writes themselves run on the writers.
+    private static final ScheduledExecutorService TIMER;
+    private static final ExecutorService WRITERS;
+
+    static {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, threadFactory("AnnotatedConfig-Timer"));
+        // Without pending saves the threads end, the next save starts new ones.
+        timer.setKeepAliveTime(1, TimeUnit.SECONDS);
+        timer.allowCoreThreadTimeOut(true);
+        TIMER = timer;
+        WRITERS = new ThreadPoolExecutor(
+            0, Integer.MAX_VALUE, 1, TimeUnit.SECONDS, new SynchronousQueue<>(), threadFactory("AnnotatedConfig-Writer")
+        );
+    }
+
+    private AsyncWriter() {
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Schedules a save after the previous save of the same configuration.
+     *
+     * @param previous   The previous save of the configuration.
+     * @param save       The save to run.
+     * @param delayNanos The earliest time the save starts, in nanoseconds from now.
+     * @return the future completed once the save ran, the previous save of the next one.
+     */
+    @NotNull
+    static CompletableFuture<Void> schedule(
+        @NotNull CompletableFuture<Void> previous, @NotNull Runnable save, long delayNanos
+    ) {
+        CompletableFuture<Void> window = new CompletableFuture<>();
+        TIMER.schedule(() -> window.complete(null), delayNanos, TimeUnit.NANOSECONDS);
+        return previous.thenAcceptBoth(window, (ignored, ignoredWindow) -> {
+        }).thenRunAsync(save, WRITERS);
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.api;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Notified when a reload changes the value of a property.
+ *
+ * @see Configuration#addChangeListener(String, ConfigChangeListener)
+ */
+@FunctionalInterface
+public interface ConfigChangeListener {
+    /**
+     * @param path     The full path of the changed property.
+     * @param oldValue The value of the property before the reload.
+     * @param newValue The value of the property after the reload.
+     */
+    void onChange(@NotNull String path, @Nullable Object oldValue, @Nullable Object newValue);
+}
@@ -0,0 +1,205 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.articdive.annotatedconfig.api;
+
+import de.articdive.annotatedconfig.annotations.OverrideNaming;
+import de.articdive.annotatedconfig.annotations.Overrides;
+import de.articdive.annotatedconfig.exceptions.ConfigIOException;
+import de.articdive.annotatedconfig.schema.ConfigSchema;
+import de.articdive.annotatedconfig.schema.OverrideIndex;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates a configuration merged from several sources, from the lowest to the highest precedence:
+ * <ol>
+ *     <li>the {@link #defaults(URL) default resource},</li>
+ *     <li>the configuration's file,</li>
+ *     <li>the {@link #override(File) override files}, in the order they were added,</li>
+ *     <li>the {@link #environment(String) environment variables},</li>
+ *     <li>the {@link #systemProperties(String) system properties}.</li>
+ * </ol>
+ * Each property is set from the highest source containing it, properties found in none keep the defaults of their
+ * class. Unless they are given here, environment variables and system properties are read as the class's
+ * {@link Overrides} annotation says. {@link Configuration#reload() Reloading} the configuration reads its file and
+ * whichever of the other sources changed, only the properties of changed sources are merged again.
+ * <p>
+ * Only the configuration's file is ever written, it is not saved when the configuration is created. Saving it writes
+ * every property, those taken from a higher source with the value they would have without that source (from the
+ * file, the defaults or their class), unless they were changed since, so overrides and environment variables never
+ * end up in the file.
+ *
+ * @param <T> The type of the configuration.
+ */
+public final class ConfigLayers<T extends Configuration> {
+    private final File file;
+    private final Class<T> rootClass;
+    private URL defaults;
+    private final List<File> overrides = new ArrayList<>();
+    private String environmentPrefix;
+    private OverrideNaming environmentNaming;
+    private String systemPropertyPrefix;
+    private OverrideNaming systemPropertyNaming;
+
+    private ConfigLayers(@NotNull File file, @NotNull Class<T> rootClass) {
+        this.file = file;
+        this.rootClass = rootClass;
+    }
+
+    /**
+     * @param file      The file of the configuration, the only source that is saved to.
+     * @param rootClass The class of the configuration.
+     * @param <T>       The type of the configuration.
+     * @return the sources of the configuration, only its file so far.
+     */
+    @NotNull
+    public static <T extends Configuration> ConfigLayers<T> of(@NotNull File file, @NotNull Class<T> rootClass) {
+        return new ConfigLayers<>(file, rootClass);
+    }
+
+    /**
+     * @param resource The defaults, in the format of the configuration. Unlike a default resource of
+     *                 {@link Configuration#createConfiguration(File, boolean, URL, Class)} it isn't copied to the file
+     *                 when the configuration is created, properties missing from the file follow it until the
+     *                 configuration is saved. Saving writes every property, those missing from the file with their
+     *                 default, and from then on the file's values apply.
+     * @return this.
+     */
+    @NotNull
+    public ConfigLayers<T> defaults(@NotNull URL resource) {
+        this.defaults = resource;
+        return this;
+    }
+
+    /**
+     * @param file A file in the format of the configuration overriding the file and the files added before it.
+     *             It doesn't have to exist.
+     * @return this.
+     */
+    @NotNull
+    public ConfigLayers<T> override(@NotNull File file) {
+        overrides.add(file);
+        return this;
+    }
+
+    /**
+     * Overrides properties with environment variables named after their path in upper case, with dots and dashes
+     * replaced by underscores: the prefix {@code APP_} reads the property {@code database.max-connections} from
+     * {@code APP_DATABASE_MAX_CONNECTIONS}. The environment is read once.
+     *
+     * @param prefix The prefix of the variables.
+     * @return this.
+     */
+    @NotNull
+    public ConfigLayers<T> environment(@NotNull String prefix) {
+        return environment(prefix, OverrideNaming.UPPER_SNAKE_CASE);
+    }
+
+    /**
+     * @param prefix The prefix of the variables.
+     * @param naming How the names of the variables are derived from the paths of the properties.
+     * @return this.
+     * @see #environment(String)
+     */
+    @NotNull
+    public ConfigLayers<T> environment(@NotNull String prefix, @NotNull OverrideNaming naming) {
+        this.environmentPrefix = prefix;
+        this.environmentNaming = naming;
+        return this;
+    }
+
+    /**
+     * Overrides properties with system properties named after their path: the prefix {@code app.} reads the property
+     * {@code database.max-connections} from {@code app.database.max-connections}. System properties are read again
+     * whenever the configuration is reloaded.
+     *
+     * @param prefix The prefix of the system properties.
+     * @return this.
+     */
+    @NotNull
+    public ConfigLayers<T> systemProperties(@NotNull String prefix) {
+        return systemProperties(prefix, OverrideNaming.PATH);
+    }
+
+    /**
+     * @param prefix The prefix of the system properties.
+     * @param naming How the names of the system properties are derived from the paths of the properties.
+     * @return this.
+     * @see #systemProperties(String)
+     */
+    @NotNull
+    public ConfigLayers<T> systemProperties(@NotNull String prefix, @NotNull OverrideNaming naming) {
+        this.systemPropertyPrefix = prefix;
+        this.systemPropertyNaming = naming;
+        return this;
+    }
+
+    /**
+     * Reads every source and merges them into a new configuration.
+     *
+     * @return the configuration.
+     */
+    @NotNull
+    public T create() {
+        ConfigSchema schema = ConfigSchema.of(rootClass);
+        T config;
+        try {
+            config = rootClass.cast(schema.getRoot().newInstance(null));
+        } catch (ReflectiveOperationException e) {
+            throw new ConfigIOException(
+                String.format("Could not initialize the configuration for file at path %s.", file.getPath()),
+                e
+            );
+        }
+        config.file = file;
+        config.subClass = rootClass;
+        config.schema = schema;
+        config.bindSections();
+
+        List<LayerStack.Layer> layers = new ArrayList<>();
+        if (defaults != null) {
+            layers.add(new LayerStack.ResourceLayer(defaults));
+        }
+        int fileLayer = layers.size();
+        layers.add(new LayerStack.FileLayer(null));
+        for (File override : overrides) {
+            layers.add(new LayerStack.FileLayer(override));
+        }
+        OverrideIndex environment = environmentPrefix == null ? schema.getEnvironmentOverrides()
+            : schema.getOverrideIndex(environmentNaming, environmentPrefix);
+        if (environment != null) {
+            layers.add(new LayerStack.StringLayer(environment, true));
+        }
+        OverrideIndex systemProperties = systemPropertyPrefix == null ? schema.getSystemPropertyOverrides()
+            : schema.getOverrideIndex(systemPropertyNaming, systemPropertyPrefix);
+        if (systemProperties != null) {
+            layers.add(new LayerStack.StringLayer(systemProperties, false));
+        }
+        LayerStack stack = new LayerStack(config, layers, fileLayer);
+
+        config.layers = stack;
+        config.rememberFileState();
+        config.measuredLoad();
+        stack.resolve(config, false);
+        return config;
+    }
+}
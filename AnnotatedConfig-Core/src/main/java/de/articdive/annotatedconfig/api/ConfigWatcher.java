@@ -0,0 +1,217 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.api;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the directories of configurations on a single shared thread and reloads them once their files stopped
+ * changing for their debounce time.
+ */
+final class ConfigWatcher implements Runnable {
+    static final ConfigWatcher INSTANCE = new ConfigWatcher();
+
+    // All fields are guarded by this.
+    private final Map<Path, WatchKey> directories = new HashMap<>();
+    private final Map<WatchKey, Path> keys = new HashMap<>();
+    private final Map<Path, List<Watch>> watches = new HashMap<>();
+    private WatchService watchService;
+
+    private ConfigWatcher() {
+    }
+
+    synchronized void watch(@NotNull Configuration config, @NotNull Path file, long debounceNanos) throws IOException {
+        unwatch(config);
+        Path directory = file.getParent();
+        if (watchService == null) {
+            FileSystem fileSystem = file.getFileSystem();
+            watchService = fileSystem.newWatchService();
+            Thread thread = new Thread(this, "AnnotatedConfig-Watcher");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        if (!directories.containsKey(directory)) {
+            WatchKey key;
+            try {
+                key = directory.register(
+                    watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY
+                );
+            } catch (IOException e) {
+                closeIfUnused();
+                throw e;
+            }
+            directories.put(directory, key);
+            keys.put(key, directory);
+        }
+        watches.computeIfAbsent(file, path -> new ArrayList<>()).add(new Watch(config, debounceNanos));
+    }
+
+    synchronized void unwatch(@NotNull Configuration config) {
+        Iterator<Map.Entry<Path, List<Watch>>> iterator = watches.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, List<Watch>> entry = iterator.next();
+            entry.getValue().removeIf(watch -> watch.config == config);
+            if (entry.getValue().isEmpty()) {
+                iterator.remove();
+                removeDirectoryIfUnused(entry.getKey().getParent());
+            }
+        }
+    }
+
+    private void removeDirectoryIfUnused(@NotNull Path directory) {
+        for (Path file : watches.keySet()) {
+            if (file.getParent().equals(directory)) {
+                return;
+            }
+        }
+        WatchKey key = directories.remove(directory);
+        if (key != null) {
+            key.cancel();
+            keys.remove(key);
+        }
+        closeIfUnused();
+    }
+
+    private void closeIfUnused() {
+        if (directories.isEmpty() && watchService != null) {
+            // Closing the service ends the watcher thread, the next watch starts a new one.
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            watchService = null;
+        }
+    }
+
+    @Override
+    public void run() {
+        WatchService watchService;
+        synchronized (this) {
+            watchService = this.watchService;
+        }
+        try {
+            long timeout = Long.MAX_VALUE;
+            while (true) {
+                WatchKey key = timeout == Long.MAX_VALUE
+                    ? watchService.take() : watchService.poll(timeout, TimeUnit.NANOSECONDS);
+                List<Configuration> due = new ArrayList<>();
+                synchronized (this) {
+                    long now = System.nanoTime();
+                    while (key != null) {
+                        handleEvents(key, now);
+                        key = watchService.poll();
+                    }
+                    timeout = collectDue(now, due);
+                }
+                for (Configuration config : due) {
+                    try {
+                        config.reloadIfModified();
+                    } catch (RuntimeException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException ignored) {
+            // The last configuration stopped watching.
+        }
+    }
+
+    private void handleEvents(@NotNull WatchKey key, long now) {
+        Path directory = keys.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (directory == null) {
+                continue;
+            }
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Events were lost, check every file of the directory.
+                for (Map.Entry<Path, List<Watch>> entry : watches.entrySet()) {
+                    if (entry.getKey().getParent().equals(directory)) {
+                        schedule(entry.getValue(), now);
+                    }
+                }
+            } else {
+                List<Watch> fileWatches = watches.get(directory.resolve((Path) event.context()));
+                if (fileWatches != null) {
+                    schedule(fileWatches, now);
+                }
+            }
+        }
+        if (!key.reset() && directory != null) {
+            // The directory is gone, its configurations can't be watched anymore.
+            directories.remove(directory);
+            keys.remove(key);
+            closeIfUnused();
+        }
+    }
+
+    private static void schedule(@NotNull List<Watch> fileWatches, long now) {
+        // Every event pushes the reload back, so a burst of writes only reloads once.
+        for (Watch watch : fileWatches) {
+            watch.deadline = now + watch.debounceNanos;
+            watch.scheduled = true;
+        }
+    }
+
+    private long collectDue(long now, @NotNull List<Configuration> due) {
+        long timeout = Long.MAX_VALUE;
+        for (List<Watch> fileWatches : watches.values()) {
+            for (Watch watch : fileWatches) {
+                if (!watch.scheduled) {
+                    continue;
+                }
+                long remaining = watch.deadline - now;
+                if (remaining <= 0) {
+                    watch.scheduled = false;
+                    due.add(watch.config);
+                } else {
+                    timeout = Math.min(timeout, remaining);
+                }
+            }
+        }
+        return timeout;
+    }
+
+    private static final class Watch {
+        private final Configuration config;
+        private final long debounceNanos;
+        private long deadline;
+        private boolean scheduled;
+
+        private Watch(@NotNull Configuration config, long debounceNanos) {
+            this.config = config;
+            this.debounceNanos = debounceNanos;
+        }
+    }
+}
@@ -18,38 +18,74 @@
 
 package de.articdive.annotatedconfig.api;
 
-import de.articdive.annotatedconfig.annotations.Property;
-import de.articdive.annotatedconfig.annotations.Section;
 import de.articdive.annotatedconfig.exceptions.ConfigIOException;
+import de.articdive.annotatedconfig.exceptions.ConfigLoadException;
+import de.articdive.annotatedconfig.exceptions.ConfigSaveException;
+import de.articdive.annotatedconfig.metrics.ConfigMetrics;
+import de.articdive.annotatedconfig.metrics.LoadStats;
+import de.articdive.annotatedconfig.metrics.MetricsRegistry;
+import de.articdive.annotatedconfig.metrics.SaveStats;
+import de.articdive.annotatedconfig.schema.ConfigSchema;
+import de.articdive.annotatedconfig.schema.PropertySchema;
+import de.articdive.annotatedconfig.schema.SectionSchema;
 import de.articdive.annotatedconfig.util.FileUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 public abstract class Configuration {
+    private static final long DEFAULT_DEBOUNCE_MILLIS = 100;
+    private static final long DEFAULT_SAVE_WINDOW_MILLIS = 50;
+
     protected File file;
     protected URL defaultResourceURL;
     protected Class<? extends Configuration> subClass;
+    protected ConfigSchema schema;
     protected Map<Class<?>, List<Field>> fieldMap = new LinkedHashMap<>();
     protected Map<Class<?>, Object> objectMap = new HashMap<>();
+    protected boolean skipUnchangedWrites = true;
+    protected boolean patchWrites = true;
+    protected SaveDurability saveDurability = SaveDurability.SYNC_FILE;
+    private final Map<String, List<ConfigChangeListener>> changeListeners = new ConcurrentHashMap<>();
+    private volatile long knownLastModified = -1;
+    private volatile boolean snapshotMode;
+    private volatile Configuration snapshot = this;
+    private volatile long knownLength = -1;
+    private final Object asyncSaveLock = new Object();
+    // The save covering every saveAsync call since the last write started, guarded by asyncSaveLock.
+    private CompletableFuture<SaveResult> pendingSave;
+    // The last write scheduled by saveAsync, the next one waits for it. Guarded by asyncSaveLock.
+    private CompletableFuture<Void> lastAsyncWrite = CompletableFuture.completedFuture(null);
+    private volatile long saveWindowNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_SAVE_WINDOW_MILLIS);
+    // The layers merged into this configuration, null unless it was created by ConfigLayers.
+    LayerStack layers;
+    // Copies of the values in the file when it was last loaded or saved, null unless the file can be patched.
+    private Object[] savedValues;
+    // The measurements of the running load, only touched by the loading thread.
+    private long loadStart;
+    private long parseEnd;
+    private boolean parseRecorded;
+    private BitSet boundProperties = new BitSet();
+    private int mismatchedProperties;
+    private Object loadEvent;
 
     protected Configuration() {
 
@@ -65,10 +101,11 @@ public abstract class Configuration {
         @NotNull File file, boolean copyDefaultResource, @Nullable URL defaultResourceURL,
         @NotNull Class<T> rootClass
     ) {
+        ConfigSchema schema = ConfigSchema.of(rootClass);
         T config;
         try {
-            config = rootClass.newInstance();
-        } catch (InstantiationException | IllegalAccessException e) {
+            config = rootClass.cast(schema.getRoot().newInstance(null));
+        } catch (ReflectiveOperationException e) {
             throw new ConfigIOException(
                 String.format("Could not initialize the configuration for file at path %s.", file.getPath()),
                 e
@@ -84,44 +121,94 @@ public abstract class Configuration {
             config.defaultResourceURL = null;
         }
         config.subClass = rootClass;
-        getFields(config, rootClass, config, 1);
+        config.schema = schema;
+        config.bindSections();
+        config.layers = LayerStack.ofOverrides(config);
 
-        config.load();
-        config.save();
+        config.rememberFileState();
+        // A valid cache was written by a save of the unchanged file, the file needs neither parsing nor saving.
+        config.beginLoad();
+        if (config.layers == null && SidecarCache.load(config)) {
+            config.endLoad(true);
+            config.loadedFromCache();
+        } else {
+            // The load was measured from the attempt to use the cache on, it isn't begun a second time.
+            config.load();
+            config.endLoad(false);
+            if (config.layers != null) {
+                config.layers.resolve(config, false);
+            }
+            config.save();
+        }
 
         return config;
     }
 
-    private static <T extends Configuration> void getFields(
-        @NotNull T config, @NotNull Class<?> rootClass,
-        @NotNull Object parentObject, int depth
+    /**
+     * Creates a configuration without blocking the calling thread, on virtual threads where the runtime has them.
+     *
+     * @see #createConfiguration(File, Class)
+     */
+    @NotNull
+    public static <T extends Configuration> CompletableFuture<T> createConfigurationAsync(
+        @NotNull File file, @NotNull Class<T> rootClass
+    ) {
+        return createConfigurationAsync(file, false, null, rootClass, DefaultExecutor.INSTANCE);
+    }
+
+    /**
+     * Creates a configuration without blocking the calling thread, on virtual threads where the runtime has them.
+     *
+     * @see #createConfiguration(File, boolean, URL, Class)
+     */
+    @NotNull
+    public static <T extends Configuration> CompletableFuture<T> createConfigurationAsync(
+        @NotNull File file, boolean copyDefaultResource, @Nullable URL defaultResourceURL,
+        @NotNull Class<T> rootClass
     ) {
-        config.fieldMap.put(
-            rootClass,
-            Arrays.stream(rootClass.getDeclaredFields())
-                .filter(field -> field.isAnnotationPresent(Property.class))
-                .collect(Collectors.toList())
+        return createConfigurationAsync(
+            file, copyDefaultResource, defaultResourceURL, rootClass, DefaultExecutor.INSTANCE
         );
+    }
 
-        config.objectMap.put(
-            rootClass,
-            parentObject
+    /**
+     * Creates a configuration on an executor.
+     *
+     * @param executor The executor loading the configuration.
+     * @return the configuration, completed exceptionally if it failed to load.
+     * @see #createConfiguration(File, boolean, URL, Class)
+     */
+    @NotNull
+    public static <T extends Configuration> CompletableFuture<T> createConfigurationAsync(
+        @NotNull File file, boolean copyDefaultResource, @Nullable URL defaultResourceURL,
+        @NotNull Class<T> rootClass, @NotNull Executor executor
+    ) {
+        return CompletableFuture.supplyAsync(
+            () -> createConfiguration(file, copyDefaultResource, defaultResourceURL, rootClass),
+            executor
         );
+    }
 
-        for (Class<?> subClass : Arrays.stream(rootClass.getDeclaredClasses())
-            .filter(aClass -> aClass.toString().length() - aClass.toString().replaceAll("\\$", "").length() == depth)
-            .collect(Collectors.toList())
-        ) {
-            if (subClass.isAnnotationPresent(Section.class)) {
-                try {
-                    Constructor<?> consturctor = subClass.getDeclaredConstructor(rootClass);
-                    consturctor.setAccessible(true);
-
-                    getFields(config, subClass, consturctor.newInstance(parentObject), depth + 1);
-                } catch (InstantiationException | IllegalAccessException
-                    | InvocationTargetException | NoSuchMethodException e) {
-                    e.printStackTrace();
-                }
+    protected final void bindSections() {
+        fieldMap = schema.getFieldMap();
+        objectMap = new HashMap<>();
+        for (SectionSchema section : schema.getSections()) {
+            if (section.isRoot()) {
+                objectMap.put(section.getType(), this);
+                continue;
+            }
+            try {
+                objectMap.put(
+                    section.getType(),
+                    section.newInstance(objectMap.get(section.getParent().getType()))
+                );
+            } catch (ReflectiveOperationException e) {
+                throw new ConfigIOException(
+                    String.format(
+                        "Could not initialize the section %s for file at path %s.", section.getPath(), file.getPath()
+                    ),
+                    e
+                );
             }
         }
     }
@@ -137,17 +224,8 @@ public abstract class Configuration {
         }
         // Copy default Resource.
         if (defaultResourceURL != null) {
-            try (BufferedWriter writer = new BufferedWriter(
-                new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)
-            )) {
-                try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(defaultResourceURL.openStream(), StandardCharsets.UTF_8)
-                )) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        writer.write(line + System.getProperty("line.separator"));
-                    }
-                }
+            try {
+                FileUtil.copyResource(defaultResourceURL, file);
             } catch (IOException e) {
                 throw new ConfigIOException("Failed to copy default resource to the save file.", e);
             }
@@ -156,22 +234,587 @@ public abstract class Configuration {
 
     protected abstract void load();
 
-    protected abstract void save();
+    final void measuredLoad() {
+        beginLoad();
+        load();
+        endLoad(false);
+    }
+
+    final void beginLoad() {
+        parseRecorded = false;
+        boundProperties = new BitSet();
+        mismatchedProperties = 0;
+        loadEvent = JfrEvents.beginParse();
+        loadStart = System.nanoTime();
+    }
+
+    /**
+     * Marks the end of parsing the file during {@link #load()}, the rest of the load is measured as binding.
+     * Formats binding properties while they parse don't call this, their whole load is measured as parsing.
+     */
+    protected final void recordParsed() {
+        parseEnd = System.nanoTime();
+        parseRecorded = true;
+        JfrEvents.commitParse(loadEvent, file);
+        loadEvent = JfrEvents.beginBind();
+    }
 
+    /**
+     * Reports the properties bound during {@link #load()}, properties neither bound nor mismatched were missing from
+     * the file.
+     *
+     * @param bound      The {@link PropertySchema#getIndex() indexes} of the properties set from the file.
+     * @param mismatched The number of properties whose value in the file didn't fit their type.
+     */
+    protected final void recordBound(@NotNull BitSet bound, int mismatched) {
+        boundProperties = bound;
+        mismatchedProperties = mismatched;
+    }
+
+    /**
+     * @return the indexes of the properties set by the last load.
+     */
     @NotNull
-    protected String getSectionPath(@NotNull Class<?> clazz) {
-        if (!clazz.isMemberClass()) {
-            return "";
+    final BitSet getBoundProperties() {
+        return boundProperties;
+    }
+
+    final void endLoad(boolean fromCache) {
+        long end = System.nanoTime();
+        int bound = boundProperties.cardinality();
+        int skipped = schema.getProperties().size() - bound - mismatchedProperties;
+        if (parseRecorded) {
+            JfrEvents.commitBind(loadEvent, file, bound, skipped, mismatchedProperties);
         } else {
-            // It is a member class
-            StringBuilder path = new StringBuilder(clazz.getAnnotation(Section.class).value());
-            Class<?> declaringClass = clazz;
-            while ((declaringClass = declaringClass.getDeclaringClass()).isMemberClass()) {
-                path.insert(0, declaringClass.getAnnotation(Section.class).value() + ".");
+            parseEnd = end;
+            JfrEvents.commitParse(loadEvent, file);
+        }
+        loadEvent = null;
+        // Only a file containing every property can be patched, saving it must not add any key.
+        savedValues = !fromCache && layers == null && bound == schema.getProperties().size()
+            && mismatchedProperties == 0 ? copyValues() : null;
+
+        List<ConfigMetrics> listeners = MetricsRegistry.getListeners();
+        if (listeners.isEmpty()) {
+            return;
+        }
+        LoadStats stats = new LoadStats(
+            fromCache, file.length(), parseEnd - loadStart, end - parseEnd,
+            bound, skipped, mismatchedProperties
+        );
+        for (ConfigMetrics listener : listeners) {
+            try {
+                listener.loaded(this, stats);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
             }
-            return path.toString();
         }
     }
 
+    /**
+     * Called instead of {@link #load()} when the properties were bound from the
+     * {@link de.articdive.annotatedconfig.annotations.ParseCache parse cache}. Formats that keep the parsed document
+     * should read it again once it is needed.
+     */
+    protected void loadedFromCache() {
+    }
+
+    /**
+     * Saves the properties to the file.
+     * Unless {@link #setSkipUnchangedWrites(boolean) disabled}, nothing is written if the file already contains exactly
+     * what would be written.
+     * If the file wasn't changed by anyone else since it was last loaded or saved, formats that support it only
+     * {@link #patch(String, List) patch} the properties changed since into the file, the rest of it is kept as it is,
+     * unless {@link #setPatchWrites(boolean) disabled}.
+     *
+     * @return whether the file was written.
+     */
+    @NotNull
+    public final synchronized SaveResult save() {
+        Configuration current = snapshot;
+        if (current != this) {
+            SaveResult result = current.save();
+            rememberFileState();
+            return result;
+        }
+
+        // Just a failsafe to ensure the file is valid.
+        if (!file.exists()) {
+            handleFileCreation();
+        }
+
+        long start = System.nanoTime();
+        Object renderEvent = JfrEvents.beginRender();
+        String text = patchChanged();
+        if (text == null) {
+            // Layered configurations save the values of their file, without those of the layers above it.
+            text = layers == null ? render() : layers.renderFile(this);
+            if (text == null) {
+                // Never replace the user's file with the output of a format that has nothing to write.
+                return SaveResult.UNCHANGED;
+            }
+        }
+        byte[] output = text.getBytes(StandardCharsets.UTF_8);
+        JfrEvents.commitRender(renderEvent, file, output.length);
+        long rendered = System.nanoTime();
+        Object writeEvent = JfrEvents.beginWrite();
+        try {
+            if (skipUnchangedWrites && FileUtil.hasContent(file, output)) {
+                savedValues = layers == null ? copyValues() : null;
+                writeCache(output);
+                JfrEvents.commitWrite(writeEvent, file, output.length, false);
+                saved(SaveResult.UNCHANGED, 0, start, rendered);
+                return SaveResult.UNCHANGED;
+            }
+        } catch (IOException e) {
+            savedValues = null;
+            throw new ConfigSaveException("Failed to compare the configuration to its file.", e);
+        }
+
+        // Output to file, readers see either the old or the new file but never a partially written one.
+        try {
+            FileUtil.writeAtomically(file, output, saveDurability);
+        } catch (IOException e) {
+            // The format may have prepared a patch of text that wasn't written.
+            savedValues = null;
+            throw new ConfigSaveException("Failed to save configuration to file.", e);
+        }
+        // Our own write should not trigger a reload when the file is watched.
+        rememberFileState();
+        savedValues = layers == null ? copyValues() : null;
+        writeCache(output);
+        JfrEvents.commitWrite(writeEvent, file, output.length, true);
+        saved(SaveResult.WRITTEN, output.length, start, rendered);
+        return SaveResult.WRITTEN;
+    }
+
+    /**
+     * @return the patched text of the file, null if it has to be rendered.
+     */
+    @Nullable
+    private String patchChanged() {
+        Object[] savedValues = this.savedValues;
+        if (!patchWrites || savedValues == null || layers != null || file.lastModified() != knownLastModified
+            || file.length() != knownLength) {
+            return null;
+        }
+        List<PropertySchema> properties = schema.getProperties();
+        List<PropertySchema> changed = new ArrayList<>();
+        for (int i = 0; i < savedValues.length; i++) {
+            if (ValueSnapshot.changed(savedValues[i], getValue(properties.get(i)))) {
+                changed.add(properties.get(i));
+            }
+        }
+        String text;
+        try {
+            text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+        return changed.isEmpty() ? text : patch(text, changed);
+    }
+
+    /**
+     * Writes the values of changed properties into the text of the file, without touching anything else in it.
+     * Only called if the file contains every property and wasn't changed since this configuration last loaded or
+     * saved it. Formats that can patch their files keep the positions of the values from then.
+     *
+     * @param text    The current text of the file.
+     * @param changed The properties changed since the file was last loaded or saved.
+     * @return the patched text, null if the properties can't be patched and the configuration has to be
+     * {@link #render() rendered}.
+     */
+    @Nullable
+    protected String patch(@NotNull String text, @NotNull List<PropertySchema> changed) {
+        return null;
+    }
+
+    @NotNull
+    private Object[] copyValues() {
+        List<PropertySchema> properties = schema.getProperties();
+        Object[] values = new Object[properties.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = ValueSnapshot.copy(getValue(properties.get(i)));
+        }
+        return values;
+    }
+
+    /**
+     * Saves the properties to the file on a background thread.
+     * All calls within the {@link #setSaveWindow(long) save window} of the first one are merged into a single
+     * {@link #save()}, which starts after the window and reads the properties then, so it covers every change made
+     * before any of the calls. Pending saves are lost if the JVM exits before they are written, wait for the returned
+     * future before shutting down.
+     *
+     * @return the save covering the current values of the properties, completed with its result or its exception.
+     */
+    @NotNull
+    public CompletableFuture<SaveResult> saveAsync() {
+        synchronized (asyncSaveLock) {
+            if (pendingSave == null) {
+                pendingSave = new CompletableFuture<>();
+                lastAsyncWrite = AsyncWriter.schedule(lastAsyncWrite, this::writePendingSave, saveWindowNanos);
+            }
+            return pendingSave;
+        }
+    }
+
+    private void writePendingSave() {
+        CompletableFuture<SaveResult> future;
+        synchronized (asyncSaveLock) {
+            // Calls from now on need a new save, this one may already have read the values they changed.
+            future = pendingSave;
+            pendingSave = null;
+        }
+        try {
+            future.complete(save());
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        }
+    }
+
+    /**
+     * @return how long {@link #saveAsync()} waits for more calls before it saves, in milliseconds.
+     */
+    public long getSaveWindow() {
+        return TimeUnit.NANOSECONDS.toMillis(saveWindowNanos);
+    }
+
+    /**
+     * @param saveWindowMillis How long {@link #saveAsync()} waits for more calls before it saves, 50 milliseconds by
+     *                         default. 0 saves as soon as the previous save finished.
+     */
+    public void setSaveWindow(long saveWindowMillis) {
+        if (saveWindowMillis < 0) {
+            throw new IllegalArgumentException("The save window can't be negative.");
+        }
+        this.saveWindowNanos = TimeUnit.MILLISECONDS.toNanos(saveWindowMillis);
+    }
+
+    private void saved(@NotNull SaveResult result, long bytesWritten, long start, long rendered) {
+        List<ConfigMetrics> listeners = MetricsRegistry.getListeners();
+        if (listeners.isEmpty()) {
+            return;
+        }
+        SaveStats stats = new SaveStats(result, bytesWritten, rendered - start, System.nanoTime() - rendered);
+        for (ConfigMetrics listener : listeners) {
+            try {
+                listener.saved(this, stats);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void writeCache(@NotNull byte[] output) {
+        if (layers != null) {
+            // The properties of a layered configuration don't come from its file alone.
+            return;
+        }
+        try {
+            SidecarCache.write(this, output);
+        } catch (IOException e) {
+            // The cache is optional, the configuration is parsed again on the next start.
+        }
+    }
+
+    /**
+     * Updates the configuration's output from the current values of its properties and renders it.
+     *
+     * @return the text to save to the file, null if the format can't write files yet. The file is then left as it is.
+     */
+    @Nullable
+    protected abstract String render();
+
+    /**
+     * Loads the file again. Listeners are notified about every property whose value changed.
+     * The properties of this configuration and its sections are updated in place, unless the configuration is in
+     * {@link #setSnapshotMode(boolean) snapshot mode}.
+     * Configurations created by {@link ConfigLayers} or {@link de.articdive.annotatedconfig.annotations.Overrides
+     * overridden} also read those of their other sources that changed.
+     */
+    public synchronized void reload() {
+        Configuration previous = snapshot;
+        PropertySchema[] properties = null;
+        Object[] oldValues = null;
+        if (!changeListeners.isEmpty()) {
+            properties = schema.getProperties().toArray(new PropertySchema[0]);
+            oldValues = new Object[properties.length];
+            for (int i = 0; i < properties.length; i++) {
+                oldValues[i] = previous.getValue(properties[i]);
+            }
+        }
+
+        // The state is remembered before reading, a write during the load is then still detected afterwards.
+        rememberFileState();
+        Configuration current;
+        if (snapshotMode) {
+            current = newSnapshot();
+            if (layers != null) {
+                layers.resolve(current, true);
+            }
+            // Publish the fully loaded graph, readers never see it half bound.
+            snapshot = current;
+        } else {
+            current = this;
+            measuredLoad();
+            if (layers != null) {
+                layers.resolve(this, false);
+            }
+        }
+
+        if (properties != null) {
+            for (int i = 0; i < properties.length; i++) {
+                Object newValue = current.getValue(properties[i]);
+                if (!Objects.deepEquals(oldValues[i], newValue)) {
+                    fireChange(properties[i], oldValues[i], newValue);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reloads the file without blocking the calling thread, on virtual threads where the runtime has them.
+     *
+     * @see #reload()
+     */
+    @NotNull
+    public CompletableFuture<Void> reloadAsync() {
+        return reloadAsync(DefaultExecutor.INSTANCE);
+    }
+
+    /**
+     * Reloads the file on an executor.
+     *
+     * @param executor The executor loading the file.
+     * @return completed once the configuration was reloaded, exceptionally if it failed to load.
+     * @see #reload()
+     */
+    @NotNull
+    public CompletableFuture<Void> reloadAsync(@NotNull Executor executor) {
+        return CompletableFuture.runAsync(this::reload, executor);
+    }
+
+    @NotNull
+    private Configuration newSnapshot() {
+        Configuration current = newInstance(file);
+        current.defaultResourceURL = defaultResourceURL;
+        current.layers = layers;
+        current.measuredLoad();
+        return current;
+    }
+
+    /**
+     * Creates an instance of this configuration with the same settings that hasn't been loaded yet.
+     *
+     * @param file The file of the new instance.
+     * @return the new instance, its properties have the defaults of their classes.
+     */
+    @NotNull
+    final Configuration newInstance(@NotNull File file) {
+        Configuration instance;
+        try {
+            instance = (Configuration) schema.getRoot().newInstance(null);
+        } catch (ReflectiveOperationException e) {
+            throw new ConfigLoadException(
+                String.format("Could not initialize the configuration for file at path %s.", file.getPath()),
+                e
+            );
+        }
+        instance.file = file;
+        instance.subClass = subClass;
+        instance.schema = schema;
+        instance.skipUnchangedWrites = skipUnchangedWrites;
+        instance.patchWrites = patchWrites;
+        instance.saveDurability = saveDurability;
+        copySettings(instance);
+        instance.bindSections();
+        return instance;
+    }
+
+    /**
+     * Copies the format specific settings of this configuration to a new snapshot before it is loaded.
+     *
+     * @param snapshot The new snapshot of this configuration.
+     */
+    protected void copySettings(@NotNull Configuration snapshot) {
+    }
+
+    /**
+     * In snapshot mode reloads don't touch the current objects, they load into a new instance of the configuration and
+     * its sections which then replaces the current {@link #snapshot()}. A snapshot is never modified by a reload, so it
+     * can be read from any thread without locking and all of its values come from the same load.
+     * Saving this configuration saves the current snapshot.
+     * This should be enabled before the configuration is reloaded or watched, this configuration is the first snapshot.
+     *
+     * @param snapshotMode true to publish every reload as a new snapshot.
+     */
+    public synchronized void setSnapshotMode(boolean snapshotMode) {
+        this.snapshotMode = snapshotMode;
+        if (!snapshotMode) {
+            snapshot = this;
+        }
+    }
+
+    public boolean isSnapshotMode() {
+        return snapshotMode;
+    }
+
+    /**
+     * @param <T> The type of the configuration.
+     * @return the latest snapshot in snapshot mode, otherwise this configuration.
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public final <T extends Configuration> T snapshot() {
+        return (T) snapshot;
+    }
+
+    final void reloadIfModified() {
+        if (file.lastModified() != knownLastModified || file.length() != knownLength) {
+            reload();
+        }
+    }
+
+    final void rememberFileState() {
+        knownLastModified = file.lastModified();
+        knownLength = file.length();
+    }
+
+    @Nullable
+    final Object getValue(@NotNull PropertySchema property) {
+        return property.getAccessor().get(objectMap.get(property.getSection().getType()));
+    }
+
+    private void fireChange(@NotNull PropertySchema property, @Nullable Object oldValue, @Nullable Object newValue) {
+        notifyListeners(property.getPath(), property.getPath(), oldValue, newValue);
+        for (SectionSchema section = property.getSection(); section != null; section = section.getParent()) {
+            notifyListeners(section.getPath(), property.getPath(), oldValue, newValue);
+        }
+    }
+
+    private void notifyListeners(
+        @NotNull String listenerPath, @NotNull String path, @Nullable Object oldValue, @Nullable Object newValue
+    ) {
+        List<ConfigChangeListener> listeners = changeListeners.get(listenerPath);
+        if (listeners != null) {
+            for (ConfigChangeListener listener : listeners) {
+                listener.onChange(path, oldValue, newValue);
+            }
+        }
+    }
+
+    /**
+     * Registers a listener notified when a reload changes a property.
+     *
+     * @param path     The full path of a property, or of a section to listen to all of its properties.
+     *                 The empty path listens to every property.
+     * @param listener The listener to notify.
+     */
+    public void addChangeListener(@NotNull String path, @NotNull ConfigChangeListener listener) {
+        changeListeners.computeIfAbsent(path, key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    public void removeChangeListener(@NotNull String path, @NotNull ConfigChangeListener listener) {
+        List<ConfigChangeListener> listeners = changeListeners.get(path);
+        if (listeners != null) {
+            listeners.remove(listener);
+        }
+    }
+
+    /**
+     * Reloads the configuration whenever its file is changed by someone else, see {@link #startWatching(long)}.
+     */
+    public void startWatching() {
+        startWatching(DEFAULT_DEBOUNCE_MILLIS);
+    }
+
+    /**
+     * Reloads the configuration whenever its file is changed by someone else.
+     * All watched configurations share a single thread, which reloads them once their file did not change for the
+     * debounce time, so editors writing a file in several steps only cause a single reload.
+     * The configuration is watched until {@link #stopWatching()} is called.
+     *
+     * @param debounceMillis How long the file has to stay unchanged before it is reloaded.
+     */
+    public void startWatching(long debounceMillis) {
+        try {
+            ConfigWatcher.INSTANCE.watch(
+                this, file.toPath().toAbsolutePath(), TimeUnit.MILLISECONDS.toNanos(debounceMillis)
+            );
+        } catch (IOException e) {
+            throw new ConfigIOException(String.format("Failed to watch the file at path %s.", file.getPath()), e);
+        }
+    }
+
+    public void stopWatching() {
+        ConfigWatcher.INSTANCE.unwatch(this);
+    }
+
+    @NotNull
+    public SaveDurability getSaveDurability() {
+        return saveDurability;
+    }
+
+    /**
+     * @param saveDurability How much saves wait for the file to reach the disk, {@link SaveDurability#SYNC_FILE} by
+     *                       default.
+     */
+    public void setSaveDurability(@NotNull SaveDurability saveDurability) {
+        this.saveDurability = saveDurability;
+    }
+
+    public boolean isSkipUnchangedWrites() {
+        return skipUnchangedWrites;
+    }
+
+    /**
+     * @param skipUnchangedWrites false to rewrite the file on every save, even if its content would not change.
+     */
+    public void setSkipUnchangedWrites(boolean skipUnchangedWrites) {
+        this.skipUnchangedWrites = skipUnchangedWrites;
+    }
+
+    public boolean isPatchWrites() {
+        return patchWrites;
+    }
+
+    /**
+     * @param patchWrites false to render the whole file on every save, even if only some properties changed.
+     */
+    public void setPatchWrites(boolean patchWrites) {
+        this.patchWrites = patchWrites;
+    }
+
+    @NotNull
+    protected String getSectionPath(@NotNull Class<?> clazz) {
+        SectionSchema section = schema.getSection(clazz);
+        return section == null ? "" : section.getPath();
+    }
+
+    /**
+     * Gets the rendered form of the configuration, formats cache it until the configuration is loaded or saved again.
+     *
+     * @return the text of the configuration.
+     */
     public abstract String strOutput();
+
+    /**
+     * @return the rendered form of the configuration, the cached text itself without a copy of it.
+     */
+    @NotNull
+    public CharSequence getOutput() {
+        String output = strOutput();
+        return output == null ? "" : output;
+    }
+
+    /**
+     * Appends the rendered form of the configuration, without copying the cached text first.
+     *
+     * @param appendable The appendable to write to.
+     * @throws IOException if the appendable could not be written to.
+     */
+    public void writeOutput(@NotNull Appendable appendable) throws IOException {
+        appendable.append(getOutput());
+    }
 }
@@ -0,0 +1,154 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.articdive.annotatedconfig.api;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates many configurations at once, in parallel on an executor.
+ * The schema of a configuration class is built once and shared by every file loaded with it.
+ * At most {@code maxConcurrentLoads} configurations are read at the same time, the thread calling
+ * {@link #loadAll()} takes part in loading them.
+ * <p>
+ * A loader must only be used by one thread. Every file should be added at most once per batch.
+ */
+public final class ConfigurationLoader {
+    private final Executor executor;
+    private final int maxConcurrentLoads;
+    private final List<LoadResult<?>> pending = new ArrayList<>();
+
+    /**
+     * Creates a loader running on virtual threads where the runtime has them, otherwise on a pool of daemon threads,
+     * with one load per processor.
+     */
+    public ConfigurationLoader() {
+        this(DefaultExecutor.INSTANCE, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param executor           The executor loading the configurations.
+     * @param maxConcurrentLoads The maximum number of configurations loaded at the same time.
+     */
+    public ConfigurationLoader(@NotNull Executor executor, int maxConcurrentLoads) {
+        if (maxConcurrentLoads < 1) {
+            throw new IllegalArgumentException("The maximum number of concurrent loads must be at least 1.");
+        }
+        this.executor = executor;
+        this.maxConcurrentLoads = maxConcurrentLoads;
+    }
+
+    /**
+     * Adds a configuration to the next {@link #loadAll() batch}.
+     *
+     * @param file      The file of the configuration.
+     * @param rootClass The class of the configuration.
+     * @param <T>       The type of the configuration.
+     * @return the result of the configuration, complete once the batch was loaded.
+     * @see Configuration#createConfiguration(File, Class)
+     */
+    @NotNull
+    public <T extends Configuration> LoadResult<T> add(@NotNull File file, @NotNull Class<T> rootClass) {
+        return add(file, false, null, rootClass);
+    }
+
+    /**
+     * Adds a configuration to the next {@link #loadAll() batch}.
+     *
+     * @param file                The file of the configuration.
+     * @param copyDefaultResource Whether the default resource is copied to the file.
+     * @param defaultResourceURL  The default resource of the configuration.
+     * @param rootClass           The class of the configuration.
+     * @param <T>                 The type of the configuration.
+     * @return the result of the configuration, complete once the batch was loaded.
+     * @see Configuration#createConfiguration(File, boolean, URL, Class)
+     */
+    @NotNull
+    public <T extends Configuration> LoadResult<T> add(
+        @NotNull File file, boolean copyDefaultResource, @Nullable URL defaultResourceURL,
+        @NotNull Class<T> rootClass
+    ) {
+        if (copyDefaultResource && defaultResourceURL == null) {
+            throw new NullPointerException("The default resource's URL can't be null if you want to copy from it.");
+        }
+        LoadResult<T> result = new LoadResult<>(file, copyDefaultResource, defaultResourceURL, rootClass);
+        pending.add(result);
+        return result;
+    }
+
+    /**
+     * Loads every configuration added since the last batch and waits until all of them are loaded.
+     * A configuration failing to load doesn't stop the others, its error is kept in its result.
+     *
+     * @return the results of the batch, in the order the configurations were added.
+     */
+    @NotNull
+    public List<LoadResult<?>> loadAll() {
+        List<LoadResult<?>> batch = new ArrayList<>(pending);
+        pending.clear();
+        if (batch.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(batch.size());
+        // Each worker loads one configuration after another, so the number of workers bounds the concurrent loads
+        // without blocking any thread of the executor.
+        Runnable worker = () -> {
+            int index;
+            while ((index = next.getAndIncrement()) < batch.size()) {
+                batch.get(index).load();
+                done.countDown();
+            }
+        };
+        int workers = Math.min(maxConcurrentLoads, batch.size());
+        for (int i = 1; i < workers; i++) {
+            try {
+                executor.execute(worker);
+            } catch (RejectedExecutionException e) {
+                // The calling thread loads whatever is left.
+                break;
+            }
+        }
+        worker.run();
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                done.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return Collections.unmodifiableList(batch);
+    }
+}
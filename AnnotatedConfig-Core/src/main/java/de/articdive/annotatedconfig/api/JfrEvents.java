@@ -0,0 +1,64 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.articdive.annotatedconfig.api;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+
+/**
+ * Emits the Flight Recorder events of loads and saves. Java 8 has no event API, this version does nothing and is
+ * replaced by the one in {@code META-INF/versions/11} on newer runtimes.
+ */
+final class JfrEvents {
+    private JfrEvents() {
+    }
+
+    @Nullable
+    static Object beginParse() {
+        return null;
+    }
+
+    static void commitParse(@Nullable Object event, @NotNull File file) {
+    }
+
+    @Nullable
+    static Object beginBind() {
+        return null;
+    }
+
+    static void commitBind(@Nullable Object event, @NotNull File file, int bound, int skipped, int mismatched) {
+    }
+
+    @Nullable
+    static Object beginRender() {
+        return null;
+    }
+
+    static void commitRender(@Nullable Object event, @NotNull File file, int bytes) {
+    }
+
+    @Nullable
+    static Object beginWrite() {
+        return null;
+    }
+
+    static void commitWrite(@Nullable Object event, @NotNull File file, int bytes, boolean written) {
+    }
+}
@@ -0,0 +1,402 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.articdive.annotatedconfig.api;
+
+import de.articdive.annotatedconfig.accessor.ValueBinder;
+import de.articdive.annotatedconfig.exceptions.ConfigLoadException;
+import de.articdive.annotatedconfig.schema.OverrideIndex;
+import de.articdive.annotatedconfig.schema.PropertySchema;
+import de.articdive.annotatedconfig.util.FileUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * The sources of a layered configuration, from the lowest to the highest precedence.
+ * Every layer keeps the values it read, a property is set from the highest layer that contains it. When a layer
+ * changes only the properties it contains (or contained) are resolved again, the other layers are neither read nor
+ * merged again.
+ */
+final class LayerStack {
+    private final PropertySchema[] properties;
+    private final Layer[] layers;
+    private final int fileLayer;
+    // The values of the properties before any layer was applied.
+    private final Object[] initialValues;
+    // The layer each property was resolved from (-1 for none) and the value it was set to.
+    private final int[] resolvedFrom;
+    private final Object[] resolvedValues;
+
+    /**
+     * @param config    The configuration before it was loaded for the first time.
+     * @param layers    The layers, from the lowest to the highest precedence.
+     * @param fileLayer The position of the configuration's own file in the layers.
+     */
+    LayerStack(@NotNull Configuration config, @NotNull List<Layer> layers, int fileLayer) {
+        this.properties = config.schema.getProperties().toArray(new PropertySchema[0]);
+        this.layers = layers.toArray(new Layer[0]);
+        this.fileLayer = fileLayer;
+        this.initialValues = new Object[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            initialValues[i] = copy(config.getValue(properties[i]));
+        }
+        this.resolvedFrom = new int[properties.length];
+        this.resolvedValues = new Object[properties.length];
+        Arrays.fill(resolvedFrom, -1);
+    }
+
+    /**
+     * Creates the layers of a configuration whose class is annotated with
+     * {@link de.articdive.annotatedconfig.annotations.Overrides}: its file and the overrides above it.
+     *
+     * @param config The configuration before it was loaded for the first time.
+     * @return the layers, null if the configuration isn't overridden.
+     */
+    @Nullable
+    static LayerStack ofOverrides(@NotNull Configuration config) {
+        OverrideIndex environment = config.schema.getEnvironmentOverrides();
+        OverrideIndex systemProperties = config.schema.getSystemPropertyOverrides();
+        if (environment == null && systemProperties == null) {
+            return null;
+        }
+        List<Layer> layers = new ArrayList<>();
+        layers.add(new FileLayer(null));
+        if (environment != null) {
+            layers.add(new StringLayer(environment, true));
+        }
+        if (systemProperties != null) {
+            layers.add(new StringLayer(systemProperties, false));
+        }
+        return new LayerStack(config, layers, 0);
+    }
+
+    /**
+     * Merges the layers after the configuration's file was loaded into an instance of the configuration.
+     * The other layers are only read again if they changed.
+     *
+     * @param config The instance the file was loaded into.
+     * @param all    Whether every property is resolved, for instances that didn't have the layers applied yet.
+     */
+    void resolve(@NotNull Configuration config, boolean all) {
+        BitSet changed = new BitSet(properties.length);
+        for (int i = 0; i < layers.length; i++) {
+            Layer layer = layers[i];
+            BitSet previous = layer.present;
+            boolean read;
+            if (i == fileLayer) {
+                ((FileLayer) layer).read(config, config);
+                read = true;
+            } else {
+                read = layer.refresh(config);
+            }
+            if (read) {
+                // Properties the layer no longer contains fall back to the layers below it.
+                changed.or(previous);
+                changed.or(layer.present);
+            }
+        }
+        if (all) {
+            changed.set(0, properties.length);
+        }
+        for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+            resolve(config, i);
+        }
+    }
+
+    private void resolve(@NotNull Configuration config, int index) {
+        PropertySchema property = properties[index];
+        Object instance = config.objectMap.get(property.getSection().getType());
+        for (int i = layers.length - 1; i >= 0; i--) {
+            if (layers[i].present.get(index) && layers[i].apply(property, instance)) {
+                resolvedFrom[index] = i;
+                resolvedValues[index] = config.getValue(property);
+                return;
+            }
+        }
+        property.getAccessor().set(instance, copy(initialValues[index]));
+        resolvedFrom[index] = -1;
+        resolvedValues[index] = config.getValue(property);
+    }
+
+    /**
+     * Renders the configuration as it is saved to its file. Properties taken from a layer above the file are saved
+     * with the value they would have without that layer (from the file, the defaults below it or their class), unless
+     * they were changed since.
+     *
+     * @param config The configuration to save.
+     * @return the text to save to the file, null if the format doesn't write files.
+     */
+    @Nullable
+    String renderFile(@NotNull Configuration config) {
+        Configuration view = config.newInstance(config.file);
+        for (int i = 0; i < properties.length; i++) {
+            PropertySchema property = properties[i];
+            Object value = config.getValue(property);
+            if (resolvedFrom[i] > fileLayer && Objects.deepEquals(value, resolvedValues[i])) {
+                value = valueBelow(i);
+            }
+            property.getAccessor().set(view.objectMap.get(property.getSection().getType()), value);
+        }
+        return view.render();
+    }
+
+    @Nullable
+    private Object valueBelow(int index) {
+        // Only files and resources are at or below the configuration's file.
+        for (int i = fileLayer; i >= 0; i--) {
+            Layer layer = layers[i];
+            if (!layer.present.get(index)) {
+                continue;
+            }
+            if (layer instanceof FileLayer) {
+                return ((FileLayer) layer).values[index];
+            }
+            if (layer instanceof ResourceLayer) {
+                return ((ResourceLayer) layer).layer.values[index];
+            }
+        }
+        return initialValues[index];
+    }
+
+    /**
+     * Arrays are copied, changing the array of a property must not change the values the layers read.
+     */
+    @Nullable
+    private static Object copy(@Nullable Object value) {
+        if (value == null || !value.getClass().isArray()) {
+            return value;
+        }
+        int length = Array.getLength(value);
+        Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+        System.arraycopy(value, 0, copy, 0, length);
+        return copy;
+    }
+
+    abstract static class Layer {
+        // The indexes of the properties the layer contains.
+        BitSet present = new BitSet();
+
+        /**
+         * Reads the layer if it changed since it was last read.
+         *
+         * @param config The configuration the layer belongs to.
+         * @return whether the layer was read.
+         */
+        abstract boolean refresh(@NotNull Configuration config);
+
+        /**
+         * Sets a property the layer contains.
+         *
+         * @return whether the value fit the property.
+         */
+        abstract boolean apply(@NotNull PropertySchema property, @NotNull Object instance);
+    }
+
+    /**
+     * A file in the format of the configuration. The configuration's own file is read by loading the configuration,
+     * other files are loaded into a separate instance of it.
+     */
+    static final class FileLayer extends Layer {
+        private final File file;
+        private Object[] values = new Object[0];
+        private long knownLastModified = -1;
+        private long knownLength = -1;
+
+        FileLayer(@Nullable File file) {
+            this.file = file;
+        }
+
+        @Override
+        boolean refresh(@NotNull Configuration config) {
+            if (file.lastModified() == knownLastModified && file.length() == knownLength) {
+                return false;
+            }
+            knownLastModified = file.lastModified();
+            knownLength = file.length();
+            if (!file.exists()) {
+                // A missing override file contains nothing.
+                present = new BitSet();
+                values = new Object[0];
+                return true;
+            }
+            Configuration instance = config.newInstance(file);
+            instance.measuredLoad();
+            read(config, instance);
+            return true;
+        }
+
+        /**
+         * @param config   The configuration the layer belongs to.
+         * @param instance The instance the layer's file was loaded into.
+         */
+        void read(@NotNull Configuration config, @NotNull Configuration instance) {
+            List<PropertySchema> properties = config.schema.getProperties();
+            BitSet bound = (BitSet) instance.getBoundProperties().clone();
+            Object[] read = new Object[properties.size()];
+            for (int i = bound.nextSetBit(0); i >= 0; i = bound.nextSetBit(i + 1)) {
+                read[i] = copy(instance.getValue(properties.get(i)));
+            }
+            values = read;
+            present = bound;
+        }
+
+        @Override
+        boolean apply(@NotNull PropertySchema property, @NotNull Object instance) {
+            property.getAccessor().set(instance, copy(values[property.getIndex()]));
+            return true;
+        }
+    }
+
+    /**
+     * A resource in the format of the configuration, usually from the classpath. It is read once, through a temporary
+     * copy of it unless it is a file.
+     */
+    static final class ResourceLayer extends Layer {
+        private final URL resource;
+        private final FileLayer layer = new FileLayer(null);
+        private boolean read;
+
+        ResourceLayer(@NotNull URL resource) {
+            this.resource = resource;
+        }
+
+        @Override
+        boolean refresh(@NotNull Configuration config) {
+            if (read) {
+                return false;
+            }
+            File copy = null;
+            try {
+                copy = File.createTempFile("annotatedconfig", suffix(config.file));
+                FileUtil.copyResource(resource, copy);
+                Configuration instance = config.newInstance(copy);
+                instance.measuredLoad();
+                layer.read(config, instance);
+            } catch (IOException e) {
+                throw new ConfigLoadException(String.format("Failed to read the resource %s.", resource), e);
+            } finally {
+                if (copy != null && !copy.delete()) {
+                    copy.deleteOnExit();
+                }
+            }
+            present = layer.present;
+            read = true;
+            return true;
+        }
+
+        @Override
+        boolean apply(@NotNull PropertySchema property, @NotNull Object instance) {
+            return layer.apply(property, instance);
+        }
+
+        @NotNull
+        private static String suffix(@NotNull File file) {
+            // Formats may tell the syntax of a file from its extension.
+            String name = file.getName();
+            int dot = name.lastIndexOf('.');
+            return dot < 0 ? ".tmp" : name.substring(dot);
+        }
+    }
+
+    /**
+     * Environment variables or system properties, bound like the values of a file. Every variable that is set is
+     * matched to its property in the index of the schema. The environment is read once, system properties whenever
+     * the configuration is reloaded.
+     */
+    static final class StringLayer extends Layer {
+        private final OverrideIndex index;
+        private final boolean environment;
+        private String[] values;
+
+        StringLayer(@NotNull OverrideIndex index, boolean environment) {
+            this.index = index;
+            this.environment = environment;
+        }
+
+        @Override
+        boolean refresh(@NotNull Configuration config) {
+            if (environment && values != null) {
+                return false;
+            }
+            String[] read = new String[config.schema.getProperties().size()];
+            BitSet found = new BitSet(read.length);
+            if (environment) {
+                for (Map.Entry<String, String> variable : System.getenv().entrySet()) {
+                    PropertySchema property = index.getProperty(variable.getKey());
+                    if (property != null) {
+                        read[property.getIndex()] = variable.getValue();
+                        found.set(property.getIndex());
+                    }
+                }
+            } else {
+                Properties systemProperties = System.getProperties();
+                for (String name : systemProperties.stringPropertyNames()) {
+                    PropertySchema property = index.getProperty(name);
+                    String value = systemProperties.getProperty(name);
+                    if (property != null && value != null) {
+                        read[property.getIndex()] = value;
+                        found.set(property.getIndex());
+                    }
+                }
+            }
+            if (values != null && Arrays.equals(values, read)) {
+                return false;
+            }
+            values = read;
+            present = found;
+            return true;
+        }
+
+        @Override
+        boolean apply(@NotNull PropertySchema property, @NotNull Object instance) {
+            String value = values[property.getIndex()];
+            ValueBinder binder = property.getBinder();
+            if (binder.bindString(instance, value)) {
+                return true;
+            }
+            // Strings of other types are bound like the scalars of a file.
+            if ("true".equals(value) || "false".equals(value)) {
+                return binder.bindBoolean(instance, Boolean.parseBoolean(value));
+            }
+            if ("null".equals(value)) {
+                return binder.bindNull(instance);
+            }
+            try {
+                return binder.bindLong(instance, Long.parseLong(value));
+            } catch (NumberFormatException e) {
+                // Not an integer.
+            }
+            try {
+                return binder.bindDouble(instance, Double.parseDouble(value));
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+    }
+}
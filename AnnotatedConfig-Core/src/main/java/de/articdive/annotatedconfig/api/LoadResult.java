@@ -0,0 +1,107 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.articdive.annotatedconfig.api;
+
+import de.articdive.annotatedconfig.exceptions.ConfigLoadException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.net.URL;
+
+/**
+ * The outcome of loading one configuration with a {@link ConfigurationLoader}.
+ *
+ * @param <T> The type of the configuration.
+ */
+public final class LoadResult<T extends Configuration> {
+    private final File file;
+    private final boolean copyDefaultResource;
+    private final URL defaultResourceURL;
+    private final Class<T> rootClass;
+    // Published by the batch's latch.
+    private T configuration;
+    private Throwable error;
+
+    LoadResult(
+        @NotNull File file, boolean copyDefaultResource, @Nullable URL defaultResourceURL, @NotNull Class<T> rootClass
+    ) {
+        this.file = file;
+        this.copyDefaultResource = copyDefaultResource;
+        this.defaultResourceURL = defaultResourceURL;
+        this.rootClass = rootClass;
+    }
+
+    void load() {
+        try {
+            configuration = Configuration.createConfiguration(file, copyDefaultResource, defaultResourceURL, rootClass);
+        } catch (Throwable t) {
+            error = t;
+        }
+    }
+
+    @NotNull
+    public File getFile() {
+        return file;
+    }
+
+    @NotNull
+    public Class<T> getRootClass() {
+        return rootClass;
+    }
+
+    public boolean isSuccess() {
+        return configuration != null;
+    }
+
+    /**
+     * @return the loaded configuration, null if it failed to load or wasn't loaded yet.
+     */
+    @Nullable
+    public T getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * @return the error the configuration failed to load with, null if it was loaded.
+     */
+    @Nullable
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * @return the loaded configuration.
+     * @throws ConfigLoadException if the configuration failed to load or wasn't loaded yet.
+     */
+    @NotNull
+    public T get() {
+        if (configuration != null) {
+            return configuration;
+        }
+        if (error == null) {
+            throw new ConfigLoadException(
+                String.format("The configuration at path %s wasn't loaded yet.", file.getPath())
+            );
+        }
+        throw new ConfigLoadException(
+            String.format("Failed to load the configuration at path %s.", file.getPath()),
+            error
+        );
+    }
+}
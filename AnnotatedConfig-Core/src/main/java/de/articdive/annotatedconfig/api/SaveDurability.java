@@ -0,0 +1,39 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.api;
+
+/**
+ * How much {@link Configuration#save()} waits for a written file to reach the disk.
+ * The file is always replaced atomically, so readers see either the old or the new content, this only decides what
+ * survives a crash or power loss shortly after saving.
+ */
+public enum SaveDurability {
+    /**
+     * Nothing is synced, the operating system writes the file back whenever it wants.
+     */
+    NONE,
+    /**
+     * The content of the file is synced before it replaces the old file.
+     */
+    SYNC_FILE,
+    /**
+     * The content of the file and afterwards its directory are synced, so the rename itself is durable too.
+     */
+    SYNC_FILE_AND_DIRECTORY
+}
@@ -0,0 +1,388 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.api;
+
+import de.articdive.annotatedconfig.accessor.PropertyAccessor;
+import de.articdive.annotatedconfig.accessor.ValueBinder;
+import de.articdive.annotatedconfig.annotations.ParseCache;
+import de.articdive.annotatedconfig.schema.PropertySchema;
+import de.articdive.annotatedconfig.util.FileUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * The binary cache of a configuration annotated with {@link ParseCache}. It holds the values of all properties in
+ * schema order, after a header identifying the schema and the configuration file they were saved to.
+ * As the cache is written by a save, a valid cache means the file contains exactly what a save would write.
+ */
+final class SidecarCache {
+    private static final int MAGIC = 0x41434643;
+    private static final byte VERSION = 2;
+
+    private static final byte NULL = 0;
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+    private static final byte INTEGRAL = 3;
+    private static final byte FLOATING = 4;
+    private static final byte STRING = 5;
+    private static final byte LIST = 6;
+    private static final byte MAP = 7;
+    private static final byte INT_ARRAY = 8;
+    private static final byte LONG_ARRAY = 9;
+    private static final byte DOUBLE_ARRAY = 10;
+    private static final byte BYTE_ARRAY = 11;
+    // Values are nested no deeper than this, a corrupt cache must not recurse until the stack overflows.
+    private static final int MAX_DEPTH = 64;
+
+    private SidecarCache() {
+    }
+
+    /**
+     * @return the cache file of the configuration, null if it has no cache.
+     */
+    @Nullable
+    static File getFile(@NotNull Configuration config) {
+        ParseCache annotation = config.subClass.getAnnotation(ParseCache.class);
+        if (annotation == null) {
+            return null;
+        }
+        File file = config.file.getAbsoluteFile();
+        if (annotation.value().isEmpty()) {
+            return new File(file.getParentFile(), "." + file.getName() + ".cache");
+        }
+        File directory = new File(annotation.value());
+        if (!directory.isAbsolute()) {
+            directory = new File(file.getParentFile(), annotation.value());
+        }
+        // Files of the same name in different directories may share a cache directory.
+        return new File(directory, file.getName() + "." + Integer.toHexString(file.getPath().hashCode()) + ".cache");
+    }
+
+    /**
+     * Binds the cached values if the cache matches the schema and the configuration file.
+     *
+     * @return true if the values were bound, false if the file has to be loaded.
+     */
+    static boolean load(@NotNull Configuration config) {
+        File cacheFile = getFile(config);
+        if (cacheFile == null || !cacheFile.isFile() || !config.file.isFile()) {
+            return false;
+        }
+        List<PropertySchema> properties = config.schema.getProperties();
+        byte[] tags = new byte[properties.size()];
+        long[] longs = new long[properties.size()];
+        Object[] objects = new Object[properties.size()];
+        // Read from memory, so the lengths in the cache can be checked against the bytes left in it.
+        try (DataInputStream in = new DataInputStream(
+            new ByteArrayInputStream(Files.readAllBytes(cacheFile.toPath()))
+        )) {
+            if (!readHeader(in, config)) {
+                return false;
+            }
+            if (in.readInt() != FileUtil.checksum(config.file) || in.readInt() != properties.size()) {
+                return false;
+            }
+            // Everything is read before anything is bound, a broken cache leaves the properties untouched.
+            for (int i = 0; i < tags.length; i++) {
+                tags[i] = in.readByte();
+                if (tags[i] == INTEGRAL) {
+                    longs[i] = in.readLong();
+                } else if (tags[i] == FLOATING) {
+                    longs[i] = Double.doubleToRawLongBits(in.readDouble());
+                } else {
+                    objects[i] = readValue(in, tags[i], 0);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+
+        config.recordParsed();
+        BitSet bound = new BitSet(tags.length);
+        for (int i = 0; i < tags.length; i++) {
+            PropertySchema property = properties.get(i);
+            ValueBinder binder = property.getBinder();
+            Object instance = config.objectMap.get(property.getSection().getType());
+            boolean set;
+            switch (tags[i]) {
+                case NULL: {
+                    set = binder.bindNull(instance);
+                    break;
+                }
+                case FALSE:
+                case TRUE: {
+                    set = binder.bindBoolean(instance, tags[i] == TRUE);
+                    break;
+                }
+                case INTEGRAL: {
+                    set = binder.bindLong(instance, longs[i]);
+                    break;
+                }
+                case FLOATING: {
+                    set = binder.bindDouble(instance, Double.longBitsToDouble(longs[i]));
+                    break;
+                }
+                default: {
+                    set = binder.bindObject(instance, objects[i]);
+                }
+            }
+            if (set) {
+                bound.set(i);
+            }
+        }
+        config.recordBound(bound, tags.length - bound.cardinality());
+        return true;
+    }
+
+    private static boolean readHeader(@NotNull DataInputStream in, @NotNull Configuration config) throws IOException {
+        return in.readInt() == MAGIC && in.readByte() == VERSION
+            && in.readLong() == config.schema.getFingerprint()
+            && in.readLong() == config.file.length()
+            && in.readLong() == config.file.lastModified();
+    }
+
+    /**
+     * Writes the cache after the configuration was saved.
+     *
+     * @param content The content of the configuration file.
+     * @throws IOException if the cache could not be written or a value can't be cached.
+     */
+    static void write(@NotNull Configuration config, @NotNull byte[] content) throws IOException {
+        File cacheFile = getFile(config);
+        if (cacheFile == null) {
+            return;
+        }
+        // An unchanged file keeps its cache.
+        if (cacheFile.isFile()) {
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(cacheFile.toPath()))) {
+                if (readHeader(in, config) && in.readInt() == checksum(content)) {
+                    return;
+                }
+            } catch (IOException e) {
+                // The cache is written again.
+            }
+        }
+
+        List<PropertySchema> properties = config.schema.getProperties();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + properties.size() * 16);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(config.schema.getFingerprint());
+        out.writeLong(config.file.length());
+        out.writeLong(config.file.lastModified());
+        out.writeInt(checksum(content));
+        out.writeInt(properties.size());
+        for (PropertySchema property : properties) {
+            Object instance = config.objectMap.get(property.getSection().getType());
+            PropertyAccessor accessor = property.getAccessor();
+            Class<?> type = accessor.getType();
+            // Primitives are written without boxing them.
+            if (type == int.class || type == long.class || type == short.class || type == byte.class) {
+                out.writeByte(INTEGRAL);
+                out.writeLong(accessor.getLong(instance));
+            } else if (type == double.class || type == float.class) {
+                out.writeByte(FLOATING);
+                out.writeDouble(accessor.getDouble(instance));
+            } else if (type == boolean.class) {
+                out.writeByte(accessor.getBoolean(instance) ? TRUE : FALSE);
+            } else {
+                writeValue(out, property.getBinder().read(instance));
+            }
+        }
+        if (!FileUtil.checkOrCreateDirectory(cacheFile.getParentFile())) {
+            throw new IOException(String.format("Failed to create the cache directory %s.", cacheFile.getParent()));
+        }
+        FileUtil.writeAtomically(cacheFile, bytes.toByteArray(), SaveDurability.NONE);
+    }
+
+    private static int checksum(@NotNull byte[] content) {
+        CRC32 crc = new CRC32();
+        crc.update(content, 0, content.length);
+        return (int) crc.getValue();
+    }
+
+    private static void writeValue(@NotNull DataOutputStream out, @Nullable Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+            || value instanceof Byte) {
+            out.writeByte(INTEGRAL);
+            out.writeLong(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            out.writeByte(FLOATING);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof String || value instanceof Character) {
+            byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+            out.writeByte(STRING);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } else if (value instanceof Collection) {
+            out.writeByte(LIST);
+            out.writeInt(((Collection<?>) value).size());
+            for (Object item : (Collection<?>) value) {
+                writeValue(out, item);
+            }
+        } else if (value instanceof int[]) {
+            out.writeByte(INT_ARRAY);
+            out.writeInt(((int[]) value).length);
+            for (int item : (int[]) value) {
+                out.writeInt(item);
+            }
+        } else if (value instanceof long[]) {
+            out.writeByte(LONG_ARRAY);
+            out.writeInt(((long[]) value).length);
+            for (long item : (long[]) value) {
+                out.writeLong(item);
+            }
+        } else if (value instanceof double[]) {
+            out.writeByte(DOUBLE_ARRAY);
+            out.writeInt(((double[]) value).length);
+            for (double item : (double[]) value) {
+                out.writeDouble(item);
+            }
+        } else if (value instanceof byte[]) {
+            out.writeByte(BYTE_ARRAY);
+            out.writeInt(((byte[]) value).length);
+            out.write((byte[]) value);
+        } else if (value instanceof Object[]) {
+            out.writeByte(LIST);
+            out.writeInt(((Object[]) value).length);
+            for (Object item : (Object[]) value) {
+                writeValue(out, item);
+            }
+        } else if (value instanceof Map) {
+            out.writeByte(MAP);
+            out.writeInt(((Map<?, ?>) value).size());
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                writeValue(out, String.valueOf(entry.getKey()));
+                writeValue(out, entry.getValue());
+            }
+        } else {
+            throw new IOException(String.format("Values of type %s can't be cached.", value.getClass().getName()));
+        }
+    }
+
+    /**
+     * @param in          The cache, read from memory.
+     * @param elementSize The least number of bytes each element takes.
+     * @return the length of a string, collection or array, if the rest of the cache can hold it.
+     * @throws IOException if the length is negative or the cache is too short for it.
+     */
+    private static int readLength(@NotNull DataInputStream in, int elementSize) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || (long) length * elementSize > in.available()) {
+            throw new IOException(String.format("The cached length %d exceeds the cache.", length));
+        }
+        return length;
+    }
+
+    @Nullable
+    private static Object readValue(@NotNull DataInputStream in, byte tag, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("The cached values are nested too deeply.");
+        }
+        switch (tag) {
+            case NULL: {
+                return null;
+            }
+            case FALSE: {
+                return false;
+            }
+            case TRUE: {
+                return true;
+            }
+            case INTEGRAL: {
+                return ValueBinder.boxIntegral(in.readLong());
+            }
+            case FLOATING: {
+                return in.readDouble();
+            }
+            case STRING: {
+                byte[] bytes = new byte[readLength(in, 1)];
+                in.readFully(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+            case LIST: {
+                int size = readLength(in, 1);
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in, in.readByte(), depth + 1));
+                }
+                return list;
+            }
+            case MAP: {
+                int size = readLength(in, 2);
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    String key = (String) readValue(in, in.readByte(), depth + 1);
+                    map.put(key, readValue(in, in.readByte(), depth + 1));
+                }
+                return map;
+            }
+            case INT_ARRAY: {
+                int[] array = new int[readLength(in, 4)];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = in.readInt();
+                }
+                return array;
+            }
+            case LONG_ARRAY: {
+                long[] array = new long[readLength(in, 8)];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = in.readLong();
+                }
+                return array;
+            }
+            case DOUBLE_ARRAY: {
+                double[] array = new double[readLength(in, 8)];
+                for (int i = 0; i < array.length; i++) {
+                    array[i] = in.readDouble();
+                }
+                return array;
+            }
+            case BYTE_ARRAY: {
+                byte[] array = new byte[readLength(in, 1)];
+                in.readFully(array);
+                return array;
+            }
+            default: {
+                throw new IOException(String.format("Unknown value tag %d.", tag));
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.articdive.annotatedconfig.api;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalAmount;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Copies of property values, to find the properties changed since the file was loaded or saved.
+ * Arrays, lists, sets and maps are copied, so changing them in place is noticed. Other objects that might be mutable
+ * can't be copied, their properties are always considered changed.
+ */
+final class ValueSnapshot {
+    private static final Object UNKNOWN = new Object();
+
+    private ValueSnapshot() {
+    }
+
+    @Nullable
+    static Object copy(@Nullable Object value) {
+        if (value == null || value instanceof String || value instanceof Boolean || value instanceof Character
+            || value instanceof Enum || value instanceof TemporalAccessor || value instanceof TemporalAmount) {
+            return value;
+        }
+        if (value instanceof Number) {
+            return value instanceof Integer || value instanceof Long || value instanceof Double
+                || value instanceof Float || value instanceof Short || value instanceof Byte
+                || value instanceof BigInteger || value instanceof BigDecimal ? value : UNKNOWN;
+        }
+        if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+            if (value.getClass().getComponentType().isPrimitive()) {
+                System.arraycopy(value, 0, copy, 0, length);
+                return copy;
+            }
+            for (int i = 0; i < length; i++) {
+                Object item = copy(Array.get(value, i));
+                if (item == UNKNOWN) {
+                    return UNKNOWN;
+                }
+                Array.set(copy, i, item);
+            }
+            return copy;
+        }
+        if (value instanceof List || value instanceof Set) {
+            Collection<Object> copy = value instanceof List ? new ArrayList<>() : new LinkedHashSet<>();
+            for (Object item : (Collection<?>) value) {
+                Object itemCopy = copy(item);
+                if (itemCopy == UNKNOWN) {
+                    return UNKNOWN;
+                }
+                copy.add(itemCopy);
+            }
+            return copy;
+        }
+        if (value instanceof Map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                Object itemCopy = copy(entry.getValue());
+                if (itemCopy == UNKNOWN) {
+                    return UNKNOWN;
+                }
+                copy.put(entry.getKey(), itemCopy);
+            }
+            return copy;
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * @param snapshot The copy of the value.
+     * @param value    The current value.
+     * @return whether the value may have changed since it was copied.
+     */
+    static boolean changed(@Nullable Object snapshot, @Nullable Object value) {
+        return snapshot == UNKNOWN || !Objects.deepEquals(snapshot, value);
+    }
+}
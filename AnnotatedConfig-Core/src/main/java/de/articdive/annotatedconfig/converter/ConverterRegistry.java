@@ -0,0 +1,78 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.converter;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The converters of the property types configuration files can't represent directly.
+ * The converter of a property is looked up once, when the schema of its configuration is created, so converters have
+ * to be registered before the first configuration using them is created.
+ * Enums are converted to and from the names of their constants unless another converter is registered for them.
+ */
+public final class ConverterRegistry {
+    private static final Map<Class<?>, ValueConverter<?>> CONVERTERS = new ConcurrentHashMap<>();
+    private static final ClassValue<ValueConverter<?>> ENUM_CONVERTERS = new ClassValue<ValueConverter<?>>() {
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        protected ValueConverter<?> computeValue(Class<?> type) {
+            return new EnumConverter(type);
+        }
+    };
+
+    private ConverterRegistry() {
+    }
+
+    /**
+     * Registers the converter of a type, replacing any converter registered before.
+     *
+     * @param type      The type of the properties to convert.
+     * @param converter The converter.
+     * @param <T>       The type of the properties.
+     */
+    public static <T> void register(@NotNull Class<T> type, @NotNull ValueConverter<T> converter) {
+        if (type.isPrimitive()) {
+            throw new IllegalArgumentException("Primitive properties can't be converted.");
+        }
+        CONVERTERS.put(type, converter);
+    }
+
+    public static void unregister(@NotNull Class<?> type) {
+        CONVERTERS.remove(type);
+    }
+
+    /**
+     * @param type The type of the properties.
+     * @param <T>  The type of the properties.
+     * @return the converter of the type, null if its values are bound as they are.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public static <T> ValueConverter<T> get(@NotNull Class<T> type) {
+        ValueConverter<?> converter = CONVERTERS.get(type);
+        if (converter == null && type.isEnum()) {
+            converter = ENUM_CONVERTERS.get(type);
+        }
+        return (ValueConverter<T>) converter;
+    }
+}
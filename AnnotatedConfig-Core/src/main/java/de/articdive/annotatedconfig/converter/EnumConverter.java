@@ -0,0 +1,63 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.converter;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Converts enum constants to and from their names, names in another case are accepted as well.
+ */
+final class EnumConverter<T extends Enum<T>> implements ValueConverter<T> {
+    private final Class<T> type;
+    private final Map<String, T> constants = new HashMap<>();
+
+    EnumConverter(@NotNull Class<T> type) {
+        this.type = type;
+        for (T constant : type.getEnumConstants()) {
+            constants.put(constant.name(), constant);
+        }
+        for (T constant : type.getEnumConstants()) {
+            constants.putIfAbsent(constant.name().toUpperCase(Locale.ROOT), constant);
+        }
+    }
+
+    @NotNull
+    @Override
+    public T read(@NotNull Object value) {
+        String name = value.toString();
+        T constant = constants.get(name);
+        if (constant == null) {
+            constant = constants.get(name.toUpperCase(Locale.ROOT));
+        }
+        if (constant == null) {
+            throw new IllegalArgumentException(String.format("%s has no constant %s.", type.getName(), name));
+        }
+        return constant;
+    }
+
+    @NotNull
+    @Override
+    public Object write(@NotNull T value) {
+        return value.name();
+    }
+}
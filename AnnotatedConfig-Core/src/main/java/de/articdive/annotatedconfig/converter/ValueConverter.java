@@ -0,0 +1,50 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.converter;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Converts the values of a type that configuration files can't represent directly, such as a
+ * {@link java.time.Duration} or a {@link java.nio.file.Path}.
+ *
+ * @param <T> The type of the properties.
+ * @see ConverterRegistry#register(Class, ValueConverter)
+ */
+public interface ValueConverter<T> {
+    /**
+     * Converts a value read from a file.
+     *
+     * @param value The value, a String, Number, Boolean, List or Map.
+     * @return the value of the property.
+     * @throws IllegalArgumentException if the value can't be converted, the property then keeps its current value.
+     */
+    @Nullable
+    T read(@NotNull Object value);
+
+    /**
+     * Converts the value of a property to be written to a file.
+     *
+     * @param value The value of the property.
+     * @return a String, Number, Boolean, List or Map.
+     */
+    @NotNull
+    Object write(@NotNull T value);
+}
@@ -0,0 +1,48 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.articdive.annotatedconfig.metrics;
+
+import de.articdive.annotatedconfig.api.Configuration;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receives the measurements of every load and save of every configuration.
+ * Listeners are called on the loading or saving thread while the configuration is locked, so they should only record
+ * the numbers and return.
+ *
+ * @see MetricsRegistry#register(ConfigMetrics)
+ */
+public interface ConfigMetrics {
+    /**
+     * Called after a configuration was loaded from its file or from its parse cache.
+     *
+     * @param config The loaded configuration.
+     * @param stats  The measurements of the load.
+     */
+    default void loaded(@NotNull Configuration config, @NotNull LoadStats stats) {
+    }
+
+    /**
+     * Called after a configuration was saved, whether its file was written or not.
+     *
+     * @param config The saved configuration.
+     * @param stats  The measurements of the save.
+     */
+    default void saved(@NotNull Configuration config, @NotNull SaveStats stats) {
+    }
+}
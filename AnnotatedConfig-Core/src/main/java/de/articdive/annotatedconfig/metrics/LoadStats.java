@@ -0,0 +1,98 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.articdive.annotatedconfig.metrics;
+
+/**
+ * The measurements of one load of a configuration.
+ * Formats that bind properties while they parse the file report the whole load as parsing.
+ */
+public final class LoadStats {
+    private final boolean fromCache;
+    private final long bytesRead;
+    private final long parseNanos;
+    private final long bindNanos;
+    private final int boundProperties;
+    private final int skippedProperties;
+    private final int mismatchedProperties;
+
+    public LoadStats(
+        boolean fromCache, long bytesRead, long parseNanos, long bindNanos,
+        int boundProperties, int skippedProperties, int mismatchedProperties
+    ) {
+        this.fromCache = fromCache;
+        this.bytesRead = bytesRead;
+        this.parseNanos = parseNanos;
+        this.bindNanos = bindNanos;
+        this.boundProperties = boundProperties;
+        this.skippedProperties = skippedProperties;
+        this.mismatchedProperties = mismatchedProperties;
+    }
+
+    /**
+     * @return whether the properties were bound from the parse cache instead of the file.
+     */
+    public boolean isFromCache() {
+        return fromCache;
+    }
+
+    /**
+     * @return the size of the configuration's file.
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * @return the time spent reading the file, or the parse cache.
+     */
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    /**
+     * @return the time spent binding the read values to the properties.
+     */
+    public long getBindNanos() {
+        return bindNanos;
+    }
+
+    /**
+     * @return the number of properties set from the file.
+     */
+    public int getBoundProperties() {
+        return boundProperties;
+    }
+
+    /**
+     * @return the number of properties missing from the file, they kept their values.
+     */
+    public int getSkippedProperties() {
+        return skippedProperties;
+    }
+
+    /**
+     * @return the number of properties whose value in the file didn't fit their type, they kept their values.
+     */
+    public int getMismatchedProperties() {
+        return mismatchedProperties;
+    }
+
+    public long getTotalNanos() {
+        return parseNanos + bindNanos;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.articdive.annotatedconfig.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The {@link ConfigMetrics} listeners of all configurations.
+ * Nothing is measured beyond a few timestamps while no listener is registered.
+ */
+public final class MetricsRegistry {
+    private static final List<ConfigMetrics> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private MetricsRegistry() {
+    }
+
+    public static void register(@NotNull ConfigMetrics listener) {
+        LISTENERS.add(listener);
+    }
+
+    public static void unregister(@NotNull ConfigMetrics listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * @return the registered listeners, empty if metrics are off.
+     */
+    @NotNull
+    public static List<ConfigMetrics> getListeners() {
+        return LISTENERS;
+    }
+}
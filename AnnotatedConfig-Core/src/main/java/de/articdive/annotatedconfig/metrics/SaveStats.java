@@ -0,0 +1,68 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.articdive.annotatedconfig.metrics;
+
+import de.articdive.annotatedconfig.api.SaveResult;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The measurements of one save of a configuration.
+ */
+public final class SaveStats {
+    private final SaveResult result;
+    private final long bytesWritten;
+    private final long renderNanos;
+    private final long writeNanos;
+
+    public SaveStats(@NotNull SaveResult result, long bytesWritten, long renderNanos, long writeNanos) {
+        this.result = result;
+        this.bytesWritten = bytesWritten;
+        this.renderNanos = renderNanos;
+        this.writeNanos = writeNanos;
+    }
+
+    @NotNull
+    public SaveResult getResult() {
+        return result;
+    }
+
+    /**
+     * @return the number of bytes written to the file, 0 if it was {@link SaveResult#UNCHANGED unchanged}.
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * @return the time spent rendering the configuration.
+     */
+    public long getRenderNanos() {
+        return renderNanos;
+    }
+
+    /**
+     * @return the time spent comparing the output to the file and writing it.
+     */
+    public long getWriteNanos() {
+        return writeNanos;
+    }
+
+    public long getTotalNanos() {
+        return renderNanos + writeNanos;
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.schema;
+
+import de.articdive.annotatedconfig.accessor.PropertyAccessor;
+import de.articdive.annotatedconfig.api.Configuration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Describes and accesses a configuration class without reflection.
+ * Implementations are generated at compile time by the AnnotatedConfig processor, {@link ConfigSchema#of(Class)}
+ * picks them up by name and falls back to scanning the class reflectively when there is none.
+ * <p>
+ * Properties and sections are addressed by their index in the schema the binder describes. The primitive accessors
+ * only need to be overridden for the properties that support them.
+ *
+ * @param <T> The configuration class.
+ */
+public abstract class ConfigBinder<T extends Configuration> {
+    /**
+     * The suffix of a generated binder's name, which is the binary name of the configuration followed by the suffix.
+     * Nested configurations keep their '$' so that no two configurations share a binder name.
+     */
+    public static final String SUFFIX = "_AnnotatedConfigBinder";
+
+    protected ConfigBinder() {
+
+    }
+
+    /**
+     * @param rootClass The configuration class.
+     * @return the fully qualified name of the binder generated for the class.
+     */
+    @NotNull
+    public static String getBinderName(@NotNull Class<?> rootClass) {
+        return rootClass.getName() + SUFFIX;
+    }
+
+    /**
+     * Adds the sections and properties of the configuration to a schema builder, sections before their children.
+     *
+     * @param builder The builder of the configuration's schema.
+     */
+    public abstract void describe(@NotNull ConfigSchema.Builder builder);
+
+    @NotNull
+    public abstract Object newSection(int section, @Nullable Object parentInstance);
+
+    @Nullable
+    public abstract Object get(int property, @NotNull Object instance);
+
+    public abstract void set(int property, @NotNull Object instance, @Nullable Object value);
+
+    public boolean getBoolean(int property, @NotNull Object instance) {
+        throw unsupported(property, boolean.class);
+    }
+
+    public void setBoolean(int property, @NotNull Object instance, boolean value) {
+        throw unsupported(property, boolean.class);
+    }
+
+    public byte getByte(int property, @NotNull Object instance) {
+        throw unsupported(property, byte.class);
+    }
+
+    public void setByte(int property, @NotNull Object instance, byte value) {
+        throw unsupported(property, byte.class);
+    }
+
+    public short getShort(int property, @NotNull Object instance) {
+        throw unsupported(property, short.class);
+    }
+
+    public void setShort(int property, @NotNull Object instance, short value) {
+        throw unsupported(property, short.class);
+    }
+
+    public int getInt(int property, @NotNull Object instance) {
+        throw unsupported(property, int.class);
+    }
+
+    public void setInt(int property, @NotNull Object instance, int value) {
+        throw unsupported(property, int.class);
+    }
+
+    public long getLong(int property, @NotNull Object instance) {
+        throw unsupported(property, long.class);
+    }
+
+    public void setLong(int property, @NotNull Object instance, long value) {
+        throw unsupported(property, long.class);
+    }
+
+    public float getFloat(int property, @NotNull Object instance) {
+        throw unsupported(property, float.class);
+    }
+
+    public void setFloat(int property, @NotNull Object instance, float value) {
+        throw unsupported(property, float.class);
+    }
+
+    public double getDouble(int property, @NotNull Object instance) {
+        throw unsupported(property, double.class);
+    }
+
+    public void setDouble(int property, @NotNull Object instance, double value) {
+        throw unsupported(property, double.class);
+    }
+
+    @NotNull
+    protected final IllegalArgumentException unsupported(int property, @NotNull Class<?> primitive) {
+        return new IllegalArgumentException(
+            String.format("The property %d of %s can't be accessed as a %s.", property, getClass().getName(), primitive)
+        );
+    }
+
+    /**
+     * @param section The index of the section.
+     * @return a factory creating the section through {@link #newSection(int, Object)}.
+     */
+    @NotNull
+    protected final SectionFactory sectionFactory(int section) {
+        return new BinderSectionFactory(this, section);
+    }
+
+    /**
+     * @param property The index of the property.
+     * @param type     The type of the property.
+     * @return an accessor delegating to this binder.
+     */
+    @NotNull
+    protected final PropertyAccessor accessor(int property, @NotNull Class<?> type) {
+        return new BinderPropertyAccessor(this, property, type);
+    }
+
+    private static final class BinderSectionFactory implements SectionFactory {
+        private final ConfigBinder<?> binder;
+        private final int section;
+
+        private BinderSectionFactory(@NotNull ConfigBinder<?> binder, int section) {
+            this.binder = binder;
+            this.section = section;
+        }
+
+        @NotNull
+        @Override
+        public Object newInstance(@Nullable Object parentInstance) {
+            return binder.newSection(section, parentInstance);
+        }
+    }
+
+    private static final class BinderPropertyAccessor implements PropertyAccessor {
+        private final ConfigBinder<?> binder;
+        private final int property;
+        private final Class<?> type;
+
+        private BinderPropertyAccessor(@NotNull ConfigBinder<?> binder, int property, @NotNull Class<?> type) {
+            this.binder = binder;
+            this.property = property;
+            this.type = type;
+        }
+
+        @NotNull
+        @Override
+        public Class<?> getType() {
+            return type;
+        }
+
+        @Nullable
+        @Override
+        public Object get(@NotNull Object instance) {
+            return binder.get(property, instance);
+        }
+
+        @Override
+        public void set(@NotNull Object instance, @Nullable Object value) {
+            binder.set(property, instance, value);
+        }
+
+        @Override
+        public boolean getBoolean(@NotNull Object instance) {
+            return binder.getBoolean(property, instance);
+        }
+
+        @Override
+        public void setBoolean(@NotNull Object instance, boolean value) {
+            binder.setBoolean(property, instance, value);
+        }
+
+        @Override
+        public byte getByte(@NotNull Object instance) {
+            return binder.getByte(property, instance);
+        }
+
+        @Override
+        public void setByte(@NotNull Object instance, byte value) {
+            binder.setByte(property, instance, value);
+        }
+
+        @Override
+        public short getShort(@NotNull Object instance) {
+            return binder.getShort(property, instance);
+        }
+
+        @Override
+        public void setShort(@NotNull Object instance, short value) {
+            binder.setShort(property, instance, value);
+        }
+
+        @Override
+        public int getInt(@NotNull Object instance) {
+            return binder.getInt(property, instance);
+        }
+
+        @Override
+        public void setInt(@NotNull Object instance, int value) {
+            binder.setInt(property, instance, value);
+        }
+
+        @Override
+        public long getLong(@NotNull Object instance) {
+            return binder.getLong(property, instance);
+        }
+
+        @Override
+        public void setLong(@NotNull Object instance, long value) {
+            binder.setLong(property, instance, value);
+        }
+
+        @Override
+        public float getFloat(@NotNull Object instance) {
+            return binder.getFloat(property, instance);
+        }
+
+        @Override
+        public void setFloat(@NotNull Object instance, float value) {
+            binder.setFloat(property, instance, value);
+        }
+
+        @Override
+        public double getDouble(@NotNull Object instance) {
+            return binder.getDouble(property, instance);
+        }
+
+        @Override
+        public void setDouble(@NotNull Object instance, double value) {
+            binder.setDouble(property, instance, value);
+        }
+    }
+}
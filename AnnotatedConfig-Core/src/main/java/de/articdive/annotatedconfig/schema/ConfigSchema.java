@@ -0,0 +1,492 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.schema;
+
+import de.articdive.annotatedconfig.accessor.PropertyAccessor;
+import de.articdive.annotatedconfig.accessor.PropertyAccessorFactory;
+import de.articdive.annotatedconfig.annotations.Comment;
+import de.articdive.annotatedconfig.annotations.OverrideNaming;
+import de.articdive.annotatedconfig.annotations.Overrides;
+import de.articdive.annotatedconfig.annotations.Property;
+import de.articdive.annotatedconfig.annotations.Section;
+import de.articdive.annotatedconfig.api.Configuration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The immutable shape of a {@link Configuration} class: its section tree, the full path of every property and the
+ * comments attached to both. A schema is computed once per root class and shared by every instance of that class.
+ */
+public final class ConfigSchema {
+    private static final ClassValue<ConfigSchema> CACHE = new ClassValue<ConfigSchema>() {
+        @Override
+        protected ConfigSchema computeValue(Class<?> type) {
+            ConfigBinder<?> binder = findBinder(type);
+            Builder builder = new Builder(type, binder != null);
+            if (binder != null) {
+                binder.describe(builder);
+            } else {
+                scanSection(builder, type, -1);
+            }
+            return builder.build();
+        }
+    };
+
+    private final Class<?> rootClass;
+    private final boolean generated;
+    private final List<SectionSchema> sections;
+    private final List<PropertySchema> properties;
+    private final Map<Class<?>, SectionSchema> sectionsByType;
+    private final long fingerprint;
+    private final OverrideIndex environmentOverrides;
+    private final OverrideIndex systemPropertyOverrides;
+    private final Map<String, OverrideIndex> overrideIndexes = new ConcurrentHashMap<>();
+    private volatile Map<Class<?>, List<Field>> fieldMap;
+    private volatile KeyNode keyTree;
+    private volatile int keyNodeCount;
+
+    private ConfigSchema(
+        @NotNull Class<?> rootClass, boolean generated,
+        @NotNull List<SectionSchema> sections, @NotNull List<PropertySchema> properties
+    ) {
+        this.rootClass = rootClass;
+        this.generated = generated;
+        this.sections = Collections.unmodifiableList(sections);
+        this.properties = Collections.unmodifiableList(properties);
+
+        Map<Class<?>, SectionSchema> sectionsByType = new HashMap<>();
+        for (SectionSchema section : sections) {
+            sectionsByType.put(section.getType(), section);
+        }
+        this.sectionsByType = Collections.unmodifiableMap(sectionsByType);
+        this.fingerprint = fingerprint(rootClass, sections, properties);
+
+        Overrides overrides = rootClass.getAnnotation(Overrides.class);
+        this.environmentOverrides = overrides == null || !overrides.environment() ? null
+            : getOverrideIndex(overrides.environmentNaming(), overrides.environmentPrefix());
+        this.systemPropertyOverrides = overrides == null || !overrides.systemProperties() ? null
+            : getOverrideIndex(overrides.systemPropertyNaming(), overrides.systemPropertyPrefix());
+    }
+
+    private static long fingerprint(
+        @NotNull Class<?> rootClass, @NotNull List<SectionSchema> sections, @NotNull List<PropertySchema> properties
+    ) {
+        // 64 bit FNV-1a over the names and types of the sections and properties, in schema order.
+        StringBuilder shape = new StringBuilder(rootClass.getName());
+        for (SectionSchema section : sections) {
+            shape.append('\n').append(section.getPath()).append(':').append(section.getType().getName());
+        }
+        for (PropertySchema property : properties) {
+            shape.append('\n').append(property.getPath()).append('=').append(property.getType().getName());
+        }
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < shape.length(); i++) {
+            hash ^= shape.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Gets the schema of a configuration class, creating it on first use.
+     * If a {@link ConfigBinder} was generated for the class it describes the schema, otherwise the class is scanned.
+     *
+     * @param rootClass The configuration class.
+     * @return the cached schema of the class.
+     */
+    @NotNull
+    public static ConfigSchema of(@NotNull Class<? extends Configuration> rootClass) {
+        return CACHE.get(rootClass);
+    }
+
+    @Nullable
+    private static ConfigBinder<?> findBinder(@NotNull Class<?> rootClass) {
+        Class<?> binderClass;
+        try {
+            binderClass = Class.forName(ConfigBinder.getBinderName(rootClass), true, rootClass.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+        try {
+            return (ConfigBinder<?>) binderClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static void scanSection(@NotNull Builder builder, @NotNull Class<?> type, int parent) {
+        SectionFactory factory;
+        String key = null;
+        if (parent == -1) {
+            factory = parentInstance -> type.getConstructor().newInstance();
+        } else {
+            Constructor<?> constructor;
+            try {
+                if (Modifier.isStatic(type.getModifiers())) {
+                    constructor = type.getDeclaredConstructor();
+                } else {
+                    constructor = type.getDeclaredConstructor(builder.getSection(parent).getType());
+                }
+                constructor.setAccessible(true);
+            } catch (NoSuchMethodException e) {
+                e.printStackTrace();
+                return;
+            }
+            if (constructor.getParameterCount() == 0) {
+                factory = parentInstance -> constructor.newInstance();
+            } else {
+                factory = constructor::newInstance;
+            }
+            key = type.getAnnotation(Section.class).value();
+        }
+        int section = builder.section(type, parent, key, comments(type.getAnnotationsByType(Comment.class)), factory);
+
+        for (Field field : type.getDeclaredFields()) {
+            Property property = field.getAnnotation(Property.class);
+            if (property == null) {
+                continue;
+            }
+            field.setAccessible(true);
+            builder.property(
+                section, field.getName(), field.getType(), property.value(),
+                comments(field.getAnnotationsByType(Comment.class)),
+                PropertyAccessorFactory.METHOD_HANDLES.create(field), field
+            );
+        }
+
+        for (Class<?> memberClass : type.getDeclaredClasses()) {
+            if (memberClass.isAnnotationPresent(Section.class)) {
+                scanSection(builder, memberClass, section);
+            }
+        }
+    }
+
+    /**
+     * Splits a dotted path into its keys.
+     *
+     * @param path The path to split, null for no path.
+     * @return the keys of the path, empty if the path is null or empty.
+     */
+    @NotNull
+    static List<String> tokenize(@Nullable String path) {
+        if (path == null || path.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        int start = 0;
+        int end;
+        while ((end = path.indexOf('.', start)) != -1) {
+            tokens.add(path.substring(start, end));
+            start = end + 1;
+        }
+        tokens.add(path.substring(start));
+        return Collections.unmodifiableList(tokens);
+    }
+
+    @NotNull
+    private static String[] comments(@NotNull Comment[] annotatedComments) {
+        String[] comments = new String[annotatedComments.length];
+        for (int i = 0; i < annotatedComments.length; i++) {
+            comments[i] = annotatedComments[i].value();
+        }
+        return comments;
+    }
+
+    @NotNull
+    public Class<?> getRootClass() {
+        return rootClass;
+    }
+
+    /**
+     * @return true if the schema was described by a generated {@link ConfigBinder} instead of reflection.
+     */
+    public boolean isGenerated() {
+        return generated;
+    }
+
+    @NotNull
+    public SectionSchema getRoot() {
+        return sections.get(0);
+    }
+
+    /**
+     * @return every section of the configuration, parents before their children, starting with the root.
+     */
+    @NotNull
+    public List<SectionSchema> getSections() {
+        return sections;
+    }
+
+    /**
+     * @return every property of the configuration, in the order they were added to their sections.
+     */
+    @NotNull
+    public List<PropertySchema> getProperties() {
+        return properties;
+    }
+
+    @Nullable
+    public SectionSchema getSection(@NotNull Class<?> type) {
+        return sectionsByType.get(type);
+    }
+
+    /**
+     * @return the annotated fields of every section, keyed by the section's class.
+     */
+    @NotNull
+    public Map<Class<?>, List<Field>> getFieldMap() {
+        Map<Class<?>, List<Field>> fieldMap = this.fieldMap;
+        if (fieldMap == null) {
+            fieldMap = new LinkedHashMap<>();
+            for (SectionSchema section : sections) {
+                List<Field> fields = new ArrayList<>();
+                for (PropertySchema property : section.getProperties()) {
+                    fields.add(property.getField());
+                }
+                fieldMap.put(section.getType(), Collections.unmodifiableList(fields));
+            }
+            fieldMap = Collections.unmodifiableMap(fieldMap);
+            this.fieldMap = fieldMap;
+        }
+        return fieldMap;
+    }
+
+    /**
+     * @return a hash of the paths and types of the sections and properties, which changes with the shape of the schema.
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return the environment variables overriding the properties, null unless the root class is annotated with
+     * {@link Overrides} and overrides them.
+     */
+    @Nullable
+    public OverrideIndex getEnvironmentOverrides() {
+        return environmentOverrides;
+    }
+
+    /**
+     * @return the system properties overriding the properties, null unless the root class is annotated with
+     * {@link Overrides} and overrides them.
+     */
+    @Nullable
+    public OverrideIndex getSystemPropertyOverrides() {
+        return systemPropertyOverrides;
+    }
+
+    /**
+     * @param naming How the names are derived from the paths of the properties.
+     * @param prefix The prefix of every name.
+     * @return the names overriding the properties, created on first use.
+     */
+    @NotNull
+    public OverrideIndex getOverrideIndex(@NotNull OverrideNaming naming, @NotNull String prefix) {
+        return overrideIndexes.computeIfAbsent(
+            naming.name() + ':' + prefix, key -> new OverrideIndex(properties, naming, prefix)
+        );
+    }
+
+    /**
+     * @return the root node of the key tree of this schema, created on first use.
+     */
+    @NotNull
+    public KeyNode getKeyTree() {
+        KeyNode keyTree = this.keyTree;
+        if (keyTree == null) {
+            synchronized (this) {
+                keyTree = this.keyTree;
+                if (keyTree == null) {
+                    int[] count = {1};
+                    keyTree = new KeyNode(0, null, getRoot(), null);
+                    addKeyNodes(keyTree, getRoot(), count);
+                    this.keyNodeCount = count[0];
+                    this.keyTree = keyTree;
+                }
+            }
+        }
+        return keyTree;
+    }
+
+    /**
+     * @return the number of nodes in the key tree.
+     */
+    public int getKeyNodeCount() {
+        getKeyTree();
+        return keyNodeCount;
+    }
+
+    private static void addKeyNodes(@NotNull KeyNode node, @NotNull SectionSchema section, int[] count) {
+        for (PropertySchema property : section.getProperties()) {
+            addKeyNode(node, property.getKeyTokens(), null, property, count);
+        }
+        // Reflection doesn't return member classes in the order they were declared, sort them to be deterministic.
+        List<SectionSchema> children = new ArrayList<>(section.getChildren());
+        children.sort(Comparator.comparing(SectionSchema::getKey));
+        for (SectionSchema child : children) {
+            addKeyNodes(addKeyNode(node, child.getKeyTokens(), child, null, count), child, count);
+        }
+    }
+
+    @NotNull
+    private static KeyNode addKeyNode(
+        @NotNull KeyNode node, @NotNull List<String> keys,
+        @Nullable SectionSchema section, @Nullable PropertySchema property, int[] count
+    ) {
+        String path = section != null ? section.getPath() : property.getPath();
+        for (int i = 0; i < keys.size() - 1; i++) {
+            KeyNode child = node.getChild(keys.get(i));
+            if (child == null) {
+                child = new KeyNode(count[0]++, keys.get(i), null, null);
+                node.addChild(child);
+            } else if (child.getSection() != null || child.getProperty() != null) {
+                throw new IllegalStateException(String.format("The key %s is used more than once.", path));
+            }
+            node = child;
+        }
+        String key = keys.get(keys.size() - 1);
+        if (node.getChild(key) != null) {
+            throw new IllegalStateException(String.format("The key %s is used more than once.", path));
+        }
+        KeyNode child = new KeyNode(count[0]++, key, section, property);
+        node.addChild(child);
+        return child;
+    }
+
+    /**
+     * Assembles a {@link ConfigSchema}, used by the reflective scan and by generated {@link ConfigBinder}s.
+     */
+    public static final class Builder {
+        private final Class<?> rootClass;
+        private final boolean generated;
+        private final List<SectionSchema> sections = new ArrayList<>();
+        private final List<List<PropertySchema>> sectionProperties = new ArrayList<>();
+        private final List<List<SectionSchema>> sectionChildren = new ArrayList<>();
+        private final List<PropertySchema> properties = new ArrayList<>();
+
+        private Builder(@NotNull Class<?> rootClass, boolean generated) {
+            this.rootClass = rootClass;
+            this.generated = generated;
+        }
+
+        @NotNull
+        private SectionSchema getSection(int section) {
+            return sections.get(section);
+        }
+
+        /**
+         * Adds a section, the first section added is the root.
+         *
+         * @param type     The class of the section.
+         * @param parent   The index of the enclosing section, -1 for the root.
+         * @param key      The value of the section's annotation, null for the root.
+         * @param comments The comments of the section.
+         * @param factory  The factory creating instances of the section.
+         * @return the index of the section.
+         */
+        public int section(
+            @NotNull Class<?> type, int parent, @Nullable String key,
+            @NotNull String[] comments, @NotNull SectionFactory factory
+        ) {
+            if (sections.isEmpty() != (parent == -1) || parent >= sections.size()) {
+                throw new IllegalArgumentException(String.format("The section %s has an invalid parent.", type));
+            }
+            SectionSchema parentSection = parent == -1 ? null : sections.get(parent);
+            String path = "";
+            if (parentSection != null) {
+                if (key == null) {
+                    throw new IllegalArgumentException(String.format("The section %s has no key.", type));
+                }
+                path = parentSection.isRoot() ? key : parentSection.getPath() + "." + key;
+            }
+
+            List<PropertySchema> properties = new ArrayList<>();
+            List<SectionSchema> children = new ArrayList<>();
+            SectionSchema section = new SectionSchema(
+                sections.size(), type, parentSection, key, path, toList(comments), factory,
+                Collections.unmodifiableList(properties), Collections.unmodifiableList(children)
+            );
+            sections.add(section);
+            sectionProperties.add(properties);
+            sectionChildren.add(children);
+            if (parent != -1) {
+                sectionChildren.get(parent).add(section);
+            }
+            return section.getIndex();
+        }
+
+        /**
+         * Adds a property to a section.
+         *
+         * @param section  The index of the property's section.
+         * @param name     The name of the property's field.
+         * @param type     The type of the property's field.
+         * @param key      The value of the property's annotation.
+         * @param comments The comments of the property.
+         * @param accessor The accessor of the property.
+         * @param field    The property's field, if it is already known.
+         * @return the index of the property.
+         */
+        public int property(
+            int section, @NotNull String name, @NotNull Class<?> type, @NotNull String key,
+            @NotNull String[] comments, @NotNull PropertyAccessor accessor, @Nullable Field field
+        ) {
+            SectionSchema sectionSchema = sections.get(section);
+            PropertySchema property = new PropertySchema(
+                properties.size(), sectionSchema, name, type, key,
+                sectionSchema.isRoot() ? key : sectionSchema.getPath() + "." + key,
+                toList(comments), accessor, field
+            );
+            properties.add(property);
+            sectionProperties.get(section).add(property);
+            return property.getIndex();
+        }
+
+        @NotNull
+        private static List<String> toList(@NotNull String[] values) {
+            if (values.length == 0) {
+                return Collections.emptyList();
+            }
+            return Collections.unmodifiableList(Arrays.asList(values.clone()));
+        }
+
+        @NotNull
+        private ConfigSchema build() {
+            if (sections.isEmpty()) {
+                throw new IllegalStateException(String.format("The schema of %s has no root section.", rootClass));
+            }
+            return new ConfigSchema(rootClass, generated, sections, properties);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.schema;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A node of the key tree of a {@link ConfigSchema}, used by formats which read or write a document key by key.
+ * Every section and property has a node below the node of its parent section, keys containing dots are nested through
+ * intermediate nodes that are neither.
+ */
+public final class KeyNode {
+    private final int index;
+    private final String key;
+    private final SectionSchema section;
+    private final PropertySchema property;
+    private final Map<String, KeyNode> children = new LinkedHashMap<>();
+    private final Collection<KeyNode> childValues = Collections.unmodifiableCollection(children.values());
+
+    KeyNode(int index, @Nullable String key, @Nullable SectionSchema section, @Nullable PropertySchema property) {
+        this.index = index;
+        this.key = key;
+        this.section = section;
+        this.property = property;
+    }
+
+    void addChild(@NotNull KeyNode child) {
+        children.put(child.key, child);
+    }
+
+    /**
+     * @return the position of this node in the key tree, smaller than {@link ConfigSchema#getKeyNodeCount()}.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the key of this node relative to its parent node, null for the root.
+     */
+    @Nullable
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return the section of this node, null if it is a property or an intermediate node.
+     */
+    @Nullable
+    public SectionSchema getSection() {
+        return section;
+    }
+
+    /**
+     * @return the property of this node, null if it is a section or an intermediate node.
+     */
+    @Nullable
+    public PropertySchema getProperty() {
+        return property;
+    }
+
+    @Nullable
+    public KeyNode getChild(@NotNull String key) {
+        return children.get(key);
+    }
+
+    /**
+     * @return the child nodes, properties in the order they were declared followed by sections ordered by their key.
+     */
+    @NotNull
+    public Collection<KeyNode> getChildren() {
+        return childValues;
+    }
+}
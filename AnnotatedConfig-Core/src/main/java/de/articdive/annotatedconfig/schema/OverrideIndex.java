@@ -0,0 +1,67 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.articdive.annotatedconfig.schema;
+
+import de.articdive.annotatedconfig.annotations.OverrideNaming;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The names of the environment variables or system properties overriding the properties of a {@link ConfigSchema},
+ * indexed so the variables that are set can be matched to their properties without formatting any name again.
+ */
+public final class OverrideIndex {
+    private final String[] names;
+    private final Map<String, PropertySchema> properties;
+
+    OverrideIndex(@NotNull List<PropertySchema> properties, @NotNull OverrideNaming naming, @NotNull String prefix) {
+        this.names = new String[properties.size()];
+        this.properties = new HashMap<>(properties.size() * 2);
+        for (PropertySchema property : properties) {
+            String name = prefix + naming.format(property.getPath());
+            PropertySchema previous = this.properties.put(name, property);
+            if (previous != null) {
+                throw new IllegalStateException(String.format(
+                    "The properties %s and %s are both overridden by %s.", previous.getPath(), property.getPath(), name
+                ));
+            }
+            names[property.getIndex()] = name;
+        }
+    }
+
+    /**
+     * @param name The name of an environment variable or system property.
+     * @return the property it overrides, null if it doesn't override any.
+     */
+    @Nullable
+    public PropertySchema getProperty(@NotNull String name) {
+        return properties.get(name);
+    }
+
+    /**
+     * @return the name of the environment variable or system property overriding the property.
+     */
+    @NotNull
+    public String getName(@NotNull PropertySchema property) {
+        return names[property.getIndex()];
+    }
+}
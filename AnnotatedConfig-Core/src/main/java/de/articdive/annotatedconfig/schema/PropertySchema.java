@@ -0,0 +1,159 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.schema;
+
+import de.articdive.annotatedconfig.accessor.PropertyAccessor;
+import de.articdive.annotatedconfig.accessor.ValueBinder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+/**
+ * A field annotated with {@link de.articdive.annotatedconfig.annotations.Property} as seen by a {@link ConfigSchema}.
+ */
+public final class PropertySchema {
+    private final int index;
+    private final SectionSchema section;
+    private final String name;
+    private final Class<?> type;
+    private final String key;
+    private final String path;
+    private final List<String> keyTokens;
+    private final List<String> pathTokens;
+    private final List<String> comments;
+    private final PropertyAccessor accessor;
+    private final ValueBinder binder;
+    private volatile Field field;
+
+    PropertySchema(
+        int index, @NotNull SectionSchema section, @NotNull String name, @NotNull Class<?> type,
+        @NotNull String key, @NotNull String path, @NotNull List<String> comments,
+        @NotNull PropertyAccessor accessor, @Nullable Field field
+    ) {
+        this.index = index;
+        this.section = section;
+        this.name = name;
+        this.type = type;
+        this.key = key;
+        this.path = path;
+        this.keyTokens = ConfigSchema.tokenize(key);
+        this.pathTokens = ConfigSchema.tokenize(path);
+        this.comments = comments;
+        this.accessor = accessor;
+        this.binder = ValueBinder.of(accessor);
+        this.field = field;
+    }
+
+    /**
+     * @return the position of this property in {@link ConfigSchema#getProperties()}.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    @NotNull
+    public SectionSchema getSection() {
+        return section;
+    }
+
+    /**
+     * Gets the property's field, schemas created by a generated {@link ConfigBinder} only look it up when asked to.
+     *
+     * @return the accessible field of the property.
+     */
+    @NotNull
+    public Field getField() {
+        Field field = this.field;
+        if (field == null) {
+            try {
+                field = section.getType().getDeclaredField(name);
+            } catch (NoSuchFieldException e) {
+                throw new IllegalStateException(String.format("The property %s has no field.", path), e);
+            }
+            field.setAccessible(true);
+            this.field = field;
+        }
+        return field;
+    }
+
+    @NotNull
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @return the name of the property's field.
+     */
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the value of the property's annotation, relative to its section.
+     */
+    @NotNull
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return the key of the property split at its dots.
+     */
+    @NotNull
+    public List<String> getKeyTokens() {
+        return keyTokens;
+    }
+
+    /**
+     * @return the full dotted path of the property.
+     */
+    @NotNull
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return the full path of the property split at its dots.
+     */
+    @NotNull
+    public List<String> getPathTokens() {
+        return pathTokens;
+    }
+
+    @NotNull
+    public List<String> getComments() {
+        return comments;
+    }
+
+    @NotNull
+    public PropertyAccessor getAccessor() {
+        return accessor;
+    }
+
+    /**
+     * @return the binder of the property, chosen for its type when the schema was created.
+     */
+    @NotNull
+    public ValueBinder getBinder() {
+        return binder;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.schema;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * A class annotated with {@link de.articdive.annotatedconfig.annotations.Section} (or the root configuration class)
+ * as seen by a {@link ConfigSchema}.
+ */
+public final class SectionSchema {
+    private final int index;
+    private final Class<?> type;
+    private final SectionSchema parent;
+    private final String key;
+    private final String path;
+    private final List<String> keyTokens;
+    private final List<String> pathTokens;
+    private final List<String> comments;
+    private final SectionFactory factory;
+    private final List<PropertySchema> properties;
+    private final List<SectionSchema> children;
+
+    SectionSchema(
+        int index, @NotNull Class<?> type, @Nullable SectionSchema parent, @Nullable String key, @NotNull String path,
+        @NotNull List<String> comments, @NotNull SectionFactory factory,
+        @NotNull List<PropertySchema> properties, @NotNull List<SectionSchema> children
+    ) {
+        this.index = index;
+        this.type = type;
+        this.parent = parent;
+        this.key = key;
+        this.path = path;
+        this.keyTokens = ConfigSchema.tokenize(key);
+        this.pathTokens = ConfigSchema.tokenize(path);
+        this.comments = comments;
+        this.factory = factory;
+        this.properties = properties;
+        this.children = children;
+    }
+
+    /**
+     * Creates a new instance of this section.
+     *
+     * @param parentInstance The instance of the enclosing section, null for the root.
+     * @return the new section instance.
+     * @throws ReflectiveOperationException if the section could not be instantiated.
+     */
+    @NotNull
+    public Object newInstance(@Nullable Object parentInstance) throws ReflectiveOperationException {
+        return factory.newInstance(parentInstance);
+    }
+
+    /**
+     * @return the position of this section in {@link ConfigSchema#getSections()}.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    @NotNull
+    public Class<?> getType() {
+        return type;
+    }
+
+    @Nullable
+    public SectionSchema getParent() {
+        return parent;
+    }
+
+    public boolean isRoot() {
+        return parent == null;
+    }
+
+    /**
+     * @return the value of the section's annotation, null for the root.
+     */
+    @Nullable
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return the key of the section split at its dots, empty for the root.
+     */
+    @NotNull
+    public List<String> getKeyTokens() {
+        return keyTokens;
+    }
+
+    /**
+     * @return the full dotted path of the section, empty for the root.
+     */
+    @NotNull
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return the full path of the section split at its dots, empty for the root.
+     */
+    @NotNull
+    public List<String> getPathTokens() {
+        return pathTokens;
+    }
+
+    @NotNull
+    public List<String> getComments() {
+        return comments;
+    }
+
+    @NotNull
+    public List<PropertySchema> getProperties() {
+        return properties;
+    }
+
+    @NotNull
+    public List<SectionSchema> getChildren() {
+        return children;
+    }
+}
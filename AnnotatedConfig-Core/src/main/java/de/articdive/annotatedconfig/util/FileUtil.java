@@ -18,15 +18,92 @@
 
 package de.articdive.annotatedconfig.util;
 
+import de.articdive.annotatedconfig.api.SaveDurability;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.AclFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
 
 public final class FileUtil {
+    /**
+     * Files of at least this many bytes are read through a memory mapping.
+     */
+    public static final long MAPPED_READ_THRESHOLD = 1L << 20;
+
+    private static final Map<String, byte[]> RESOURCE_CACHE = new ConcurrentHashMap<>();
+    // Windows can't replace a file while it is mapped, and mappings are only released by the garbage collector.
+    private static final boolean CAN_MAP = File.separatorChar == '/';
+
     private FileUtil() {
     }
 
+    /**
+     * Opens a UTF-8 file for reading. Large files are decoded straight from a memory mapping as they are read, smaller
+     * ones through a stream. Malformed UTF-8 is reported as an IOException.
+     *
+     * @param file The file to read.
+     * @return a reader of the file.
+     * @throws IOException if the file could not be opened.
+     */
+    @NotNull
+    public static Reader openReader(@NotNull File file) throws IOException {
+        if (CAN_MAP && file.length() >= MAPPED_READ_THRESHOLD) {
+            return new MappedFileReader(file.toPath());
+        }
+        return new InputStreamReader(Files.newInputStream(file.toPath()), StandardCharsets.UTF_8.newDecoder());
+    }
+
+    /**
+     * Computes the CRC32 checksum of a file, large files are read through a memory mapping.
+     *
+     * @param file The file to read.
+     * @return the checksum of the file's content.
+     * @throws IOException if the file could not be read.
+     */
+    public static int checksum(@NotNull File file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (CAN_MAP && size >= MAPPED_READ_THRESHOLD) {
+                for (long position = 0; position < size; position += Integer.MAX_VALUE) {
+                    crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(Integer.MAX_VALUE, size - position)));
+                }
+            } else {
+                ByteBuffer buffer = ByteBuffer.allocate(8192);
+                while (channel.read(buffer) != -1) {
+                    buffer.flip();
+                    crc.update(buffer);
+                    buffer.clear();
+                }
+            }
+        }
+        return (int) crc.getValue();
+    }
+
     /**
      * This checks if a directory exists, if it does not it then creates it and if necessary its parents.
      *
@@ -60,4 +137,184 @@ public final class FileUtil {
         // The parent directory should exist, create the file.
         return checkOrCreateDirectory(file.getParentFile()) && file.createNewFile();
     }
+
+    /**
+     * This checks if a file contains exactly the given bytes, without reading files of a different length.
+     *
+     * @param file    The file to compare.
+     * @param content The expected content of the file.
+     * @return true if the file exists and its content equals the given bytes.
+     * @throws IOException if it fails to read the file.
+     */
+    public static boolean hasContent(@NotNull File file, @NotNull byte[] content) throws IOException {
+        if (!file.isFile() || file.length() != content.length) {
+            return false;
+        }
+        byte[] buffer = new byte[Math.min(content.length, 8192)];
+        try (InputStream inputStream = new FileInputStream(file)) {
+            int offset = 0;
+            int read;
+            while (offset < content.length && (read = inputStream.read(buffer)) != -1) {
+                for (int i = 0; i < read; i++) {
+                    if (offset + i >= content.length || buffer[i] != content[offset + i]) {
+                        return false;
+                    }
+                }
+                offset += read;
+            }
+            // The file might have changed since its length was checked.
+            return offset == content.length && inputStream.read() == -1;
+        }
+    }
+
+    /**
+     * This writes the content to a temporary file next to the file and then moves it over the file, so the file
+     * never contains partially written content.
+     * Symbolic links are followed and stay in place, the file they point to is replaced. The new file keeps the
+     * permissions of the old one, and its owner, group and access control list as far as the user may set them.
+     *
+     * @param file       The file to write.
+     * @param content    The new content of the file.
+     * @param durability What to sync before returning.
+     * @throws IOException if it fails to write or move the temporary file.
+     */
+    public static void writeAtomically(
+        @NotNull File file, @NotNull byte[] content, @NotNull SaveDurability durability
+    ) throws IOException {
+        Path target = file.toPath().toAbsolutePath();
+        if (Files.exists(target)) {
+            // Replace the file a symbolic link points to, not the link.
+            target = target.toRealPath();
+        }
+        Path directory = target.getParent();
+        Path temporary = Files.createTempFile(directory, "." + target.getFileName(), ".tmp");
+        try {
+            copyAttributes(target, temporary);
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(content);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                if (durability != SaveDurability.NONE) {
+                    channel.force(true);
+                }
+            }
+            try {
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        if (durability == SaveDurability.SYNC_FILE_AND_DIRECTORY) {
+            syncDirectory(directory);
+        }
+    }
+
+    private static void copyAttributes(@NotNull Path source, @NotNull Path target) throws IOException {
+        if (!Files.exists(source)) {
+            return;
+        }
+        PosixFileAttributeView sourceView = Files.getFileAttributeView(source, PosixFileAttributeView.class);
+        if (sourceView != null) {
+            PosixFileAttributes attributes = sourceView.readAttributes();
+            PosixFileAttributeView targetView = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+            PosixFileAttributes targetAttributes = targetView.readAttributes();
+            // Only privileged users can hand a file to others, everyone else owns the replaced file from now on.
+            if (!attributes.owner().equals(targetAttributes.owner())) {
+                try {
+                    targetView.setOwner(attributes.owner());
+                } catch (IOException e) {
+                    // Not permitted.
+                }
+            }
+            if (!attributes.group().equals(targetAttributes.group())) {
+                try {
+                    targetView.setGroup(attributes.group());
+                } catch (IOException e) {
+                    // Not permitted.
+                }
+            }
+            // Temporary files are only readable by their owner, the replaced file should keep its permissions.
+            targetView.setPermissions(attributes.permissions());
+            return;
+        }
+        AclFileAttributeView sourceAcl = Files.getFileAttributeView(source, AclFileAttributeView.class);
+        if (sourceAcl != null) {
+            AclFileAttributeView targetAcl = Files.getFileAttributeView(target, AclFileAttributeView.class);
+            try {
+                targetAcl.setAcl(sourceAcl.getAcl());
+                targetAcl.setOwner(sourceAcl.getOwner());
+            } catch (IOException e) {
+                // Not permitted, the file keeps the access control list of its directory.
+            }
+        }
+    }
+
+    private static void syncDirectory(@NotNull Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directories can't be opened or synced on every platform (e.g. Windows), their renames are durable anyway.
+            if (Files.getFileAttributeView(directory, PosixFileAttributeView.class) != null) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * This copies a resource to a file byte for byte.
+     * Resources in the file system are transferred directly between the files, all other resources (e.g. in jars) are
+     * only read once and then copied from memory.
+     *
+     * @param resource The resource to copy.
+     * @param file     The file to replace with the resource.
+     * @throws IOException if it fails to read the resource or write the file.
+     */
+    public static void copyResource(@NotNull URL resource, @NotNull File file) throws IOException {
+        if ("file".equals(resource.getProtocol())) {
+            Path source;
+            try {
+                source = Paths.get(resource.toURI());
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                throw new IOException(String.format("The resource %s is not a valid file.", resource), e);
+            }
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(
+                     file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING
+                 )) {
+                long size = in.size();
+                long position = 0;
+                while (position < size) {
+                    position += in.transferTo(position, size - position, out);
+                }
+            }
+            return;
+        }
+
+        byte[] content = RESOURCE_CACHE.get(resource.toExternalForm());
+        if (content == null) {
+            content = readResource(resource);
+            RESOURCE_CACHE.putIfAbsent(resource.toExternalForm(), content);
+        }
+        Files.write(file.toPath(), content);
+    }
+
+    @NotNull
+    private static byte[] readResource(@NotNull URL resource) throws IOException {
+        URLConnection connection = resource.openConnection();
+        // Jar connections cache their jar file, which would stay open once its resource was cached here.
+        connection.setUseCaches(false);
+        try (InputStream inputStream = connection.getInputStream()) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(Math.max(connection.getContentLength(), 32));
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+            }
+            return outputStream.toByteArray();
+        }
+    }
 }
@@ -0,0 +1,115 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a UTF-8 file through a memory mapping, decoding it as it is read without copying the file to the heap.
+ * Files larger than a mapping window are mapped window by window. Malformed UTF-8 is reported as an IOException.
+ *
+ * @see FileUtil#openReader(java.io.File)
+ */
+final class MappedFileReader extends Reader {
+    private static final long WINDOW_SIZE = 64L << 20;
+
+    private final FileChannel channel;
+    private final long size;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+    private MappedByteBuffer window;
+    private long windowStart;
+    private boolean flushed;
+    private CharBuffer pending = CharBuffer.allocate(0);
+
+    MappedFileReader(@NotNull Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            size = channel.size();
+            map(0);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, size - start));
+    }
+
+    @Override
+    public int read(@NotNull char[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (flushed) {
+            return -1;
+        }
+        if (pending.hasRemaining()) {
+            buffer[offset] = pending.get();
+            return 1;
+        }
+        if (length == 1) {
+            // Both halves of a surrogate pair are decoded together, the second one is handed out on the next read.
+            char[] pair = new char[2];
+            int read = read(pair, 0, 2);
+            if (read == 2) {
+                pending = CharBuffer.wrap(pair, 1, 1);
+            }
+            buffer[offset] = pair[0];
+            return read == -1 ? -1 : 1;
+        }
+        CharBuffer out = CharBuffer.wrap(buffer, offset, length);
+        while (true) {
+            boolean lastWindow = windowStart + window.limit() == size;
+            CoderResult result = decoder.decode(window, out, lastWindow);
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (out.position() > offset || result.isOverflow()) {
+                return out.position() - offset;
+            }
+            if (!lastWindow) {
+                // A character split by the end of the window is decoded from the start of the next one.
+                map(windowStart + window.position());
+                continue;
+            }
+            decoder.flush(out);
+            flushed = true;
+            return out.position() > offset ? out.position() - offset : -1;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // The mapping is released by the garbage collector, there is no way to unmap it before Java 9.
+        channel.close();
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.articdive.annotatedconfig.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * The positions of property values written on a single line of a configuration file, by the index of their property.
+ * Formats record them while they read or write the file, so single values can be replaced later without reading or
+ * writing the rest of the document again.
+ */
+public final class ValueSpans {
+    private final int[] lines;
+    private final int[] starts;
+    private final int[] ends;
+    // How far setOffsets counted the lines of the text.
+    private int scanned;
+    private int line;
+    private int lineStart;
+
+    /**
+     * @param count The number of properties.
+     */
+    public ValueSpans(int count) {
+        this.lines = new int[count];
+        this.starts = new int[count];
+        this.ends = new int[count];
+        Arrays.fill(lines, -1);
+    }
+
+    /**
+     * @param index The index of the property.
+     * @param line  The line of the value, starting at 0.
+     * @param start The column of the first character of the value.
+     * @param end   The column after the last character of the value.
+     */
+    public void set(int index, int line, int start, int end) {
+        lines[index] = line;
+        starts[index] = start;
+        ends[index] = end;
+    }
+
+    /**
+     * Records a value by its position in the text, the positions have to be given in the order of the text.
+     *
+     * @param index The index of the property.
+     * @param text  The text written so far.
+     * @param start The position of the first character of the value.
+     * @param end   The position after the last character of the value.
+     */
+    public void setOffsets(int index, @NotNull CharSequence text, int start, int end) {
+        for (; scanned < start; scanned++) {
+            if (text.charAt(scanned) == '\n') {
+                line++;
+                lineStart = scanned + 1;
+            }
+        }
+        set(index, line, start - lineStart, end - lineStart);
+    }
+
+    /**
+     * @return whether the position of the property's value is known.
+     */
+    public boolean contains(int index) {
+        return lines[index] != -1;
+    }
+
+    /**
+     * Replaces the values of properties in the text the positions were recorded for. The positions of the replaced
+     * values and of the values following them on the same line are updated for the returned text.
+     *
+     * @param text    The text.
+     * @param indexes The indexes of the properties, all of them have to be {@link #contains(int) known}.
+     * @param values  The new values, none of them may contain a line break.
+     * @return the text with the values replaced, null if a position doesn't fit the text.
+     */
+    @Nullable
+    public String replace(@NotNull String text, @NotNull int[] indexes, @NotNull String[] values) {
+        int lineCount = 1;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lineCount++;
+            }
+        }
+        int[] lineStarts = new int[lineCount + 1];
+        int next = 1;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lineStarts[next++] = i + 1;
+            }
+        }
+        lineStarts[lineCount] = text.length() + 1;
+
+        // The replacements in the order of the text.
+        Integer[] order = new Integer[indexes.length];
+        int[] absoluteStarts = new int[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            int index = indexes[i];
+            int line = lines[index];
+            if (line < 0 || line >= lineCount || lineStarts[line] + ends[index] >= lineStarts[line + 1]) {
+                return null;
+            }
+            order[i] = i;
+            absoluteStarts[i] = lineStarts[line] + starts[index];
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(absoluteStarts[a], absoluteStarts[b]));
+        for (int i = 1; i < order.length; i++) {
+            int previous = indexes[order[i - 1]];
+            if (lineStarts[lines[previous]] + ends[previous] > absoluteStarts[order[i]]) {
+                return null;
+            }
+        }
+
+        StringBuilder builder = new StringBuilder(text.length() + 16 * indexes.length);
+        int copied = 0;
+        for (Integer i : order) {
+            int index = indexes[i];
+            builder.append(text, copied, absoluteStarts[i]).append(values[i]);
+            copied = lineStarts[lines[index]] + ends[index];
+        }
+        builder.append(text, copied, text.length());
+
+        // From the end of the text, so the values following a replaced one on its line were already moved.
+        for (int o = order.length - 1; o >= 0; o--) {
+            int index = indexes[order[o]];
+            int shift = values[order[o]].length() - (ends[index] - starts[index]);
+            for (int other = 0; other < lines.length; other++) {
+                if (lines[other] == lines[index] && starts[other] >= ends[index] && other != index) {
+                    starts[other] += shift;
+                    ends[other] += shift;
+                }
+            }
+            ends[index] = starts[index] + values[order[o]].length();
+        }
+        return builder.toString();
+    }
+}
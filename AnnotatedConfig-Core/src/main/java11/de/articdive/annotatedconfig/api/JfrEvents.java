@@ -0,0 +1,171 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package de.articdive.annotatedconfig.api;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+
+/**
+ * Emits the Flight Recorder events of loads and saves.
+ * Events are only filled in and committed while a recording has them enabled.
+ */
+final class JfrEvents {
+    private JfrEvents() {
+    }
+
+    @NotNull
+    static Object beginParse() {
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitParse(@Nullable Object event, @NotNull File file) {
+        ParseEvent parse = (ParseEvent) event;
+        parse.end();
+        if (parse.shouldCommit()) {
+            parse.path = file.getPath();
+            parse.bytes = file.length();
+            parse.commit();
+        }
+    }
+
+    @NotNull
+    static Object beginBind() {
+        BindEvent event = new BindEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitBind(@Nullable Object event, @NotNull File file, int bound, int skipped, int mismatched) {
+        BindEvent bind = (BindEvent) event;
+        bind.end();
+        if (bind.shouldCommit()) {
+            bind.path = file.getPath();
+            bind.bound = bound;
+            bind.skipped = skipped;
+            bind.mismatched = mismatched;
+            bind.commit();
+        }
+    }
+
+    @NotNull
+    static Object beginRender() {
+        RenderEvent event = new RenderEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitRender(@Nullable Object event, @NotNull File file, int bytes) {
+        RenderEvent render = (RenderEvent) event;
+        render.end();
+        if (render.shouldCommit()) {
+            render.path = file.getPath();
+            render.bytes = bytes;
+            render.commit();
+        }
+    }
+
+    @NotNull
+    static Object beginWrite() {
+        WriteEvent event = new WriteEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitWrite(@Nullable Object event, @NotNull File file, int bytes, boolean written) {
+        WriteEvent write = (WriteEvent) event;
+        write.end();
+        if (write.shouldCommit()) {
+            write.path = file.getPath();
+            write.bytes = bytes;
+            write.written = written;
+            write.commit();
+        }
+    }
+
+    @Name("de.articdive.annotatedconfig.Parse")
+    @Label("Configuration Parse")
+    @Description("A configuration file was read")
+    @Category("AnnotatedConfig")
+    static final class ParseEvent extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("Size")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("de.articdive.annotatedconfig.Bind")
+    @Label("Configuration Bind")
+    @Description("The values read from a configuration file were bound to its properties")
+    @Category("AnnotatedConfig")
+    static final class BindEvent extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("Bound Properties")
+        int bound;
+
+        @Label("Skipped Properties")
+        @Description("Properties missing from the file")
+        int skipped;
+
+        @Label("Mismatched Properties")
+        @Description("Properties whose value in the file didn't fit their type")
+        int mismatched;
+    }
+
+    @Name("de.articdive.annotatedconfig.Render")
+    @Label("Configuration Render")
+    @Description("A configuration was rendered to be saved")
+    @Category("AnnotatedConfig")
+    static final class RenderEvent extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("Size")
+        @DataAmount
+        int bytes;
+    }
+
+    @Name("de.articdive.annotatedconfig.Write")
+    @Label("Configuration Write")
+    @Description("A rendered configuration was compared to its file and written if it changed")
+    @Category("AnnotatedConfig")
+    static final class WriteEvent extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("Size")
+        @DataAmount
+        int bytes;
+
+        @Label("Written")
+        boolean written;
+    }
+}
@@ -20,26 +20,26 @@ package de.articdive.annotatedconfig.impl;
 
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigList;
 import com.typesafe.config.ConfigObject;
 import com.typesafe.config.ConfigOriginFactory;
 import com.typesafe.config.ConfigRenderOptions;
+import com.typesafe.config.ConfigUtil;
 import com.typesafe.config.ConfigValue;
 import com.typesafe.config.ConfigValueFactory;
 import com.typesafe.config.ConfigValueType;
-import de.articdive.annotatedconfig.annotations.Comment;
-import de.articdive.annotatedconfig.annotations.Property;
-import de.articdive.annotatedconfig.annotations.Section;
+import com.typesafe.config.parser.ConfigDocument;
+import com.typesafe.config.parser.ConfigDocumentFactory;
+import de.articdive.annotatedconfig.accessor.ArrayBuilder;
+import de.articdive.annotatedconfig.accessor.ValueBinder;
 import de.articdive.annotatedconfig.api.Configuration;
-import de.articdive.annotatedconfig.exceptions.ConfigLoadException;
-import de.articdive.annotatedconfig.exceptions.ConfigSaveException;
+import de.articdive.annotatedconfig.schema.PropertySchema;
+import de.articdive.annotatedconfig.schema.SectionSchema;
 
-import java.io.BufferedWriter;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.lang.reflect.Field;
-import java.nio.charset.StandardCharsets;
+import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -47,6 +47,11 @@ public abstract class HoconConfiguration extends Configuration {
     protected Config config = ConfigFactory.empty();
     protected ConfigRenderOptions renderOptions = ConfigRenderOptions.defaults()
         .setComments(true).setFormatted(true).setOriginComments(false);
+    private volatile RenderedOutput renderedOutput;
+    private volatile boolean parsed = true;
+    // The document of the last patch and its text, it is reused while the file keeps that text.
+    private ConfigDocument document;
+    private String documentText;
 
     @Override
     public final void load() {
@@ -56,244 +61,279 @@ public abstract class HoconConfiguration extends Configuration {
         }
 
         config = ConfigFactory.parseFile(file);
+        parsed = true;
+        recordParsed();
 
-        for (Map.Entry<Class<?>, List<Field>> entry : fieldMap.entrySet()) {
-            Class<?> section = entry.getKey();
-            List<Field> properties = entry.getValue();
+        BitSet bound = new BitSet();
+        int mismatched = loadSection(schema.getRoot(), config.root(), bound);
+        recordBound(bound, mismatched);
+    }
 
-            String sectionPath = getSectionPath(section);
+    @Override
+    protected void loadedFromCache() {
+        // The file is only parsed once its output is needed.
+        parsed = false;
+    }
 
-            Object setObject = objectMap.get(section);
+    /**
+     * @return the number of properties whose value didn't fit their type.
+     */
+    private int loadSection(SectionSchema section, ConfigObject configObject, BitSet bound) {
+        Object setObject = objectMap.get(section.getType());
+
+        int mismatched = 0;
+        for (PropertySchema propertySchema : section.getProperties()) {
+            ConfigValue value = getValue(configObject, propertySchema.getKeyTokens());
+            if (value == null) {
+                continue;
+            }
+            if (loadProperty(propertySchema, setObject, value)) {
+                bound.set(propertySchema.getIndex());
+            } else {
+                mismatched++;
+            }
+        }
 
-            // If the file has any content, we parse it and set the properties correspondingly.
-            for (Field property : properties) {
-                String path = property.getAnnotation(Property.class).value();
-                if (!sectionPath.isEmpty()) {
-                    path = sectionPath + "." + path;
-                }
+        // A section missing from the file keeps its defaults, so do all of its children.
+        for (SectionSchema child : section.getChildren()) {
+            ConfigValue value = getValue(configObject, child.getKeyTokens());
+            if (value != null && value.valueType() == ConfigValueType.OBJECT) {
+                mismatched += loadSection(child, (ConfigObject) value, bound);
+            }
+        }
+        return mismatched;
+    }
 
-                ConfigValue value = null;
-                if (config.hasPathOrNull(path)) {
-                    String[] keys = path.split("\\.");
-                    ConfigObject tempConfigObject = config.root();
+    private static ConfigValue getValue(ConfigObject configObject, List<String> keys) {
+        ConfigValue value = configObject;
+        for (String key : keys) {
+            if (value.valueType() != ConfigValueType.OBJECT) {
+                return null;
+            }
+            value = ((ConfigObject) value).get(key);
+            if (value == null) {
+                return null;
+            }
+        }
+        return value;
+    }
 
-                    for (String key : keys) {
-                        value = tempConfigObject.get(key);
-                        if (value.valueType() == ConfigValueType.OBJECT) {
-                            tempConfigObject = (ConfigObject) tempConfigObject.get(key);
-                        }
-                    }
+    private boolean loadProperty(PropertySchema propertySchema, Object setObject, ConfigValue value) {
+        // The binder was chosen for the property's type with the schema, primitives are set without boxing.
+        ValueBinder binder = propertySchema.getBinder();
+        switch (value.valueType()) {
+            case STRING: {
+                return binder.bindString(setObject, (String) value.unwrapped());
+            }
+            case BOOLEAN: {
+                return binder.bindBoolean(setObject, (Boolean) value.unwrapped());
+            }
+            case NUMBER: {
+                // Integral numbers are parsed as integers or longs in Hocon, everything else as doubles.
+                Number number = (Number) value.unwrapped();
+                if (number instanceof Integer || number instanceof Long) {
+                    return binder.bindLong(setObject, number.longValue());
                 }
-                if (value == null) {
-                    continue;
+                return binder.bindDouble(setObject, number.doubleValue());
+            }
+            case NULL: {
+                return binder.bindNull(setObject);
+            }
+            case LIST: {
+                // Array properties take the elements directly, without unwrapping the list first.
+                ArrayBuilder array = binder.newArray();
+                if (array == null) {
+                    return binder.bindObject(setObject, value.unwrapped());
                 }
-
-                // It does, so we can try to parse it.
-                boolean attemptAccess = false;
-
-                // Floats are parsed by a double in Hocon.
-                // Shorts and bytes are parsed by an integer in Hocon.
-                // therefore we need to know when to use a valueOf.
-                boolean isFloat = false;
-                boolean isShort = false;
-                boolean isByte = false;
-
-
-                switch (value.valueType()) {
-                    case STRING: {
-                        attemptAccess = property.getType().isAssignableFrom(String.class);
-                        break;
-                    }
-                    case BOOLEAN: {
-                        attemptAccess = property.getType().isAssignableFrom(boolean.class);
-                        break;
-                    }
-                    case NUMBER: {
-                        Class<?> propertyType = property.getType();
-                        if (propertyType.isPrimitive()) {
-                            if (propertyType.isAssignableFrom(double.class) ||
-                                propertyType.isAssignableFrom(Double.class)) {
-
-                                attemptAccess = true;
-                            } else if (propertyType.isAssignableFrom(int.class) ||
-                                propertyType.isAssignableFrom(Integer.class)) {
-
-                                attemptAccess = true;
-                            } else if (propertyType.isAssignableFrom(long.class) ||
-                                propertyType.isAssignableFrom(Long.class)) {
-
-                                attemptAccess = true;
-                            } else if (propertyType.isAssignableFrom(byte.class) ||
-                                propertyType.isAssignableFrom(Byte.class)) {
-
-                                isByte = true;
-                                attemptAccess = true;
-                            } else if (propertyType.isAssignableFrom(short.class) ||
-                                propertyType.isAssignableFrom(Short.class)) {
-
-                                isShort = true;
-                                attemptAccess = true;
-                            } else if (propertyType.isAssignableFrom(float.class) ||
-                                propertyType.isAssignableFrom(Float.class)) {
-
-                                isFloat = true;
-                                attemptAccess = true;
-                            }
-                        } else {
-                            attemptAccess = propertyType.isAssignableFrom(Number.class);
-                        }
-                        break;
-                    }
-                    case NULL: {
-                        // Do not attempt access if it is primitive
-                        attemptAccess = !property.getType().isPrimitive();
-                        break;
-                    }
-                    case LIST:
-                    case OBJECT: {
-                        attemptAccess = property.getType().isAssignableFrom(value.unwrapped().getClass());
-                        break;
-                    }
+                for (ConfigValue item : (ConfigList) value) {
+                    addItem(array, item);
                 }
-                if (attemptAccess) {
-                    if (!property.isAccessible()) {
-                        property.setAccessible(true);
-                    }
+                return array.bind(setObject);
+            }
+            default: {
+                return binder.bindObject(setObject, value.unwrapped());
+            }
+        }
+    }
 
-                    try {
-                        if (isFloat) {
-                            property.set(setObject, Float.valueOf(String.valueOf(value.unwrapped())));
-                        } else if (isByte) {
-                            property.set(setObject, Byte.valueOf(String.valueOf(value.unwrapped())));
-                        } else if (isShort) {
-                            property.set(setObject, Short.valueOf(String.valueOf(value.unwrapped())));
-                        } else {
-                            property.set(setObject, value.unwrapped());
-                        }
-                    } catch (IllegalAccessException e) {
-                        // Shouldn't happen.
-                        throw new ConfigLoadException(
-                            String.format("Failed to access the property %s", property.getName()),
-                            e
-                        );
-                    }
+    private static void addItem(ArrayBuilder array, ConfigValue item) {
+        switch (item.valueType()) {
+            case STRING: {
+                array.addString((String) item.unwrapped());
+                break;
+            }
+            case BOOLEAN: {
+                array.addBoolean((Boolean) item.unwrapped());
+                break;
+            }
+            case NUMBER: {
+                Number number = (Number) item.unwrapped();
+                if (number instanceof Integer || number instanceof Long) {
+                    array.addLong(number.longValue());
+                } else {
+                    array.addDouble(number.doubleValue());
                 }
+                break;
+            }
+            case NULL: {
+                array.addNull();
+                break;
+            }
+            default: {
+                array.addObject(item.unwrapped());
             }
         }
     }
 
     @Override
-    public final void save() {
-        // Just a failsafe to ensure the file is valid.
-        if (!file.exists()) {
-            handleFileCreation();
-        }
-
+    protected final String render() {
         // We should reset the config, it shouldn't be being accessed anyway.
         config = ConfigFactory.parseFile(file);
 
-        // Iterate the properties and set comments as well.
-        for (Map.Entry<Class<?>, List<Field>> entry : fieldMap.entrySet()) {
-            Class<?> section = entry.getKey();
-            List<Field> properties = entry.getValue();
+        // Build the whole tree in one pass, keeping the comments and unknown keys of the current file.
+        config = saveSection(schema.getRoot(), config.root()).toConfig();
+        parsed = true;
 
-            String sectionPath = "";
-            boolean root = !section.isAnnotationPresent(Section.class);
+        RenderedOutput rendered = new RenderedOutput(config, renderOptions);
+        renderedOutput = rendered;
+        return rendered.output;
+    }
 
-            // Root configs don't support comments
-            if (!root) {
-                Class<?> tempClass = section;
-                while (tempClass.isMemberClass()) {
-                    sectionPath = tempClass.getAnnotation(Section.class).value() + "." + sectionPath;
-                    tempClass = tempClass.getDeclaringClass();
-                }
-                sectionPath = sectionPath.substring(0, sectionPath.length() - 1);
-                // Root cannot have comments
-                ConfigValue configSection;
-                List<String> sectionComments = new ArrayList<>();
-                if (config.hasPath(sectionPath)) {
-                    sectionComments = config.getValue(sectionPath).origin().comments();
-                    configSection = config.getValue(sectionPath);
-                } else {
-                    Comment[] annotatedComments = section.getAnnotationsByType(Comment.class);
-                    for (Comment annotatedComment : annotatedComments) {
-                        sectionComments.add(annotatedComment.value());
-                    }
-                    configSection = ConfigFactory.empty().root();
-                }
-                config = config.withValue(
-                    sectionPath,
-                    configSection.withOrigin(ConfigOriginFactory.newSimple().withComments(sectionComments))
-                );
-            }
+    private ConfigObject saveSection(SectionSchema section, ConfigObject existingObject) {
+        Map<String, ConfigValue> values = new LinkedHashMap<>();
+        if (existingObject != null) {
+            values.putAll(existingObject);
+        }
 
-            Object getObject = objectMap.get(section);
+        Object getObject = objectMap.get(section.getType());
+
+        for (PropertySchema propertySchema : section.getProperties()) {
+            // Get the comments (Copy from the current config if it exists, else from annotations).
+            List<String> comments;
+            ConfigValue existingValue = existingObject == null ? null
+                : getValue(existingObject, propertySchema.getKeyTokens());
+            if (existingValue != null) {
+                comments = existingValue.origin().comments();
+            } else {
+                comments = propertySchema.getComments();
+            }
 
-            // If the file has any content, we parse it and set the properties correspondingly.
-            for (Field property : properties) {
-                String path = property.getAnnotation(Property.class).value();
+            putValue(
+                values,
+                propertySchema.getKeyTokens(),
+                ConfigValueFactory.fromAnyRef(toAnyRef(propertySchema.getBinder().read(getObject)))
+                    .withOrigin(ConfigOriginFactory.newSimple().withComments(comments))
+            );
+        }
 
-                if (!root) {
-                    path = sectionPath + "." + path;
-                }
+        for (SectionSchema child : section.getChildren()) {
+            ConfigValue existingValue = existingObject == null ? null
+                : getValue(existingObject, child.getKeyTokens());
+            ConfigObject existingChild = null;
+            List<String> comments;
+            if (existingValue != null && existingValue.valueType() == ConfigValueType.OBJECT) {
+                existingChild = (ConfigObject) existingValue;
+                comments = existingChild.origin().comments();
+            } else {
+                comments = child.getComments();
+            }
 
-                // Get the comments (Copy from the current config if it exists, else from annotations).
-                List<String> comments = new ArrayList<>();
-                if (config.hasPathOrNull(path)) {
-                    String[] keys = path.split("\\.");
-                    ConfigValue value = null;
-                    ConfigObject configObject = config.root();
+            putValue(
+                values,
+                child.getKeyTokens(),
+                saveSection(child, existingChild)
+                    .withOrigin(ConfigOriginFactory.newSimple().withComments(comments))
+            );
+        }
 
-                    for (String key : keys) {
-                        value = configObject.get(key);
-                        if (value.valueType() == ConfigValueType.OBJECT) {
-                            configObject = (ConfigObject) configObject.get(key);
-                        }
-                    }
-                    if (value == null) {
-                        continue;
-                    }
-                    comments = value.origin().comments();
-                } else {
-                    Comment[] annotatedComments = property.getAnnotationsByType(Comment.class);
-                    for (Comment annotatedComment : annotatedComments) {
-                        comments.add(annotatedComment.value());
-                    }
-                }
+        return ConfigValueFactory.fromMap(values);
+    }
 
-                if (!property.isAccessible()) {
-                    property.setAccessible(true);
-                }
+    @Override
+    protected final String patch(String text, List<PropertySchema> changed) {
+        // The document keeps the whitespace and comments of the file, replacing a value only changes its text.
+        ConfigDocument document = text.equals(documentText) ? this.document : ConfigDocumentFactory.parseString(text);
+        for (PropertySchema propertySchema : changed) {
+            Object value = propertySchema.getBinder().read(objectMap.get(propertySchema.getSection().getType()));
+            // The document indents values rendered on several lines to the depth of their key.
+            document = document.withValueText(
+                ConfigUtil.joinPath(propertySchema.getPathTokens()),
+                ConfigValueFactory.fromAnyRef(toAnyRef(value)).render(renderOptions.setComments(false))
+            );
+        }
+        String patched = document.render();
+        this.document = document;
+        this.documentText = patched;
+        // The config is parsed from the file again once its output is needed.
+        parsed = false;
+        return patched;
+    }
 
-                try {
-                    // Set the value into the config.
-                    config = config.withValue(
-                        path,
-                        ConfigValueFactory.fromAnyRef(property.get(getObject))
-                            .withOrigin(ConfigOriginFactory.newSimple().withComments(comments))
-                    );
-                } catch (IllegalAccessException e) {
-                    // Shouldn't happen.
-                    throw new ConfigSaveException(
-                        String.format("Failed to access the property %s", property.getName()),
-                        e
-                    );
-                }
-            }
+    /**
+     * Hocon can't represent arrays, they are saved as lists.
+     */
+    private static Object toAnyRef(Object value) {
+        if (value == null || !value.getClass().isArray()) {
+            return value;
         }
+        int length = Array.getLength(value);
+        List<Object> list = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            list.add(Array.get(value, i));
+        }
+        return list;
+    }
 
-        // Output to file
-        try (BufferedWriter writer = new BufferedWriter(
-            new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)
-        )) {
-            writer.write(config.root().render(renderOptions));
-        } catch (IOException e) {
-            throw new ConfigSaveException("Failed to save configuration to file.", e);
+    private static void putValue(Map<String, ConfigValue> values, List<String> keys, ConfigValue value) {
+        if (keys.size() == 1) {
+            values.put(keys.get(0), value);
+            return;
         }
+        // Keys containing dots are rare, nest them into the existing object.
+        ConfigValue parent = values.get(keys.get(0));
+        Config nested = parent != null && parent.valueType() == ConfigValueType.OBJECT
+            ? ((ConfigObject) parent).toConfig() : ConfigFactory.empty();
+        values.put(
+            keys.get(0),
+            nested.withValue(ConfigUtil.joinPath(keys.subList(1, keys.size())), value).root()
+        );
+    }
+
+    @Override
+    protected void copySettings(Configuration snapshot) {
+        ((HoconConfiguration) snapshot).renderOptions = renderOptions;
     }
 
     @Override
     public String strOutput() {
-        return config.root().render(renderOptions);
+        if (!parsed) {
+            synchronized (this) {
+                if (!parsed) {
+                    config = ConfigFactory.parseFile(file);
+                    parsed = true;
+                }
+            }
+        }
+        // The config and the options are immutable, the output stays valid until either of them is replaced.
+        Config config = this.config;
+        ConfigRenderOptions renderOptions = this.renderOptions;
+        RenderedOutput rendered = renderedOutput;
+        if (rendered == null || rendered.config != config || rendered.renderOptions != renderOptions) {
+            rendered = new RenderedOutput(config, renderOptions);
+            renderedOutput = rendered;
+        }
+        return rendered.output;
+    }
+
+    private static final class RenderedOutput {
+        private final Config config;
+        private final ConfigRenderOptions renderOptions;
+        private final String output;
+
+        private RenderedOutput(Config config, ConfigRenderOptions renderOptions) {
+            this.config = config;
+            this.renderOptions = renderOptions;
+            this.output = config.root().render(renderOptions);
+        }
     }
 }
@@ -16,18 +16,54 @@
  * along with this program.  If not, see <https://www.gnu.org/licenses/>.
  */
 
+import de.articdive.annotatedconfig.annotations.ParseCache;
+import de.articdive.annotatedconfig.annotations.Property;
+import de.articdive.annotatedconfig.api.ConfigLayers;
+import de.articdive.annotatedconfig.api.Configuration;
+import de.articdive.annotatedconfig.api.ConfigurationLoader;
+import de.articdive.annotatedconfig.api.LoadResult;
+import de.articdive.annotatedconfig.api.SaveDurability;
+import de.articdive.annotatedconfig.api.SaveResult;
+import de.articdive.annotatedconfig.converter.ConverterRegistry;
+import de.articdive.annotatedconfig.converter.ValueConverter;
+import de.articdive.annotatedconfig.exceptions.ConfigLoadException;
+import de.articdive.annotatedconfig.impl.HoconConfiguration;
+import de.articdive.annotatedconfig.metrics.ConfigMetrics;
+import de.articdive.annotatedconfig.metrics.LoadStats;
+import de.articdive.annotatedconfig.metrics.MetricsRegistry;
+import de.articdive.annotatedconfig.metrics.SaveStats;
+import de.articdive.annotatedconfig.schema.ConfigSchema;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class HoconConfigTests {
@@ -84,4 +120,697 @@ public class HoconConfigTests {
             assertTrue(loadConfig.booleanValue);
         });
     }
+
+    @Test
+    public void testHoconConfigSchemaCache() {
+        ConfigSchema schema = ConfigSchema.of(HoconConfig.class);
+
+        Assertions.assertAll(() ->
+        {
+            assertSame(schema, ConfigSchema.of(HoconConfig.class));
+            assertEquals(5, schema.getSections().size());
+            assertEquals(9, schema.getProperties().size());
+            assertEquals("a.b.c", schema.getSection(HoconConfig.SectionA.SectionB.SectionC.class).getPath());
+        });
+    }
+
+    @Test
+    public void testHoconConfigUnchangedSave() {
+        File file = new File(temporaryDirectory + File.separator + "unchanged.conf");
+        HoconConfig config = HoconConfig.createConfiguration(file, HoconConfig.class);
+        assertTrue(file.setLastModified(0));
+
+        Assertions.assertAll(() ->
+        {
+            assertEquals(SaveResult.UNCHANGED, config.save());
+            assertEquals(0, file.lastModified());
+            config.intValue = 7;
+            assertEquals(SaveResult.WRITTEN, config.save());
+            assertEquals(SaveResult.UNCHANGED, config.save());
+            config.setSkipUnchangedWrites(false);
+            assertEquals(SaveResult.WRITTEN, config.save());
+        });
+    }
+
+    @Test
+    public void testHoconConfigAtomicSave() {
+        File file = new File(temporaryDirectory + File.separator + "atomic.conf");
+        HoconConfig config = HoconConfig.createConfiguration(file, HoconConfig.class);
+
+        Assertions.assertAll(() ->
+        {
+            for (SaveDurability durability : SaveDurability.values()) {
+                config.setSaveDurability(durability);
+                config.intValue++;
+                assertEquals(SaveResult.WRITTEN, config.save());
+                assertEquals(config.strOutput(), new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+            }
+            // The temporary files were all moved over the configuration.
+            assertArrayEquals(new String[]{"atomic.conf"}, temporaryDirectory.list());
+        });
+    }
+
+    @Test
+    public void testHoconConfigLinkedSave() throws IOException {
+        Assumptions.assumeTrue(File.separatorChar == '/');
+        File directory = new File(temporaryDirectory, "linked");
+        Assertions.assertTrue(directory.mkdir());
+        File file = new File(directory, "target.conf");
+        HoconConfig.createConfiguration(file, HoconConfig.class);
+        Path link = Files.createSymbolicLink(new File(temporaryDirectory, "link.conf").toPath(), file.toPath());
+        HoconConfig config = HoconConfig.createConfiguration(link.toFile(), HoconConfig.class);
+        config.intValue = 5;
+        config.save();
+
+        Assertions.assertAll(() ->
+        {
+            // The link stays in place, the file it points to is replaced.
+            assertTrue(Files.isSymbolicLink(link));
+            String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+            assertTrue(content.contains("\"integer\" : 5"));
+            assertArrayEquals(new String[]{"target.conf"}, directory.list());
+        });
+    }
+
+    @Test
+    public void testHoconConfigStaticProperty() throws IOException {
+        File file = new File(temporaryDirectory + File.separator + "static.conf");
+        Files.write(file.toPath(), "static = 5\ninteger = 3".getBytes(StandardCharsets.UTF_8));
+        StaticConfig config = StaticConfig.createConfiguration(file, StaticConfig.class);
+        int loaded = StaticConfig.staticValue;
+        StaticConfig.staticValue = 6;
+        config.save();
+        String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+
+        Assertions.assertAll(() ->
+        {
+            assertEquals(5, loaded);
+            assertEquals(3, config.intValue);
+            assertEquals("static = 6\ninteger = 3", content);
+        });
+    }
+
+    public static class StaticConfig extends HoconConfiguration {
+        @Property("static")
+        public static int staticValue = 1;
+
+        @Property("integer")
+        public int intValue = 1;
+    }
+
+    @Test
+    public void testHoconConfigReload() throws IOException, InterruptedException {
+        File file = new File(temporaryDirectory + File.separator + "reload.conf");
+        HoconConfig config = HoconConfig.createConfiguration(file, HoconConfig.class);
+        List<String> changes = new CopyOnWriteArrayList<>();
+        CountDownLatch reloaded = new CountDownLatch(1);
+        config.addChangeListener("integer", (path, oldValue, newValue) -> changes.add(path + "=" + newValue));
+        config.addChangeListener("a.b", (path, oldValue, newValue) -> {
+            changes.add(path + ":" + oldValue + "->" + newValue);
+            reloaded.countDown();
+        });
+
+        config.startWatching(200);
+        try {
+            String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+            Files.write(file.toPath(), content.replace("\"integer\" : 1", "\"integer\" : 2")
+                .getBytes(StandardCharsets.UTF_8));
+            Files.write(file.toPath(), content.replace("\"integer\" : 1", "\"integer\" : 3")
+                .replace("Samuel", "Sam").getBytes(StandardCharsets.UTF_8));
+            assertTrue(reloaded.await(30, TimeUnit.SECONDS));
+        } finally {
+            config.stopWatching();
+        }
+
+        // Both writes were debounced into a single reload.
+        assertEquals(Arrays.asList("integer=3", "a.b.d.name:Samuel->Sam"), changes);
+        assertEquals(3, config.intValue);
+    }
+
+    @Test
+    public void testHoconConfigSnapshotReload() throws IOException {
+        File file = new File(temporaryDirectory + File.separator + "snapshot.conf");
+        HoconConfig config = HoconConfig.createConfiguration(file, HoconConfig.class);
+        config.setSnapshotMode(true);
+        List<Object> changes = new ArrayList<>();
+        config.addChangeListener("integer", (path, oldValue, newValue) -> changes.add(newValue));
+
+        HoconConfig first = config.snapshot();
+        String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        Files.write(file.toPath(), content.replace("\"integer\" : 1", "\"integer\" : 5")
+            .getBytes(StandardCharsets.UTF_8));
+        config.reload();
+        HoconConfig second = config.snapshot();
+
+        Assertions.assertAll(() ->
+        {
+            assertSame(config, first);
+            assertNotSame(first, second);
+            // The previous snapshot was not touched by the reload.
+            assertEquals(1, first.intValue);
+            assertEquals(5, second.intValue);
+            assertEquals(Collections.singletonList(5), changes);
+            assertEquals(SaveResult.UNCHANGED, config.save());
+        });
+    }
+
+    @Test
+    public void testHoconConfigOutputCache() throws IOException {
+        File file = new File(temporaryDirectory + File.separator + "output.conf");
+        HoconConfig config = HoconConfig.createConfiguration(file, HoconConfig.class);
+
+        String output = config.strOutput();
+        StringBuilder builder = new StringBuilder();
+        config.writeOutput(builder);
+        Assertions.assertAll(() ->
+        {
+            // The output is rendered once, until the configuration is loaded again.
+            assertSame(output, config.strOutput());
+            assertSame(output, config.getOutput());
+            assertEquals(output, builder.toString());
+            config.reload();
+            assertNotSame(output, config.strOutput());
+            assertEquals(output, config.strOutput());
+        });
+    }
+
+    @Test
+    public void testHoconConfigConverters() throws IOException {
+        File file = new File(temporaryDirectory + File.separator + "converters.conf");
+        Files.write(file.toPath(), String.join("\n",
+            "boxed = 7",
+            "short = 300",
+            "byte = 1000",
+            "float = 1.25",
+            "narrowed = 3.0",
+            "duration = PT10S",
+            "unit = seconds",
+            "path = a/b"
+        ).getBytes(StandardCharsets.UTF_8));
+        ConverterRegistry.register(Duration.class, new ValueConverter<Duration>() {
+            @Override
+            public Duration read(Object value) {
+                return Duration.parse(value.toString());
+            }
+
+            @Override
+            public Object write(Duration value) {
+                return value.toString();
+            }
+        });
+        ConverterRegistry.register(Path.class, new ValueConverter<Path>() {
+            @Override
+            public Path read(Object value) {
+                return Paths.get(value.toString());
+            }
+
+            @Override
+            public Object write(Path value) {
+                return value.toString().replace(File.separatorChar, '/');
+            }
+        });
+        TypesConfig config;
+        try {
+            config = TypesConfig.createConfiguration(file, TypesConfig.class);
+        } finally {
+            ConverterRegistry.unregister(Duration.class);
+            ConverterRegistry.unregister(Path.class);
+        }
+
+        String output = config.strOutput();
+        Assertions.assertAll(() ->
+        {
+            assertEquals(Integer.valueOf(7), config.boxed);
+            assertEquals(300, config.shortValue);
+            // A number that doesn't fit the property is ignored.
+            assertEquals(5, config.byteValue);
+            assertEquals(1.25F, config.floatValue);
+            assertEquals(3, config.narrowed);
+            assertEquals(Duration.ofSeconds(10), config.duration);
+            assertEquals(TimeUnit.SECONDS, config.unit);
+            assertEquals(Paths.get("a", "b"), config.path);
+            assertTrue(output.contains("\"duration\" : \"PT10S\""));
+            assertTrue(output.contains("\"unit\" : \"SECONDS\""));
+        });
+    }
+
+    public static class TypesConfig extends HoconConfiguration {
+        @Property("boxed")
+        public Integer boxed;
+
+        @Property("short")
+        public short shortValue;
+
+        @Property("byte")
+        public byte byteValue = 5;
+
+        @Property("float")
+        public float floatValue;
+
+        @Property("narrowed")
+        public int narrowed;
+
+        @Property("duration")
+        public Duration duration;
+
+        @Property("unit")
+        public TimeUnit unit = TimeUnit.MILLISECONDS;
+
+        @Property("path")
+        public Path path;
+    }
+
+    @Test
+    public void testHoconConfigLoader() throws IOException {
+        File broken = new File(temporaryDirectory + File.separator + "broken.conf");
+        Files.write(broken.toPath(), "integer = {".getBytes(StandardCharsets.UTF_8));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<LoadResult<?>> results;
+        LoadResult<HoconConfig> first;
+        try {
+            ConfigurationLoader loader = new ConfigurationLoader(executor, 2);
+            first = loader.add(new File(temporaryDirectory + File.separator + "loader0.conf"), HoconConfig.class);
+            for (int i = 1; i < 16; i++) {
+                loader.add(new File(temporaryDirectory + File.separator + "loader" + i + ".conf"), HoconConfig.class);
+            }
+            loader.add(broken, HoconConfig.class);
+            results = loader.loadAll();
+            assertTrue(loader.loadAll().isEmpty());
+        } finally {
+            executor.shutdown();
+        }
+
+        Assertions.assertAll(() ->
+        {
+            assertEquals(17, results.size());
+            assertSame(first, results.get(0));
+            assertEquals(1.11, first.get().doubleValue);
+            for (int i = 0; i < 16; i++) {
+                assertTrue(results.get(i).isSuccess());
+                assertTrue(new File(temporaryDirectory + File.separator + "loader" + i + ".conf").isFile());
+            }
+            // A failed configuration keeps its error without failing the others.
+            LoadResult<?> failed = results.get(16);
+            assertFalse(failed.isSuccess());
+            assertSame(broken, failed.getFile());
+            assertNotNull(failed.getError());
+            assertThrows(ConfigLoadException.class, failed::get);
+        });
+    }
+
+    @Test
+    public void testHoconConfigMetrics() throws IOException {
+        File file = new File(temporaryDirectory + File.separator + "metrics.conf");
+        Files.write(file.toPath(), "boolean = true\ninteger = \"abc\"\nlong = 5\n".getBytes(StandardCharsets.UTF_8));
+        long size = file.length();
+        List<LoadStats> loads = new ArrayList<>();
+        List<SaveStats> saves = new ArrayList<>();
+        ConfigMetrics metrics = new ConfigMetrics() {
+            @Override
+            public void loaded(Configuration config, LoadStats stats) {
+                loads.add(stats);
+            }
+
+            @Override
+            public void saved(Configuration config, SaveStats stats) {
+                saves.add(stats);
+            }
+        };
+        MetricsRegistry.register(metrics);
+        HoconConfig config;
+        try {
+            config = HoconConfig.createConfiguration(file, HoconConfig.class);
+            config.save();
+        } finally {
+            MetricsRegistry.unregister(metrics);
+        }
+        config.save();
+
+        Assertions.assertAll(() ->
+        {
+            assertEquals(1, loads.size());
+            LoadStats load = loads.get(0);
+            assertFalse(load.isFromCache());
+            assertEquals(size, load.getBytesRead());
+            assertEquals(2, load.getBoundProperties());
+            // The string can't be bound to the integer, which keeps its default.
+            assertEquals(1, load.getMismatchedProperties());
+            assertEquals(1, config.intValue);
+            assertEquals(
+                ConfigSchema.of(HoconConfig.class).getProperties().size() - 3, load.getSkippedProperties()
+            );
+            assertTrue(load.getParseNanos() > 0 && load.getBindNanos() > 0);
+
+            assertEquals(2, saves.size());
+            assertEquals(SaveResult.WRITTEN, saves.get(0).getResult());
+            assertEquals(file.length(), saves.get(0).getBytesWritten());
+            assertEquals(SaveResult.UNCHANGED, saves.get(1).getResult());
+            assertEquals(0, saves.get(1).getBytesWritten());
+        });
+    }
+
+    @Test
+    public void testHoconConfigArrays() throws IOException {
+        File file = new File(temporaryDirectory + File.separator + "arrays.conf");
+        Files.write(file.toPath(), String.join("\n",
+            "ints = [1, 2, 3]",
+            "longs = [5000000000, -1]",
+            "doubles = [1, 2.5]",
+            "bytes = [-128, 127]",
+            "strings = [a, \"b c\"]",
+            "mismatched = [1, 1.5]"
+        ).getBytes(StandardCharsets.UTF_8));
+        ArraysConfig config = ArraysConfig.createConfiguration(file, ArraysConfig.class);
+        // The arrays are bound from the parse cache.
+        ArraysConfig cached = ArraysConfig.createConfiguration(file, ArraysConfig.class);
+
+        Assertions.assertAll(() ->
+        {
+            assertArrayEquals(new int[]{1, 2, 3}, config.ints);
+            assertArrayEquals(new long[]{5000000000L, -1}, config.longs);
+            assertArrayEquals(new double[]{1, 2.5}, config.doubles);
+            assertArrayEquals(new byte[]{-128, 127}, config.bytes);
+            assertArrayEquals(new String[]{"a", "b c"}, config.strings);
+            // 1.5 doesn't fit an int, the array keeps its value.
+            assertArrayEquals(new int[]{7}, config.mismatched);
+            assertArrayEquals(config.ints, cached.ints);
+            assertArrayEquals(config.bytes, cached.bytes);
+            assertArrayEquals(config.strings, cached.strings);
+            // The written arrays are read back unchanged.
+            config.reload();
+            assertEquals(SaveResult.UNCHANGED, config.save());
+            assertArrayEquals(new long[]{5000000000L, -1}, config.longs);
+            assertArrayEquals(new String[]{"a", "b c"}, config.strings);
+        });
+    }
+
+    @ParseCache
+    public static class ArraysConfig extends HoconConfiguration {
+        @Property("ints")
+        public int[] ints = {0};
+
+        @Property("longs")
+        public long[] longs;
+
+        @Property("doubles")
+        public double[] doubles;
+
+        @Property("bytes")
+        public byte[] bytes;
+
+        @Property("strings")
+        public String[] strings;
+
+        @Property("mismatched")
+        public int[] mismatched = {7};
+    }
+
+    @Test
+    public void testHoconConfigSaveAsync() throws Exception {
+        File file = new File(temporaryDirectory + File.separator + "async.conf");
+        HoconConfig config = HoconConfig.createConfiguration(file, HoconConfig.class);
+        config.setSaveWindow(200);
+        List<CompletableFuture<SaveResult>> saves = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            config.intValue = i;
+            saves.add(config.saveAsync());
+        }
+        SaveResult result = saves.get(0).get(10, TimeUnit.SECONDS);
+        String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        config.intValue = 42;
+        CompletableFuture<SaveResult> next = config.saveAsync();
+        next.get(10, TimeUnit.SECONDS);
+
+        HoconConfig loaded = HoconConfig.createConfiguration(file, HoconConfig.class);
+
+        // A save held up by its configuration doesn't hold up the saves of other configurations.
+        HoconConfig other = HoconConfig.createConfiguration(
+            new File(temporaryDirectory + File.separator + "async-other.conf"), HoconConfig.class
+        );
+        config.setSaveWindow(0);
+        other.setSaveWindow(0);
+        CompletableFuture<SaveResult> blocked;
+        SaveResult otherResult;
+        boolean blockedDone;
+        synchronized (config) {
+            config.intValue = 43;
+            blocked = config.saveAsync();
+            Thread.sleep(100);
+            other.intValue = 7;
+            otherResult = other.saveAsync().get(10, TimeUnit.SECONDS);
+            blockedDone = blocked.isDone();
+        }
+        SaveResult blockedResult = blocked.get(10, TimeUnit.SECONDS);
+        Assertions.assertAll(() ->
+        {
+            assertEquals(SaveResult.WRITTEN, otherResult);
+            assertFalse(blockedDone);
+            assertEquals(SaveResult.WRITTEN, blockedResult);
+            // The burst was merged into one save, which wrote the last value.
+            for (CompletableFuture<SaveResult> save : saves) {
+                assertSame(saves.get(0), save);
+            }
+            assertEquals(SaveResult.WRITTEN, result);
+            assertTrue(content.contains("\"integer\" : 9"));
+            // A call after the write started gets a save of its own.
+            assertNotSame(saves.get(0), next);
+            assertEquals(42, loaded.intValue);
+        });
+    }
+
+    @Test
+    public void testHoconConfigAsync() throws Exception {
+        File file = new File(temporaryDirectory + File.separator + "async-create.conf");
+        HoconConfig config = HoconConfig.createConfigurationAsync(file, HoconConfig.class).get(10, TimeUnit.SECONDS);
+        String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        Files.write(file.toPath(), content.replace("\"integer\" : 1", "\"integer\" : 5")
+            .getBytes(StandardCharsets.UTF_8));
+        config.reloadAsync().get(10, TimeUnit.SECONDS);
+
+        File broken = new File(temporaryDirectory + File.separator + "async-broken.conf");
+        Files.write(broken.toPath(), "integer = {".getBytes(StandardCharsets.UTF_8));
+        CompletableFuture<HoconConfig> failed = HoconConfig.createConfigurationAsync(
+            broken, false, null, HoconConfig.class, Runnable::run
+        );
+        Assertions.assertAll(() ->
+        {
+            assertEquals(5, config.intValue);
+            assertTrue(failed.isCompletedExceptionally());
+        });
+    }
+
+    @Test
+    public void testHoconConfigLayers() throws IOException {
+        File defaults = new File(temporaryDirectory + File.separator + "layers-defaults.conf");
+        Files.write(defaults.toPath(), "double = 2.5\ninteger = 2".getBytes(StandardCharsets.UTF_8));
+        File file = new File(temporaryDirectory + File.separator + "layers.conf");
+        Files.write(file.toPath(), "integer = 3\nlong = 4".getBytes(StandardCharsets.UTF_8));
+        File override = new File(temporaryDirectory + File.separator + "layers-override.conf");
+        Files.write(override.toPath(), "integer = 7".getBytes(StandardCharsets.UTF_8));
+
+        System.setProperty("layers.long", "9");
+        System.setProperty("layers.double", "5.5");
+        HoconConfig config;
+        int overridden;
+        double overriddenDouble;
+        try {
+            config = ConfigLayers.of(file, HoconConfig.class)
+                .defaults(defaults.toURI().toURL())
+                .override(override)
+                .systemProperties("layers.")
+                .create();
+            overridden = config.intValue;
+            overriddenDouble = config.doubleValue;
+            Files.write(override.toPath(), "boolean = true".getBytes(StandardCharsets.UTF_8));
+            config.reload();
+            // Saved while the system properties still override the file and the defaults.
+            config.save();
+        } finally {
+            System.clearProperty("layers.long");
+            System.clearProperty("layers.double");
+        }
+        boolean reloaded = config.booleanValue;
+        int fallback = config.intValue;
+        long overriddenLong = config.longValue;
+        String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        config.reload();
+        Assertions.assertAll(() ->
+        {
+            assertEquals(7, overridden);
+            assertEquals(5.5D, overriddenDouble);
+            assertTrue(reloaded);
+            // The override no longer contains the property, the file's value applies again.
+            assertEquals(3, fallback);
+            assertEquals(9L, overriddenLong);
+            // The file is saved without the values of the layers above it, the defaults take their place.
+            assertTrue(content.contains("\"long\" : 4"));
+            assertTrue(content.contains("\"boolean\" : false"));
+            assertTrue(content.contains("\"double\" : 2.5"));
+            // Without the system properties the saved values apply.
+            assertEquals(4L, config.longValue);
+            assertEquals(2.5D, config.doubleValue);
+        });
+    }
+
+    @Test
+    public void testHoconConfigParseCache() throws IOException {
+        File file = new File(temporaryDirectory + File.separator + "cached.conf");
+        CachedConfig first = CachedConfig.createConfiguration(file, CachedConfig.class);
+        first.intValue = 2;
+        first.listTest = Arrays.asList("a", "b");
+        first.save();
+
+        CachedConfig second = CachedConfig.createConfiguration(file, CachedConfig.class);
+        boolean parsedOnStart = second.isParsed();
+        String output = second.strOutput();
+
+        String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        Files.write(file.toPath(), content.replace("\"integer\" : 2", "\"integer\" : 3")
+            .getBytes(StandardCharsets.UTF_8));
+        CachedConfig third = CachedConfig.createConfiguration(file, CachedConfig.class);
+        Assertions.assertAll(() ->
+        {
+            assertTrue(new File(temporaryDirectory, ".cached.conf.cache").isFile());
+            // The values were bound from the cache, the file is only parsed for its output.
+            assertFalse(parsedOnStart);
+            assertEquals(2, second.intValue);
+            assertEquals(Arrays.asList("a", "b"), second.listTest);
+            assertEquals(content, output);
+            // A changed file is parsed again.
+            assertTrue(third.isParsed());
+            assertEquals(3, third.intValue);
+        });
+    }
+
+    @Test
+    public void testHoconConfigCorruptCache() throws IOException {
+        File file = new File(temporaryDirectory + File.separator + "corrupt.conf");
+        CachedConfig first = CachedConfig.createConfiguration(file, CachedConfig.class);
+        first.intValue = 2;
+        first.save();
+        File cacheFile = new File(temporaryDirectory, ".corrupt.conf.cache");
+        byte[] cache = Files.readAllBytes(cacheFile.toPath());
+        // Replace the first value after the header with an int array claiming two billion elements.
+        int header = 37;
+        cache[header] = 8;
+        cache[header + 1] = 0x7F;
+        cache[header + 2] = (byte) 0xFF;
+        cache[header + 3] = (byte) 0xFF;
+        cache[header + 4] = (byte) 0xFF;
+        Files.write(cacheFile.toPath(), cache);
+
+        CachedConfig second = CachedConfig.createConfiguration(file, CachedConfig.class);
+        Assertions.assertAll(() ->
+        {
+            // The corrupt cache is ignored and the file is parsed.
+            assertTrue(second.isParsed());
+            assertEquals(2, second.intValue);
+        });
+    }
+
+    @ParseCache
+    public static class CachedConfig extends HoconConfiguration {
+        @Property("integer")
+        public int intValue = 1;
+
+        @Property("list")
+        public List<String> listTest = Collections.emptyList();
+
+        public boolean isParsed() {
+            return !config.isEmpty();
+        }
+    }
+
+    @Test
+    public void testHoconConfigPatch() throws IOException {
+        File file = new File(temporaryDirectory + File.separator + "patch.conf");
+        Files.write(file.toPath(), String.join("\n",
+            "# Kept as written",
+            "integer   =   5   #  trailing",
+            "name: \"old\"",
+            "list = [ a, b ]",
+            ""
+        ).getBytes(StandardCharsets.UTF_8));
+        PatchConfig config = PatchConfig.createConfiguration(file, PatchConfig.class);
+        config.intValue = 6;
+        config.name = "new value";
+        SaveResult patched = config.save();
+        String patchedContent = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        // The second patch continues from the document of the first one.
+        config.intValue = 7;
+        config.save();
+        String repatchedContent = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        SaveResult unchanged = config.save();
+        config.reload();
+        int reloadedInt = config.intValue;
+        String reloadedName = config.name;
+        // A file changed by someone else is rendered in full.
+        Files.write(file.toPath(), (repatchedContent + "# Added elsewhere\n").getBytes(StandardCharsets.UTF_8));
+        config.intValue = 8;
+        config.save();
+        String renderedContent = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+
+        Assertions.assertAll(() ->
+        {
+            assertEquals(SaveResult.WRITTEN, patched);
+            // Only the changed values are replaced, everything else stays byte-identical.
+            assertEquals(String.join("\n",
+                "# Kept as written",
+                "integer   =   6   #  trailing",
+                "name: \"new value\"",
+                "list = [ a, b ]",
+                ""
+            ), patchedContent);
+            assertEquals(patchedContent.replace("6", "7"), repatchedContent);
+            assertEquals(SaveResult.UNCHANGED, unchanged);
+            assertEquals(7, reloadedInt);
+            assertEquals("new value", reloadedName);
+            assertTrue(renderedContent.contains("\"integer\" : 8"));
+            assertFalse(renderedContent.contains("integer   ="));
+        });
+    }
+
+    public static class PatchConfig extends HoconConfiguration {
+        @Property("integer")
+        public int intValue;
+
+        @Property("name")
+        public String name;
+
+        @Property("list")
+        public List<String> list;
+    }
+
+    @Test
+    public void testUnrenderedSave() throws IOException {
+        File file = new File(temporaryDirectory + File.separator + "unrendered.conf");
+        Files.write(file.toPath(), "integer = 5\n".getBytes(StandardCharsets.UTF_8));
+        UnrenderedConfig config = UnrenderedConfig.createConfiguration(file, UnrenderedConfig.class);
+
+        Assertions.assertAll(() ->
+        {
+            // A format without output leaves the existing file alone.
+            assertEquals(SaveResult.UNCHANGED, config.save());
+            assertEquals("integer = 5\n", new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+        });
+    }
+
+    public static class UnrenderedConfig extends Configuration {
+        @Property("integer")
+        public int intValue;
+
+        @Override
+        protected void load() {
+        }
+
+        @Override
+        protected String render() {
+            return null;
+        }
+
+        @Override
+        public String strOutput() {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,275 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.processor;
+
+import de.articdive.annotatedconfig.processor.ConfigBinderProcessor.PropertyModel;
+import de.articdive.annotatedconfig.processor.ConfigBinderProcessor.SectionModel;
+
+import javax.lang.model.type.TypeKind;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes the source of a generated {@link de.articdive.annotatedconfig.schema.ConfigBinder}.
+ */
+final class BinderWriter {
+    private final String packageName;
+    private final String simpleName;
+    private final String rootName;
+    private final List<SectionModel> sections;
+    private final List<PropertyModel> properties;
+    private final StringBuilder out = new StringBuilder();
+
+    BinderWriter(
+        String packageName, String simpleName, String rootName,
+        List<SectionModel> sections, List<PropertyModel> properties
+    ) {
+        this.packageName = packageName;
+        this.simpleName = simpleName;
+        this.rootName = rootName;
+        this.sections = sections;
+        this.properties = properties;
+    }
+
+    String write() {
+        line(0, "// Generated by AnnotatedConfig-Processor, do not edit.");
+        if (!packageName.isEmpty()) {
+            line(0, "package " + packageName + ";");
+        }
+        line(0, "");
+        line(0, "@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+        line(0, "public final class " + simpleName
+            + " extends de.articdive.annotatedconfig.schema.ConfigBinder<" + rootName + "> {");
+        writeDescribe();
+        writeNewSection();
+        writeGet();
+        writeSet();
+        for (TypeKind kind : ConfigBinderProcessor.PRIMITIVES) {
+            writePrimitiveGet(kind);
+            writePrimitiveSet(kind);
+        }
+        line(0, "}");
+        return out.toString();
+    }
+
+    private void writeDescribe() {
+        line(1, "@Override");
+        line(1, "public void describe(de.articdive.annotatedconfig.schema.ConfigSchema.Builder builder) {");
+        int property = 0;
+        for (SectionModel section : sections) {
+            line(2, "builder.section(" + section.typeName + ".class, " + section.parent + ", "
+                + (section.key == null ? "null" : literal(section.key)) + ", "
+                + array(section.comments) + ", sectionFactory(" + section.index + "));");
+            // Properties are numbered section by section, in the order the sections were added.
+            for (; property < properties.size() && properties.get(property).section == section.index; property++) {
+                PropertyModel model = properties.get(property);
+                line(2, "builder.property(" + section.index + ", " + literal(model.name) + ", "
+                    + model.typeName + ".class, " + literal(model.key) + ", " + array(model.comments)
+                    + ", accessor(" + model.index + ", " + model.typeName + ".class), null);");
+            }
+        }
+        line(1, "}");
+    }
+
+    private void writeNewSection() {
+        line(0, "");
+        line(1, "@Override");
+        line(1, "public Object newSection(int section, Object parentInstance) {");
+        line(2, "switch (section) {");
+        for (SectionModel section : sections) {
+            line(3, "case " + section.index + ":");
+            if (section.inner) {
+                SectionModel parent = sections.get(section.parent);
+                line(4, "return ((" + parent.typeName + ") parentInstance).new " + section.simpleName + "();");
+            } else {
+                line(4, "return new " + section.typeName + "();");
+            }
+        }
+        line(3, "default:");
+        line(4, "throw new IllegalArgumentException(\"Unknown section \" + section);");
+        line(2, "}");
+        line(1, "}");
+    }
+
+    private void writeGet() {
+        line(0, "");
+        line(1, "@Override");
+        line(1, "public Object get(int property, Object instance) {");
+        line(2, "switch (property) {");
+        for (PropertyModel property : properties) {
+            line(3, "case " + property.index + ":");
+            line(4, "return " + field(property) + ";");
+        }
+        line(3, "default:");
+        line(4, "throw new IllegalArgumentException(\"Unknown property \" + property);");
+        line(2, "}");
+        line(1, "}");
+    }
+
+    private void writeSet() {
+        line(0, "");
+        line(1, "@Override");
+        line(1, "public void set(int property, Object instance, Object value) {");
+        line(2, "switch (property) {");
+        for (PropertyModel property : properties) {
+            line(3, "case " + property.index + ":");
+            line(4, field(property) + " = (" + property.boxedName + ") value;");
+            line(4, "return;");
+        }
+        line(3, "default:");
+        line(4, "throw new IllegalArgumentException(\"Unknown property \" + property);");
+        line(2, "}");
+        line(1, "}");
+    }
+
+    private void writePrimitiveGet(TypeKind kind) {
+        String name = name(kind);
+        StringBuilder cases = new StringBuilder();
+        for (PropertyModel property : properties) {
+            if (property.kind.isPrimitive() && ConfigBinderProcessor.widens(property.kind, kind)) {
+                cases.append(indent(3)).append("case ").append(property.index).append(":\n")
+                    .append(indent(4)).append("return ").append(field(property)).append(";\n");
+            }
+        }
+        if (cases.length() == 0) {
+            return;
+        }
+        line(0, "");
+        line(1, "@Override");
+        line(1, "public " + name + " get" + capitalize(name) + "(int property, Object instance) {");
+        line(2, "switch (property) {");
+        out.append(cases);
+        line(3, "default:");
+        line(4, "throw unsupported(property, " + name + ".class);");
+        line(2, "}");
+        line(1, "}");
+    }
+
+    private void writePrimitiveSet(TypeKind kind) {
+        String name = name(kind);
+        StringBuilder cases = new StringBuilder();
+        for (PropertyModel property : properties) {
+            boolean accepts = property.kind.isPrimitive()
+                ? ConfigBinderProcessor.widens(kind, property.kind)
+                : property.typeName.equals(wrapper(kind));
+            if (accepts) {
+                cases.append(indent(3)).append("case ").append(property.index).append(":\n")
+                    .append(indent(4)).append(field(property)).append(" = value;\n")
+                    .append(indent(4)).append("return;\n");
+            }
+        }
+        if (cases.length() == 0) {
+            return;
+        }
+        line(0, "");
+        line(1, "@Override");
+        line(1, "public void set" + capitalize(name) + "(int property, Object instance, " + name + " value) {");
+        line(2, "switch (property) {");
+        out.append(cases);
+        line(3, "default:");
+        line(4, "throw unsupported(property, " + name + ".class);");
+        line(2, "}");
+        line(1, "}");
+    }
+
+    private String field(PropertyModel property) {
+        return "((" + sections.get(property.section).typeName + ") instance)." + property.name;
+    }
+
+    private static String name(TypeKind kind) {
+        return kind.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static String wrapper(TypeKind kind) {
+        switch (kind) {
+            case BOOLEAN:
+                return "java.lang.Boolean";
+            case BYTE:
+                return "java.lang.Byte";
+            case SHORT:
+                return "java.lang.Short";
+            case INT:
+                return "java.lang.Integer";
+            case LONG:
+                return "java.lang.Long";
+            case FLOAT:
+                return "java.lang.Float";
+            default:
+                return "java.lang.Double";
+        }
+    }
+
+    private static String array(List<String> values) {
+        StringBuilder array = new StringBuilder("new String[] {");
+        for (int i = 0; i < values.size(); i++) {
+            array.append(i == 0 ? "" : ", ").append(literal(values.get(i)));
+        }
+        return array.append("}").toString();
+    }
+
+    private static String literal(String value) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    literal.append("\\\"");
+                    break;
+                case '\\':
+                    literal.append("\\\\");
+                    break;
+                case '\n':
+                    literal.append("\\n");
+                    break;
+                case '\r':
+                    literal.append("\\r");
+                    break;
+                case '\t':
+                    literal.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c > 0x7E) {
+                        literal.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        literal.append(c);
+                    }
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    private static String indent(int depth) {
+        StringBuilder indent = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            indent.append("    ");
+        }
+        return indent.toString();
+    }
+
+    private void line(int depth, String line) {
+        if (!line.isEmpty()) {
+            out.append(indent(depth));
+        }
+        out.append(line).append('\n');
+    }
+}
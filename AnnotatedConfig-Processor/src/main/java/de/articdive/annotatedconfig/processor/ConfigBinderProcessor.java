@@ -0,0 +1,285 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.processor;
+
+import de.articdive.annotatedconfig.annotations.Comment;
+import de.articdive.annotatedconfig.annotations.Comments;
+import de.articdive.annotatedconfig.annotations.Property;
+import de.articdive.annotatedconfig.annotations.Section;
+import de.articdive.annotatedconfig.schema.ConfigBinder;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates a {@link ConfigBinder} for every configuration class with annotated properties or sections.
+ * Configurations that can't be accessed directly from their own package (non-public or inner root classes, private
+ * or final properties, private sections or constructors) are skipped and keep using reflection.
+ */
+public final class ConfigBinderProcessor extends AbstractProcessor {
+    private static final String CONFIGURATION = "de.articdive.annotatedconfig.api.Configuration";
+    static final List<TypeKind> PRIMITIVES = Arrays.asList(
+        TypeKind.BOOLEAN, TypeKind.BYTE, TypeKind.SHORT, TypeKind.INT, TypeKind.LONG, TypeKind.FLOAT, TypeKind.DOUBLE
+    );
+
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return new LinkedHashSet<>(Arrays.asList(
+            Property.class.getCanonicalName(), Section.class.getCanonicalName(),
+            Comment.class.getCanonicalName(), Comments.class.getCanonicalName()
+        ));
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement configuration = processingEnv.getElementUtils().getTypeElement(CONFIGURATION);
+        if (configuration == null) {
+            return false;
+        }
+        Set<TypeElement> roots = new LinkedHashSet<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(Property.class)) {
+            addRoot(roots, element.getEnclosingElement(), configuration);
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(Section.class)) {
+            addRoot(roots, element, configuration);
+        }
+        for (TypeElement root : roots) {
+            String binderName = getBinderName(root);
+            if (generated.add(binderName)) {
+                generate(root, binderName);
+            }
+        }
+        return false;
+    }
+
+    private void addRoot(Set<TypeElement> roots, Element element, TypeElement configuration) {
+        TypeMirror configurationType = processingEnv.getTypeUtils().erasure(configuration.asType());
+        for (Element current = element; current instanceof TypeElement; current = current.getEnclosingElement()) {
+            TypeMirror type = processingEnv.getTypeUtils().erasure(current.asType());
+            if (processingEnv.getTypeUtils().isSubtype(type, configurationType)) {
+                roots.add((TypeElement) current);
+                return;
+            }
+        }
+    }
+
+    private String getBinderName(TypeElement root) {
+        return processingEnv.getElementUtils().getBinaryName(root) + ConfigBinder.SUFFIX;
+    }
+
+    private void generate(TypeElement root, String binderName) {
+        if (root.getModifiers().contains(Modifier.ABSTRACT)) {
+            return;
+        }
+        List<SectionModel> sections = new ArrayList<>();
+        List<PropertyModel> properties = new ArrayList<>();
+        String problem = collect(root, -1, sections, properties);
+        if (problem != null) {
+            processingEnv.getMessager().printMessage(
+                Diagnostic.Kind.NOTE,
+                String.format("No binder was generated for %s, it will be bound reflectively: %s", root, problem),
+                root
+            );
+            return;
+        }
+
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(root);
+        String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+        String simpleName = packageName.isEmpty() ? binderName : binderName.substring(packageName.length() + 1);
+        try (Writer writer = processingEnv.getFiler().createSourceFile(binderName, root).openWriter()) {
+            writer.write(
+                new BinderWriter(packageName, simpleName, typeName(root.asType()), sections, properties).write()
+            );
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(
+                Diagnostic.Kind.ERROR, String.format("Failed to write the binder %s: %s", binderName, e), root
+            );
+        }
+    }
+
+    private String collect(TypeElement type, int parent, List<SectionModel> sections, List<PropertyModel> properties) {
+        boolean inner = false;
+        String key = null;
+        if (parent == -1) {
+            for (Element current = type; current instanceof TypeElement; current = current.getEnclosingElement()) {
+                Set<Modifier> modifiers = current.getModifiers();
+                if (!modifiers.contains(Modifier.PUBLIC) || current.getEnclosingElement() instanceof TypeElement
+                    && !modifiers.contains(Modifier.STATIC)) {
+                    return String.format("%s is not public or not a static member class", current);
+                }
+            }
+            if (!hasAccessibleConstructor(type)) {
+                return "it has no accessible no-argument constructor";
+            }
+        } else {
+            if (type.getModifiers().contains(Modifier.PRIVATE) || !hasAccessibleConstructor(type)) {
+                return String.format("the section %s is private or has no accessible constructor", type);
+            }
+            inner = !type.getModifiers().contains(Modifier.STATIC);
+            key = type.getAnnotation(Section.class).value();
+        }
+        int index = sections.size();
+        sections.add(new SectionModel(
+            index, parent, typeName(type.asType()), type.getSimpleName().toString(), key, inner, comments(type)
+        ));
+
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            Property property = field.getAnnotation(Property.class);
+            if (property == null) {
+                continue;
+            }
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL)
+                || modifiers.contains(Modifier.STATIC)) {
+                return String.format("the property %s.%s is private, final or static", type, field.getSimpleName());
+            }
+            properties.add(new PropertyModel(
+                properties.size(), index, field.getSimpleName().toString(), field.asType().getKind(),
+                typeName(field.asType()), boxedName(field.asType()), property.value(), comments(field)
+            ));
+        }
+
+        for (TypeElement memberType : ElementFilter.typesIn(type.getEnclosedElements())) {
+            if (memberType.getAnnotation(Section.class) != null && memberType.getKind() == ElementKind.CLASS) {
+                String problem = collect(memberType, index, sections, properties);
+                if (problem != null) {
+                    return problem;
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean hasAccessibleConstructor(TypeElement type) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String typeName(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private String boxedName(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type)
+                .getQualifiedName().toString();
+        }
+        return typeName(type);
+    }
+
+    private static List<String> comments(Element element) {
+        List<String> comments = new ArrayList<>();
+        for (Comment comment : element.getAnnotationsByType(Comment.class)) {
+            comments.add(comment.value());
+        }
+        return comments;
+    }
+
+    /**
+     * @return true if a value of the primitive kind {@code from} widens to the kind {@code to}.
+     */
+    static boolean widens(TypeKind from, TypeKind to) {
+        if (from == to) {
+            return true;
+        }
+        if (from == TypeKind.BOOLEAN || to == TypeKind.BOOLEAN || !PRIMITIVES.contains(to)) {
+            return false;
+        }
+        return PRIMITIVES.indexOf(from) < PRIMITIVES.indexOf(to);
+    }
+
+    static final class SectionModel {
+        final int index;
+        final int parent;
+        final String typeName;
+        final String simpleName;
+        final String key;
+        final boolean inner;
+        final List<String> comments;
+
+        SectionModel(
+            int index, int parent, String typeName, String simpleName, String key, boolean inner, List<String> comments
+        ) {
+            this.index = index;
+            this.parent = parent;
+            this.typeName = typeName;
+            this.simpleName = simpleName;
+            this.key = key;
+            this.inner = inner;
+            this.comments = comments;
+        }
+    }
+
+    static final class PropertyModel {
+        final int index;
+        final int section;
+        final String name;
+        final TypeKind kind;
+        final String typeName;
+        final String boxedName;
+        final String key;
+        final List<String> comments;
+
+        PropertyModel(
+            int index, int section, String name, TypeKind kind, String typeName, String boxedName,
+            String key, List<String> comments
+        ) {
+            this.index = index;
+            this.section = section;
+            this.name = name;
+            this.kind = kind;
+            this.typeName = typeName;
+            this.boxedName = boxedName;
+            this.key = key;
+            this.comments = comments;
+        }
+    }
+}
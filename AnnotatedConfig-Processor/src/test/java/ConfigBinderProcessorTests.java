@@ -0,0 +1,257 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+import de.articdive.annotatedconfig.api.Configuration;
+import de.articdive.annotatedconfig.processor.ConfigBinderProcessor;
+import de.articdive.annotatedconfig.schema.ConfigBinder;
+import de.articdive.annotatedconfig.schema.ConfigSchema;
+import de.articdive.annotatedconfig.schema.PropertySchema;
+import de.articdive.annotatedconfig.schema.SectionSchema;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConfigBinderProcessorTests {
+    private static final String CONFIG_SOURCE = String.join("\n",
+        "package test;",
+        "import de.articdive.annotatedconfig.annotations.Comment;",
+        "import de.articdive.annotatedconfig.annotations.Property;",
+        "import de.articdive.annotatedconfig.annotations.Section;",
+        "import java.util.Arrays;",
+        "import java.util.List;",
+        "public class %s extends de.articdive.annotatedconfig.api.Configuration {",
+        "    @Property(\"integer\")",
+        "    @Comment(\"An \\\"integer\\\".\")",
+        "    %s int intValue = 1;",
+        "    @Property(\"long\")",
+        "    public Long boxedLong = 2L;",
+        "    @Property(\"list\")",
+        "    public List<String> list = Arrays.asList(\"a\", \"b\");",
+        "    @Section(\"a\")",
+        "    public class SectionA {",
+        "        @Property(\"name\")",
+        "        public String name = \"Tommy\";",
+        "        @Section(\"b\")",
+        "        @Comment(\"Section B\")",
+        "        public class SectionB {",
+        "            @Property(\"double\")",
+        "            public double doubleValue = 1.5D;",
+        "        }",
+        "    }",
+        "    @Section(\"c\")",
+        "    public static class SectionC {",
+        "        @Property(\"byte\")",
+        "        public byte byteValue = 3;",
+        "    }",
+        "    protected void load() {",
+        "    }",
+        "    protected String render() {",
+        "        return \"\";",
+        "    }",
+        "    public String strOutput() {",
+        "        return \"\";",
+        "    }",
+        "}"
+    );
+
+    @TempDir
+    File temporaryDirectory;
+
+    private static String coreClasspath() {
+        try {
+            return new File(Configuration.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+        } catch (URISyntaxException e) {
+            // Wont happen
+            Assertions.fail(e);
+            return null;
+        }
+    }
+
+    private Class<? extends Configuration> compile(String className, String fieldModifier) throws IOException {
+        ClassLoader classLoader = compileSources(
+            Collections.singletonMap(className, String.format(CONFIG_SOURCE, className, fieldModifier))
+        );
+        try {
+            return Class.forName("test." + className, true, classLoader).asSubclass(Configuration.class);
+        } catch (ClassNotFoundException e) {
+            Assertions.fail(e);
+            return null;
+        }
+    }
+
+    private ClassLoader compileSources(Map<String, String> sources) throws IOException {
+        File sourceDirectory = new File(temporaryDirectory, "src/test");
+        File classDirectory = new File(temporaryDirectory, "classes");
+        Assertions.assertTrue(sourceDirectory.mkdirs() && classDirectory.mkdirs());
+        List<File> sourceFiles = new ArrayList<>();
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            File sourceFile = new File(sourceDirectory, source.getKey() + ".java");
+            Files.write(sourceFile.toPath(), source.getValue().getBytes(StandardCharsets.UTF_8));
+            sourceFiles.add(sourceFile);
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(
+                null, fileManager, null,
+                Arrays.asList("-classpath", coreClasspath(), "-d", classDirectory.getPath()),
+                null, fileManager.getJavaFileObjectsFromFiles(sourceFiles)
+            );
+            task.setProcessors(Collections.singletonList(new ConfigBinderProcessor()));
+            assertTrue(task.call());
+        }
+
+        return new URLClassLoader(new URL[]{classDirectory.toURI().toURL()}, getClass().getClassLoader());
+    }
+
+    @Test
+    public void testGeneratedBinder() throws Exception {
+        Class<? extends Configuration> configClass = compile("GeneratedConfig", "public");
+        ConfigSchema schema = ConfigSchema.of(configClass);
+
+        Object root = schema.getRoot().newInstance(null);
+        SectionSchema sectionA = schema.getRoot().getChildren().get(0);
+        SectionSchema sectionB = sectionA.getChildren().get(0);
+        Object sectionAInstance = sectionA.newInstance(root);
+        Object sectionBInstance = sectionB.newInstance(sectionAInstance);
+        PropertySchema intProperty = schema.getRoot().getProperties().get(0);
+        PropertySchema longProperty = schema.getRoot().getProperties().get(1);
+        PropertySchema doubleProperty = sectionB.getProperties().get(0);
+
+        intProperty.getAccessor().setInt(root, 414);
+        longProperty.getAccessor().setLong(root, 1484L);
+        doubleProperty.getAccessor().setDouble(sectionBInstance, -1.231D);
+
+        Assertions.assertAll(() ->
+        {
+            assertTrue(schema.isGenerated());
+            assertEquals(4, schema.getSections().size());
+            assertEquals("a.b.double", doubleProperty.getPath());
+            assertEquals(Collections.singletonList("An \"integer\"."), intProperty.getComments());
+            assertEquals(Collections.singletonList("Section B"), sectionB.getComments());
+            assertEquals(414, intProperty.getAccessor().getInt(root));
+            assertEquals(414L, intProperty.getAccessor().getLong(root));
+            assertEquals(1484L, longProperty.getAccessor().get(root));
+            assertEquals(-1.231D, doubleProperty.getAccessor().get(sectionBInstance));
+            assertEquals("intValue", intProperty.getField().getName());
+            assertEquals(sectionA.getType(), sectionAInstance.getClass());
+            assertEquals("c.byte", schema.getRoot().getChildren().get(1).getProperties().get(0).getPath());
+        });
+    }
+
+    @Test
+    public void testReflectiveFallback() throws Exception {
+        Class<? extends Configuration> configClass = compile("ReflectiveConfig", "private");
+        ConfigSchema schema = ConfigSchema.of(configClass);
+
+        Object root = schema.getRoot().newInstance(null);
+        PropertySchema intProperty = schema.getRoot().getProperties().stream()
+            .filter(property -> property.getName().equals("intValue"))
+            .findFirst()
+            .orElseThrow(AssertionError::new);
+        intProperty.getAccessor().setInt(root, 414);
+
+        Assertions.assertAll(() ->
+        {
+            assertFalse(schema.isGenerated());
+            assertEquals(4, schema.getSections().size());
+            assertEquals(414, intProperty.getAccessor().getInt(root));
+        });
+    }
+
+    @Test
+    public void testNestedRoots() throws Exception {
+        String body = String.join("\n",
+            "    @Property(\"integer\")",
+            "    public int intValue = 1;",
+            "    protected void load() {",
+            "    }",
+            "    protected String render() {",
+            "        return \"\";",
+            "    }",
+            "    public String strOutput() {",
+            "        return \"\";",
+            "    }"
+        );
+        Map<String, String> sources = new LinkedHashMap<>();
+        sources.put("Outer", String.join("\n",
+            "package test;",
+            "import de.articdive.annotatedconfig.annotations.Property;",
+            "public class Outer {",
+            "    public static class Root extends de.articdive.annotatedconfig.api.Configuration {",
+            body,
+            "    }",
+            "    public class InnerRoot extends de.articdive.annotatedconfig.api.Configuration {",
+            body,
+            "    }",
+            "}"
+        ));
+        sources.put("Outer_Root", String.join("\n",
+            "package test;",
+            "import de.articdive.annotatedconfig.annotations.Property;",
+            "public class Outer_Root extends de.articdive.annotatedconfig.api.Configuration {",
+            body,
+            "}"
+        ));
+        // The inner root can't be created by a binder, the compilation still succeeds.
+        ClassLoader classLoader = compileSources(sources);
+        Class<?> nestedRoot = Class.forName("test.Outer$Root", true, classLoader);
+        Class<?> topLevelRoot = Class.forName("test.Outer_Root", true, classLoader);
+        Class<?> innerRoot = Class.forName("test.Outer$InnerRoot", true, classLoader);
+
+        Assertions.assertAll(() ->
+        {
+            // Both roots get their own binder although their names only differ in '$' and '_'.
+            assertEquals(nestedRoot, binderRoot(classLoader, nestedRoot));
+            assertEquals(topLevelRoot, binderRoot(classLoader, topLevelRoot));
+            assertThrows(
+                ClassNotFoundException.class,
+                () -> Class.forName(ConfigBinder.getBinderName(innerRoot), false, classLoader)
+            );
+        });
+    }
+
+    private static Class<?> binderRoot(ClassLoader classLoader, Class<?> rootClass) throws Exception {
+        Object root = Class.forName(ConfigBinder.getBinderName(rootClass), true, classLoader)
+            .asSubclass(ConfigBinder.class).getDeclaredConstructor().newInstance()
+            .newSection(0, null);
+        return root.getClass();
+    }
+}
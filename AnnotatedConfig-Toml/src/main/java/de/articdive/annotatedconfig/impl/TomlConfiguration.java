@@ -19,19 +19,119 @@
 package de.articdive.annotatedconfig.impl;
 
 import de.articdive.annotatedconfig.api.Configuration;
+import de.articdive.annotatedconfig.exceptions.ConfigLoadException;
+import de.articdive.annotatedconfig.exceptions.ConfigSaveException;
+import de.articdive.annotatedconfig.schema.PropertySchema;
+import de.articdive.annotatedconfig.util.FileUtil;
+import de.articdive.annotatedconfig.util.ValueSpans;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-public class TomlConfiguration extends Configuration {
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+public abstract class TomlConfiguration extends Configuration {
+    protected volatile String output;
+    // The positions of the values in the file as it was last loaded or saved.
+    private ValueSpans spans;
+
+    @Override
+    protected final void load() {
+        // Ensure the file is valid.
+        if (!file.exists()) {
+            handleFileCreation();
+        }
+
+        // The parser reads through its own window of characters, the reader doesn't need a buffer.
+        // Large files are decoded straight from a memory mapping.
+        try (Reader reader = FileUtil.openReader(file)) {
+            ValueSpans spans = new ValueSpans(schema.getProperties().size());
+            TomlParser parser = new TomlParser(reader, objectMap, spans);
+            parser.parse(schema.getKeyTree());
+            this.spans = spans;
+            recordBound(parser.getBound(), parser.getMismatched());
+        } catch (IOException e) {
+            throw new ConfigLoadException("Failed to load configuration from file.", e);
+        }
+        // The output is rendered again when it is asked for.
+        output = null;
+    }
 
     @Override
-    protected void load() {
+    protected void loadedFromCache() {
+        output = null;
+        spans = null;
+    }
+
+    @Override
+    protected final String render() {
+        // The text is saved to the file, a later patch finds the values in it.
+        ValueSpans spans = new ValueSpans(schema.getProperties().size());
+        String output = render(spans);
+        this.spans = spans;
+        return output;
+    }
+
+    @NotNull
+    private String render(@Nullable ValueSpans spans) {
+        // Read the comments and unknown keys of the current file.
+        TomlParser previous = null;
+        if (file.exists()) {
+            try (Reader reader = FileUtil.openReader(file)) {
+                previous = new TomlParser(reader, schema.getKeyNodeCount());
+                previous.parse(schema.getKeyTree());
+            } catch (IOException e) {
+                throw new ConfigSaveException("Failed to read the comments of the configuration file.", e);
+            }
+        }
+
+        StringBuilder builder = new StringBuilder();
+        new TomlWriter(builder, objectMap, previous, spans).write(schema.getKeyTree());
+        String output = builder.toString();
+        this.output = output;
+        return output;
     }
 
     @Override
-    protected void save() {
+    protected final String patch(@NotNull String text, @NotNull List<PropertySchema> changed) {
+        ValueSpans spans = this.spans;
+        if (spans == null) {
+            return null;
+        }
+        int[] indexes = new int[changed.size()];
+        String[] values = new String[changed.size()];
+        StringBuilder builder = new StringBuilder();
+        TomlWriter writer = new TomlWriter(builder, objectMap, null, null);
+        for (int i = 0; i < indexes.length; i++) {
+            PropertySchema property = changed.get(i);
+            indexes[i] = property.getIndex();
+            builder.setLength(0);
+            // A property set to null has to be removed from the file.
+            if (!spans.contains(indexes[i])
+                || !writer.writeInlineValue(property, objectMap.get(property.getSection().getType()))) {
+                return null;
+            }
+            values[i] = builder.toString();
+        }
+        String patched = spans.replace(text, indexes, values);
+        if (patched != null) {
+            output = patched;
+        }
+        return patched;
     }
 
     @Override
     public String strOutput() {
-        return null;
+        String output = this.output;
+        if (output == null) {
+            synchronized (this) {
+                output = this.output;
+                if (output == null) {
+                    output = render(null);
+                }
+            }
+        }
+        return output;
     }
 }
@@ -0,0 +1,1030 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.impl;
+
+import de.articdive.annotatedconfig.accessor.ArrayBuilder;
+import de.articdive.annotatedconfig.accessor.ValueBinder;
+import de.articdive.annotatedconfig.exceptions.ConfigLoadException;
+import de.articdive.annotatedconfig.schema.KeyNode;
+import de.articdive.annotatedconfig.schema.PropertySchema;
+import de.articdive.annotatedconfig.schema.SectionSchema;
+import de.articdive.annotatedconfig.util.ValueSpans;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a TOML document through a window of characters in a single pass. Tables are resolved to sections and keys to
+ * properties while they are read, primitive values are bound without boxing them and the values of unknown keys and
+ * tables are skipped without creating objects for them.
+ */
+final class TomlParser {
+    private static final int INTEGER = 0;
+    private static final int FLOAT = 1;
+    private static final int DATE_TIME = 2;
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private int lineNumber = 1;
+    // The number of characters read from the current line.
+    private int column;
+
+    private final Map<Class<?>, Object> objectMap;
+    private final List<List<String>> comments;
+    private final List<List<String>> unknownLines;
+    private final StringBuilder unknownTables;
+    private final List<String> pendingComments = new ArrayList<>();
+    private final List<String> keys = new ArrayList<>();
+    private final StringBuilder text = new StringBuilder();
+    private StringBuilder capture;
+
+    private Object resolvedInstance;
+    private long longValue;
+    private double doubleValue;
+    private Object dateTimeValue;
+
+    private final BitSet bound = new BitSet();
+    private int mismatched;
+    private final ValueSpans spans;
+
+    /**
+     * Creates a parser binding the values of the document to the section instances.
+     *
+     * @param reader    The document.
+     * @param objectMap The instances of the sections, keyed by their class.
+     * @param spans     The positions of the bound values written on a single line, recorded while they are read.
+     */
+    TomlParser(@NotNull Reader reader, @NotNull Map<Class<?>, Object> objectMap, @NotNull ValueSpans spans) {
+        this.reader = reader;
+        this.objectMap = objectMap;
+        this.comments = null;
+        this.unknownLines = null;
+        this.unknownTables = null;
+        this.spans = spans;
+    }
+
+    /**
+     * Creates a parser that doesn't bind anything, but records the comments of known keys and the text of unknown
+     * keys and tables so they can be written again.
+     *
+     * @param reader    The document.
+     * @param nodeCount The number of nodes in the key tree.
+     */
+    @SuppressWarnings("unchecked")
+    TomlParser(@NotNull Reader reader, int nodeCount) {
+        this.reader = reader;
+        this.objectMap = null;
+        this.comments = new ArrayList<>(Collections.nCopies(nodeCount, null));
+        this.unknownLines = new ArrayList<>(Collections.nCopies(nodeCount, null));
+        this.unknownTables = new StringBuilder();
+        this.spans = null;
+    }
+
+    /**
+     * @return the indexes of the properties bound from the document.
+     */
+    @NotNull
+    BitSet getBound() {
+        return bound;
+    }
+
+    /**
+     * @return the number of properties whose value in the document didn't fit their type.
+     */
+    int getMismatched() {
+        return mismatched;
+    }
+
+    private void record(@NotNull PropertySchema property, boolean set) {
+        if (set) {
+            bound.set(property.getIndex());
+        } else {
+            mismatched++;
+        }
+    }
+
+    void parse(@NotNull KeyNode root) throws IOException {
+        if (peek() == '\uFEFF') {
+            read();
+        }
+        Object rootInstance = instance(root, null);
+        KeyNode table = root;
+        Object instance = rootInstance;
+        boolean known = true;
+        StringBuilder unknownTable = null;
+        while (true) {
+            int end = unknownTable == null ? 0 : unknownTable.length();
+            skipTrivia(true);
+            int c = peek();
+            if (c != -1 && c != '[') {
+                if (known) {
+                    parseKeyValue(table, instance);
+                } else {
+                    // The unknown table is being captured, if it is written again.
+                    parseKeys();
+                    expectAssignment();
+                    readValue(false);
+                    expectLineEnd();
+                    pendingComments.clear();
+                }
+                continue;
+            }
+
+            if (unknownTable != null) {
+                // The comments in front of the next table belong to it.
+                unknownTable.setLength(end);
+                if (unknownTable.charAt(unknownTable.length() - 1) != '\n') {
+                    unknownTable.append('\n');
+                }
+                unknownTables.append('\n').append(unknownTable);
+                unknownTable = null;
+                capture = null;
+            }
+            if (c == -1) {
+                return;
+            }
+
+            StringBuilder header = unknownTables == null ? null : new StringBuilder();
+            capture = header;
+            read();
+            boolean arrayTable = peek() == '[';
+            if (arrayTable) {
+                read();
+            }
+            skipSpaces();
+            parseKeys();
+            skipSpaces();
+            expect(']');
+            if (arrayTable) {
+                expect(']');
+            }
+            expectLineEnd();
+            capture = null;
+
+            KeyNode node = arrayTable ? null : resolve(root, rootInstance);
+            known = node != null && node.getProperty() == null;
+            if (known) {
+                table = node;
+                instance = resolvedInstance;
+                recordComments(node);
+            } else if (header != null) {
+                // Arrays of tables can't be bound to sections, they are kept like unknown tables.
+                unknownTable = new StringBuilder();
+                appendPendingComments(unknownTable);
+                unknownTable.append(header);
+                capture = unknownTable;
+            }
+            pendingComments.clear();
+        }
+    }
+
+    /**
+     * @return the comments of a key in the document, null if the key is not in the document.
+     */
+    @Nullable
+    List<String> getComments(@NotNull KeyNode node) {
+        return comments.get(node.getIndex());
+    }
+
+    /**
+     * @return the key/value pairs of a table whose keys are not in the schema.
+     */
+    @NotNull
+    List<String> getUnknownLines(@NotNull KeyNode node) {
+        List<String> lines = unknownLines.get(node.getIndex());
+        return lines == null ? Collections.emptyList() : lines;
+    }
+
+    /**
+     * @return the tables of the document that are not in the schema, each following an empty line.
+     */
+    @NotNull
+    String getUnknownTables() {
+        return unknownTables.toString();
+    }
+
+    @Nullable
+    private Object instance(@NotNull KeyNode node, @Nullable Object parentInstance) {
+        SectionSchema section = node.getSection();
+        if (objectMap == null || section == null) {
+            return parentInstance;
+        }
+        return objectMap.get(section.getType());
+    }
+
+    /**
+     * Resolves the keys that were just parsed relative to a node, the instance of the resolved node is stored in
+     * {@link #resolvedInstance}.
+     *
+     * @return the resolved node, null if the keys are not in the schema.
+     */
+    @Nullable
+    private KeyNode resolve(@NotNull KeyNode node, @Nullable Object instance) {
+        for (String key : keys) {
+            if (node.getProperty() != null) {
+                return null;
+            }
+            node = node.getChild(key);
+            if (node == null) {
+                return null;
+            }
+            instance = instance(node, instance);
+        }
+        resolvedInstance = instance;
+        return node;
+    }
+
+    private void recordComments(@NotNull KeyNode node) {
+        if (comments != null) {
+            comments.set(node.getIndex(), new ArrayList<>(pendingComments));
+        }
+    }
+
+    private void appendPendingComments(@NotNull StringBuilder builder) {
+        for (String comment : pendingComments) {
+            builder.append('#').append(comment).append('\n');
+        }
+    }
+
+    private void parseKeyValue(@NotNull KeyNode table, @Nullable Object instance) throws IOException {
+        StringBuilder keyValue = unknownLines == null ? null : new StringBuilder();
+        capture = keyValue;
+        parseKeys();
+        KeyNode node = resolve(table, instance);
+        expectAssignment();
+        if (node == null) {
+            readValue(false);
+            expectLineEnd();
+            capture = null;
+            if (keyValue != null) {
+                List<String> lines = unknownLines.get(table.getIndex());
+                if (lines == null) {
+                    lines = new ArrayList<>();
+                    unknownLines.set(table.getIndex(), lines);
+                }
+                for (String comment : pendingComments) {
+                    lines.add("#" + comment);
+                }
+                lines.add(trimLineEnd(keyValue));
+            }
+        } else {
+            capture = null;
+            recordComments(node);
+            parseNodeValue(node, resolvedInstance);
+            expectLineEnd();
+        }
+        pendingComments.clear();
+    }
+
+    private void parseNodeValue(@NotNull KeyNode node, @Nullable Object instance) throws IOException {
+        PropertySchema property = node.getProperty();
+        if (property != null) {
+            if (instance == null) {
+                readValue(false);
+            } else {
+                int line = lineNumber;
+                int start = column;
+                record(property, bindValue(property.getBinder(), instance));
+                if (lineNumber == line) {
+                    spans.set(property.getIndex(), line - 1, start, column);
+                }
+            }
+        } else if (peek() == '{') {
+            // An inline table of a section is bound like a table.
+            read();
+            skipTrivia(false);
+            if (peek() == '}') {
+                read();
+                return;
+            }
+            while (true) {
+                skipSpaces();
+                parseKeys();
+                KeyNode child = resolve(node, instance);
+                expectAssignment();
+                if (child == null) {
+                    readValue(false);
+                } else {
+                    parseNodeValue(child, resolvedInstance);
+                }
+                if (!skipSeparator('}')) {
+                    return;
+                }
+            }
+        } else {
+            readValue(false);
+        }
+    }
+
+    private boolean bindValue(@NotNull ValueBinder binder, @NotNull Object instance) throws IOException {
+        int c = peek();
+        if (c == '"' || c == '\'') {
+            return binder.bindString(instance, readString(true));
+        } else if (c == 't' || c == 'f') {
+            return binder.bindBoolean(instance, readBoolean());
+        } else if (c == '[') {
+            ArrayBuilder array = binder.newArray();
+            if (array == null) {
+                return binder.bindObject(instance, readValue(true));
+            }
+            readArray(array);
+            return array.bind(instance);
+        } else if (c == '{') {
+            return binder.bindObject(instance, readValue(true));
+        }
+        // Numbers are bound without boxing them.
+        switch (scanNumberOrDateTime()) {
+            case INTEGER: {
+                return binder.bindLong(instance, longValue);
+            }
+            case FLOAT: {
+                return binder.bindDouble(instance, doubleValue);
+            }
+            default: {
+                return binder.bindObject(instance, dateTimeValue);
+            }
+        }
+    }
+
+    /**
+     * Reads an array into an array property, its elements are added without boxing them.
+     */
+    private void readArray(@NotNull ArrayBuilder array) throws IOException {
+        read();
+        while (true) {
+            skipTrivia(false);
+            int c = peek();
+            if (c == ']') {
+                read();
+                return;
+            }
+            if (c == '"' || c == '\'') {
+                array.addString(readString(true));
+            } else if (c == 't' || c == 'f') {
+                array.addBoolean(readBoolean());
+            } else if (c == '[' || c == '{' || c == -1) {
+                array.addObject(readValue(true));
+            } else {
+                switch (scanNumberOrDateTime()) {
+                    case INTEGER: {
+                        array.addLong(longValue);
+                        break;
+                    }
+                    case FLOAT: {
+                        array.addDouble(doubleValue);
+                        break;
+                    }
+                    default: {
+                        array.addObject(dateTimeValue);
+                    }
+                }
+            }
+            if (!skipSeparator(']')) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads a value, only creating it if it is needed.
+     *
+     * @param build false to skip the value.
+     * @return the value, null if it was skipped.
+     */
+    @Nullable
+    private Object readValue(boolean build) throws IOException {
+        int c = peek();
+        if (c == '"' || c == '\'') {
+            return readString(build);
+        }
+        if (c == 't' || c == 'f') {
+            boolean value = readBoolean();
+            return build ? value : null;
+        }
+        if (c == '[') {
+            read();
+            List<Object> list = build ? new ArrayList<>() : null;
+            while (true) {
+                skipTrivia(false);
+                if (peek() == ']') {
+                    read();
+                    return list;
+                }
+                Object value = readValue(build);
+                if (list != null) {
+                    list.add(value);
+                }
+                if (!skipSeparator(']')) {
+                    return list;
+                }
+            }
+        }
+        if (c == '{') {
+            read();
+            Map<String, Object> map = build ? new LinkedHashMap<>() : null;
+            skipTrivia(false);
+            if (peek() == '}') {
+                read();
+                return map;
+            }
+            while (true) {
+                skipSpaces();
+                parseKeys();
+                List<String> valueKeys = map == null ? null : new ArrayList<>(keys);
+                expectAssignment();
+                Object value = readValue(build);
+                if (map != null) {
+                    putDotted(map, valueKeys, value);
+                }
+                if (!skipSeparator('}')) {
+                    return map;
+                }
+            }
+        }
+        if (c == -1) {
+            throw error("Expected a value.");
+        }
+        switch (scanNumberOrDateTime()) {
+            case INTEGER: {
+                return build ? ValueBinder.boxIntegral(longValue) : null;
+            }
+            case FLOAT: {
+                return build ? doubleValue : null;
+            }
+            default: {
+                return dateTimeValue;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void putDotted(@NotNull Map<String, Object> map, @NotNull List<String> keys, @Nullable Object value) {
+        for (int i = 0; i < keys.size() - 1; i++) {
+            Object child = map.get(keys.get(i));
+            if (!(child instanceof Map)) {
+                child = new LinkedHashMap<String, Object>();
+                map.put(keys.get(i), child);
+            }
+            map = (Map<String, Object>) child;
+        }
+        map.put(keys.get(keys.size() - 1), value);
+    }
+
+    /**
+     * @return true if another entry follows, false if the array or inline table was closed.
+     */
+    private boolean skipSeparator(char end) throws IOException {
+        skipTrivia(false);
+        int c = read();
+        if (c == ',') {
+            skipTrivia(false);
+            if (peek() == end) {
+                // A trailing comma.
+                read();
+                return false;
+            }
+            return true;
+        }
+        if (c != end) {
+            throw error(String.format("Expected ',' or '%s'.", end));
+        }
+        return false;
+    }
+
+    private boolean readBoolean() throws IOException {
+        text.setLength(0);
+        while (isBareKeyChar(peek())) {
+            text.append((char) read());
+        }
+        if (equalsText("true")) {
+            return true;
+        }
+        if (equalsText("false")) {
+            return false;
+        }
+        throw error(String.format("Unknown value '%s'.", text));
+    }
+
+    /**
+     * Scans a number or a date-time into {@link #longValue}, {@link #doubleValue} or {@link #dateTimeValue}.
+     *
+     * @return the type of the value.
+     */
+    private int scanNumberOrDateTime() throws IOException {
+        text.setLength(0);
+        while (true) {
+            int c = peek();
+            if (isBareKeyChar(c) || c == '+' || c == '.' || c == ':') {
+                text.append((char) read());
+            } else if (c == ' ' && text.length() == 10 && text.charAt(4) == '-' && isDigit(peek(1))) {
+                // A date and a time may be separated by a space.
+                read();
+                text.append('T');
+            } else {
+                break;
+            }
+        }
+        if (text.length() == 0) {
+            throw error("Expected a value.");
+        }
+        if ((text.length() > 2 && text.charAt(2) == ':') || (text.length() >= 10 && text.charAt(4) == '-')) {
+            dateTimeValue = parseDateTime();
+            return DATE_TIME;
+        }
+        int start = text.charAt(0) == '+' || text.charAt(0) == '-' ? 1 : 0;
+        if (text.length() - start == 3 && (endsWithText("inf") || endsWithText("nan"))) {
+            doubleValue = text.charAt(start) == 'n' ? Double.NaN
+                : text.charAt(0) == '-' ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+            return FLOAT;
+        }
+        if (start == 0 && text.length() > 2 && text.charAt(0) == '0'
+            && (text.charAt(1) == 'x' || text.charAt(1) == 'o' || text.charAt(1) == 'b')) {
+            longValue = parseInteger(2, text.charAt(1) == 'x' ? 16 : text.charAt(1) == 'o' ? 8 : 2, false);
+            return INTEGER;
+        }
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '.' || c == 'e' || c == 'E') {
+                doubleValue = parseFloat(start);
+                return FLOAT;
+            }
+        }
+        longValue = parseInteger(start, 10, text.charAt(0) == '-');
+        return INTEGER;
+    }
+
+    private long parseInteger(int start, int radix, boolean negative) {
+        if (radix == 10 && text.length() > start + 1 && text.charAt(start) == '0') {
+            throw error("Integers must not have leading zeros.");
+        }
+        long value = 0;
+        boolean digit = false;
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '_' && digit && i + 1 < text.length()) {
+                digit = false;
+                continue;
+            }
+            int d = Character.digit(c, radix);
+            if (d == -1) {
+                throw error(String.format("Invalid number '%s'.", text));
+            }
+            // Accumulated negatively, so Long.MIN_VALUE can be read.
+            if (value < (Long.MIN_VALUE + d) / radix) {
+                throw error(String.format("The integer '%s' is too large.", text));
+            }
+            value = value * radix - d;
+            digit = true;
+        }
+        if (!digit) {
+            throw error(String.format("Invalid number '%s'.", text));
+        }
+        if (!negative) {
+            if (value == Long.MIN_VALUE) {
+                throw error(String.format("The integer '%s' is too large.", text));
+            }
+            value = -value;
+        }
+        return value;
+    }
+
+    private double parseFloat(int start) {
+        // [-+]? int ( . digits )? ( [eE] [-+]? digits )? with underscores only between digits.
+        StringBuilder number = new StringBuilder(text.length());
+        boolean lastDigit = false;
+        boolean exponent = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            boolean isDigit = isDigit(c);
+            boolean valid;
+            if (c == '_') {
+                valid = lastDigit && i + 1 < text.length() && isDigit(text.charAt(i + 1));
+            } else if (c == '.') {
+                valid = lastDigit && !exponent && i + 1 < text.length() && isDigit(text.charAt(i + 1));
+            } else if (c == 'e' || c == 'E') {
+                valid = lastDigit && !exponent;
+                exponent = true;
+            } else if (c == '+' || c == '-') {
+                valid = i == 0 || text.charAt(i - 1) == 'e' || text.charAt(i - 1) == 'E';
+            } else {
+                valid = isDigit;
+            }
+            if (!valid || (i == start + 1 && text.charAt(start) == '0' && isDigit)) {
+                throw error(String.format("Invalid number '%s'.", text));
+            }
+            if (c != '_') {
+                number.append(c);
+            }
+            lastDigit = isDigit;
+        }
+        if (!lastDigit) {
+            throw error(String.format("Invalid number '%s'.", text));
+        }
+        return Double.parseDouble(number.toString());
+    }
+
+    @NotNull
+    private Object parseDateTime() {
+        String value = text.toString().toUpperCase();
+        try {
+            if (value.charAt(2) == ':') {
+                return LocalTime.parse(value);
+            }
+            if (value.length() == 10) {
+                return LocalDate.parse(value);
+            }
+            char last = value.charAt(value.length() - 1);
+            if (last == 'Z' || value.charAt(value.length() - 6) == '+' || value.charAt(value.length() - 6) == '-') {
+                return OffsetDateTime.parse(value);
+            }
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException | StringIndexOutOfBoundsException e) {
+            throw error(String.format("Invalid date-time '%s'.", text));
+        }
+    }
+
+    /**
+     * Reads a basic, literal or multi-line string.
+     *
+     * @param build false to skip the string.
+     * @return the string, null if it was skipped.
+     */
+    @Nullable
+    private String readString(boolean build) throws IOException {
+        int quote = read();
+        boolean multiLine = false;
+        if (peek() == quote) {
+            read();
+            if (peek() != quote) {
+                return build ? "" : null;
+            }
+            read();
+            multiLine = true;
+            // A newline right after the opening quotes is not part of the string.
+            if (peek() == '\r' && peek(1) == '\n') {
+                read();
+            }
+            if (peek() == '\n') {
+                read();
+            }
+        }
+        return readStringBody(quote, multiLine, build);
+    }
+
+    /**
+     * Reads a string after its opening quotes.
+     */
+    @Nullable
+    private String readStringBody(int quote, boolean multiLine, boolean build) throws IOException {
+        text.setLength(0);
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                throw error("Unterminated string.");
+            }
+            if (c == quote) {
+                if (!multiLine) {
+                    break;
+                }
+                int quotes = 1;
+                while (peek() == quote && quotes < 5) {
+                    read();
+                    quotes++;
+                }
+                if (quotes >= 3) {
+                    appendQuotes(quote, quotes - 3, build);
+                    break;
+                }
+                appendQuotes(quote, quotes, build);
+                continue;
+            }
+            if ((c == '\n' || c == '\r') && !multiLine) {
+                throw error("Single-line strings must not contain newlines.");
+            }
+            if (c == '\\' && quote == '"') {
+                readEscape(multiLine, build);
+            } else if (build) {
+                text.append((char) c);
+            }
+        }
+        return build ? text.toString() : null;
+    }
+
+    private void appendQuotes(int quote, int count, boolean build) {
+        if (build) {
+            for (int i = 0; i < count; i++) {
+                text.append((char) quote);
+            }
+        }
+    }
+
+    private void readEscape(boolean multiLine, boolean build) throws IOException {
+        int c = read();
+        if (multiLine && (c == ' ' || c == '\t' || c == '\r' || c == '\n')) {
+            // A line ending backslash trims all whitespace up to the next non-whitespace character.
+            while (true) {
+                int next = peek();
+                if (next != ' ' && next != '\t' && next != '\r' && next != '\n') {
+                    return;
+                }
+                read();
+            }
+        }
+        char escaped;
+        switch (c) {
+            case 'b': {
+                escaped = '\b';
+                break;
+            }
+            case 't': {
+                escaped = '\t';
+                break;
+            }
+            case 'n': {
+                escaped = '\n';
+                break;
+            }
+            case 'f': {
+                escaped = '\f';
+                break;
+            }
+            case 'r': {
+                escaped = '\r';
+                break;
+            }
+            case 'e': {
+                escaped = '\u001B';
+                break;
+            }
+            case '"':
+            case '\\': {
+                escaped = (char) c;
+                break;
+            }
+            case 'x': {
+                appendCodePoint(readHex(2), build);
+                return;
+            }
+            case 'u': {
+                appendCodePoint(readHex(4), build);
+                return;
+            }
+            case 'U': {
+                appendCodePoint(readHex(8), build);
+                return;
+            }
+            default: {
+                throw error(String.format("Unknown escape sequence '\\%s'.", c == -1 ? "" : (char) c));
+            }
+        }
+        if (build) {
+            text.append(escaped);
+        }
+    }
+
+    private void appendCodePoint(int codePoint, boolean build) {
+        if (!Character.isValidCodePoint(codePoint) || (codePoint >= 0xD800 && codePoint <= 0xDFFF)) {
+            throw error("Invalid unicode escape sequence.");
+        }
+        if (build) {
+            text.appendCodePoint(codePoint);
+        }
+    }
+
+    private int readHex(int length) throws IOException {
+        int value = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = Character.digit(read(), 16);
+            if (digit == -1) {
+                throw error("Invalid unicode escape sequence.");
+            }
+            value = value << 4 | digit;
+        }
+        return value;
+    }
+
+    /**
+     * Parses a dotted key into {@link #keys}.
+     */
+    private void parseKeys() throws IOException {
+        keys.clear();
+        while (true) {
+            int c = peek();
+            if (c == '"' || c == '\'') {
+                read();
+                if (peek() == c) {
+                    read();
+                    if (peek() == c) {
+                        throw error("Keys must not be multi-line strings.");
+                    }
+                    keys.add("");
+                } else {
+                    keys.add(readStringBody(c, false, true));
+                }
+            } else {
+                text.setLength(0);
+                while (isBareKeyChar(peek())) {
+                    text.append((char) read());
+                }
+                if (text.length() == 0) {
+                    throw error("Expected a key.");
+                }
+                keys.add(text.toString());
+            }
+            skipSpaces();
+            if (peek() != '.') {
+                return;
+            }
+            read();
+            skipSpaces();
+        }
+    }
+
+    private void expectAssignment() throws IOException {
+        skipSpaces();
+        expect('=');
+        skipSpaces();
+    }
+
+    private void expect(char expected) throws IOException {
+        int c = read();
+        if (c != expected) {
+            throw error(String.format("Expected '%s'.", expected));
+        }
+    }
+
+    private void expectLineEnd() throws IOException {
+        skipSpaces();
+        if (peek() == '#') {
+            skipComment(null);
+        }
+        int c = read();
+        if (c == '\r') {
+            c = read();
+        }
+        if (c != '\n' && c != -1) {
+            throw error("Expected the end of the line.");
+        }
+    }
+
+    /**
+     * Skips whitespace, newlines and comments.
+     *
+     * @param keep true to keep the comments for the next key or table.
+     */
+    private void skipTrivia(boolean keep) throws IOException {
+        while (true) {
+            int c = peek();
+            if (c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+                read();
+            } else if (c == '#') {
+                skipComment(keep && comments != null ? pendingComments : null);
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void skipComment(@Nullable List<String> comments) throws IOException {
+        read();
+        if (comments != null) {
+            text.setLength(0);
+        }
+        while (true) {
+            int c = peek();
+            if (c == -1 || c == '\n' || (c == '\r' && peek(1) == '\n')) {
+                break;
+            }
+            read();
+            if (comments != null) {
+                text.append((char) c);
+            }
+        }
+        if (comments != null) {
+            comments.add(text.toString());
+        }
+    }
+
+    private void skipSpaces() throws IOException {
+        int c = peek();
+        while (c == ' ' || c == '\t') {
+            read();
+            c = peek();
+        }
+    }
+
+    private int peek() throws IOException {
+        return position < limit || fill(1) ? buffer[position] : -1;
+    }
+
+    private int peek(int offset) throws IOException {
+        return position + offset < limit || fill(offset + 1) ? buffer[position + offset] : -1;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill(1)) {
+            return -1;
+        }
+        char c = buffer[position++];
+        if (c == '\n') {
+            lineNumber++;
+            column = 0;
+        } else {
+            column++;
+        }
+        if (capture != null) {
+            capture.append(c);
+        }
+        return c;
+    }
+
+    /**
+     * Moves the unread characters to the start of the window and reads until at least count characters are available.
+     *
+     * @return false if the document ends before.
+     */
+    private boolean fill(int count) throws IOException {
+        int remaining = limit - position;
+        System.arraycopy(buffer, position, buffer, 0, remaining);
+        position = 0;
+        limit = remaining;
+        while (limit < count) {
+            int read = reader.read(buffer, limit, buffer.length - limit);
+            if (read == -1) {
+                return false;
+            }
+            limit += read;
+        }
+        return true;
+    }
+
+    private boolean equalsText(@NotNull String value) {
+        return text.length() == value.length() && endsWithText(value);
+    }
+
+    private boolean endsWithText(@NotNull String value) {
+        int offset = text.length() - value.length();
+        if (offset < 0) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (text.charAt(offset + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @NotNull
+    private static String trimLineEnd(@NotNull StringBuilder builder) {
+        int end = builder.length();
+        while (end > 0 && (builder.charAt(end - 1) == '\n' || builder.charAt(end - 1) == '\r')) {
+            end--;
+        }
+        return builder.substring(0, end);
+    }
+
+    private static boolean isBareKeyChar(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c) || c == '_' || c == '-';
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    @NotNull
+    private ConfigLoadException error(@NotNull String message) {
+        return new ConfigLoadException(String.format("Invalid TOML at line %d: %s", lineNumber, message));
+    }
+}
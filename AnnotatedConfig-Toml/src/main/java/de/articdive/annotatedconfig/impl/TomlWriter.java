@@ -0,0 +1,362 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.impl;
+
+import de.articdive.annotatedconfig.accessor.PropertyAccessor;
+import de.articdive.annotatedconfig.exceptions.ConfigSaveException;
+import de.articdive.annotatedconfig.schema.KeyNode;
+import de.articdive.annotatedconfig.schema.PropertySchema;
+import de.articdive.annotatedconfig.schema.SectionSchema;
+import de.articdive.annotatedconfig.util.ValueSpans;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the properties of a configuration as a TOML document, walking the key tree of its schema.
+ * Sections are written as tables after the properties of their parent, null values are left out as TOML has no null.
+ * Comments and unknown keys are taken from the previous document if there was one.
+ */
+final class TomlWriter {
+    private final StringBuilder builder;
+    private final Map<Class<?>, Object> objectMap;
+    private final TomlParser previous;
+    private final ValueSpans spans;
+
+    /**
+     * @param builder   The builder to append the document to.
+     * @param objectMap The instances of the sections, keyed by their class.
+     * @param previous  The parser that read the previous document, null if there was none.
+     * @param spans     The positions of the written values, null to not record them.
+     */
+    TomlWriter(
+        @NotNull StringBuilder builder, @NotNull Map<Class<?>, Object> objectMap, @Nullable TomlParser previous,
+        @Nullable ValueSpans spans
+    ) {
+        this.builder = builder;
+        this.objectMap = objectMap;
+        this.previous = previous;
+        this.spans = spans;
+    }
+
+    void write(@NotNull KeyNode root) {
+        writeTable(root, objectMap.get(root.getSection().getType()), "");
+        if (previous != null) {
+            builder.append(previous.getUnknownTables());
+        }
+    }
+
+    private void writeTable(@NotNull KeyNode node, @NotNull Object instance, @NotNull String path) {
+        List<KeyNode> tables = new ArrayList<>();
+        writeKeys(node, instance, "", tables);
+        if (previous != null) {
+            for (String line : previous.getUnknownLines(node)) {
+                builder.append(line).append('\n');
+            }
+        }
+        // Tables have to follow all keys of their parent table.
+        for (KeyNode table : tables) {
+            SectionSchema section = table.getSection();
+            String tablePath = path.isEmpty() ? quoteKey(table.getKey()) : path + '.' + quoteKey(table.getKey());
+            if (builder.length() > 0) {
+                builder.append('\n');
+            }
+            writeComments(table);
+            builder.append('[').append(tablePath).append("]\n");
+            writeTable(table, section == null ? instance : objectMap.get(section.getType()), tablePath);
+        }
+    }
+
+    /**
+     * Writes the properties below a node as dotted keys and collects the tables below it.
+     */
+    private void writeKeys(
+        @NotNull KeyNode node, @NotNull Object instance, @NotNull String prefix, @NotNull List<KeyNode> tables
+    ) {
+        for (KeyNode child : node.getChildren()) {
+            PropertySchema property = child.getProperty();
+            if (property == null) {
+                if (child.getSection() != null || !containsOnlyProperties(child)) {
+                    tables.add(child);
+                } else {
+                    writeKeys(child, instance, prefix + quoteKey(child.getKey()) + '.', tables);
+                }
+                continue;
+            }
+            PropertyAccessor accessor = property.getAccessor();
+            boolean primitive = accessor.getType().isPrimitive();
+            Object value = primitive ? null : property.getBinder().read(instance);
+            if (!primitive && value == null) {
+                continue;
+            }
+            writeComments(child);
+            builder.append(prefix).append(quoteKey(child.getKey())).append(" = ");
+            int start = builder.length();
+            if (primitive) {
+                writePrimitive(accessor, instance);
+            } else {
+                writeValue(value);
+            }
+            if (spans != null) {
+                spans.setOffsets(property.getIndex(), builder, start, builder.length());
+            }
+            builder.append('\n');
+        }
+    }
+
+    private static boolean containsOnlyProperties(@NotNull KeyNode node) {
+        for (KeyNode child : node.getChildren()) {
+            if (child.getProperty() == null && (child.getSection() != null || !containsOnlyProperties(child))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeComments(@NotNull KeyNode node) {
+        List<String> comments = previous == null ? null : previous.getComments(node);
+        if (comments != null) {
+            // Comments of the previous document are written as they were.
+            for (String comment : comments) {
+                builder.append('#').append(comment).append('\n');
+            }
+            return;
+        }
+        List<String> annotatedComments = node.getProperty() != null ? node.getProperty().getComments()
+            : node.getSection() != null ? node.getSection().getComments() : null;
+        if (annotatedComments != null) {
+            for (String comment : annotatedComments) {
+                builder.append("# ").append(comment).append('\n');
+            }
+        }
+    }
+
+    /**
+     * Writes the value of a property as it follows its key, values are always written on a single line.
+     *
+     * @return false if nothing was written, the property is null and has to be left out.
+     */
+    boolean writeInlineValue(@NotNull PropertySchema property, @NotNull Object instance) {
+        PropertyAccessor accessor = property.getAccessor();
+        if (accessor.getType().isPrimitive()) {
+            writePrimitive(accessor, instance);
+            return true;
+        }
+        Object value = property.getBinder().read(instance);
+        if (value == null) {
+            return false;
+        }
+        writeValue(value);
+        return true;
+    }
+
+    private void writePrimitive(@NotNull PropertyAccessor accessor, @NotNull Object instance) {
+        Class<?> type = accessor.getType();
+        // Primitives are written without boxing them.
+        if (type == int.class || type == short.class || type == byte.class) {
+            builder.append(accessor.getInt(instance));
+        } else if (type == long.class) {
+            builder.append(accessor.getLong(instance));
+        } else if (type == double.class) {
+            writeDouble(accessor.getDouble(instance));
+        } else if (type == float.class) {
+            writeFloat(accessor.getFloat(instance));
+        } else if (type == boolean.class) {
+            builder.append(accessor.getBoolean(instance));
+        } else {
+            writeValue(accessor.get(instance));
+        }
+    }
+
+    private void writeValue(@Nullable Object value) {
+        if (value == null) {
+            throw new ConfigSaveException("Can't save null inside of an array or inline table as TOML.");
+        } else if (value instanceof String) {
+            writeString((String) value);
+        } else if (value instanceof Double) {
+            writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            writeFloat((Float) value);
+        } else if (value instanceof Number || value instanceof Boolean) {
+            builder.append(value);
+        } else if (value instanceof Character || value instanceof Enum) {
+            writeString(value.toString());
+        } else if (value instanceof OffsetDateTime) {
+            builder.append(DateTimeFormatter.ISO_OFFSET_DATE_TIME.format((OffsetDateTime) value));
+        } else if (value instanceof LocalDateTime) {
+            builder.append(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format((LocalDateTime) value));
+        } else if (value instanceof LocalDate) {
+            builder.append(DateTimeFormatter.ISO_LOCAL_DATE.format((LocalDate) value));
+        } else if (value instanceof LocalTime) {
+            builder.append(DateTimeFormatter.ISO_LOCAL_TIME.format((LocalTime) value));
+        } else if (value.getClass().isArray()) {
+            writeArray(value);
+        } else if (value instanceof Collection) {
+            builder.append('[');
+            boolean first = true;
+            for (Object item : (Collection<?>) value) {
+                if (!first) {
+                    builder.append(", ");
+                }
+                first = false;
+                writeValue(item);
+            }
+            builder.append(']');
+        } else if (value instanceof Map) {
+            if (((Map<?, ?>) value).isEmpty()) {
+                builder.append("{}");
+                return;
+            }
+            builder.append("{ ");
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    builder.append(", ");
+                }
+                first = false;
+                builder.append(quoteKey(String.valueOf(entry.getKey()))).append(" = ");
+                writeValue(entry.getValue());
+            }
+            builder.append(" }");
+        } else {
+            throw new ConfigSaveException(String.format("Can't save a value of type %s as TOML.", value.getClass()));
+        }
+    }
+
+    /**
+     * Writes the arrays of array properties without boxing their elements.
+     */
+    private void writeArray(@NotNull Object array) {
+        builder.append('[');
+        if (array instanceof int[]) {
+            for (int i = 0; i < ((int[]) array).length; i++) {
+                separate(i).append(((int[]) array)[i]);
+            }
+        } else if (array instanceof long[]) {
+            for (int i = 0; i < ((long[]) array).length; i++) {
+                separate(i).append(((long[]) array)[i]);
+            }
+        } else if (array instanceof double[]) {
+            for (int i = 0; i < ((double[]) array).length; i++) {
+                separate(i);
+                writeDouble(((double[]) array)[i]);
+            }
+        } else if (array instanceof byte[]) {
+            for (int i = 0; i < ((byte[]) array).length; i++) {
+                separate(i).append(((byte[]) array)[i]);
+            }
+        } else {
+            Object[] items = (Object[]) array;
+            for (int i = 0; i < items.length; i++) {
+                separate(i);
+                writeValue(items[i]);
+            }
+        }
+        builder.append(']');
+    }
+
+    @NotNull
+    private StringBuilder separate(int index) {
+        return index == 0 ? builder : builder.append(", ");
+    }
+
+    private void writeDouble(double value) {
+        if (Double.isNaN(value)) {
+            builder.append("nan");
+        } else if (Double.isInfinite(value)) {
+            builder.append(value > 0 ? "inf" : "-inf");
+        } else {
+            builder.append(value);
+        }
+    }
+
+    private void writeFloat(float value) {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            writeDouble(value);
+        } else {
+            builder.append(value);
+        }
+    }
+
+    @NotNull
+    private static String quoteKey(@NotNull String key) {
+        if (key.isEmpty()) {
+            return "\"\"";
+        }
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '-')) {
+                StringBuilder quoted = new StringBuilder();
+                appendBasicString(quoted, key);
+                return quoted.toString();
+            }
+        }
+        return key;
+    }
+
+    private void writeString(@NotNull String value) {
+        appendBasicString(builder, value);
+    }
+
+    private static void appendBasicString(@NotNull StringBuilder builder, @NotNull String value) {
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': {
+                    builder.append("\\\"");
+                    break;
+                }
+                case '\\': {
+                    builder.append("\\\\");
+                    break;
+                }
+                case '\n': {
+                    builder.append("\\n");
+                    break;
+                }
+                case '\r': {
+                    builder.append("\\r");
+                    break;
+                }
+                case '\t': {
+                    builder.append("\\t");
+                    break;
+                }
+                default: {
+                    if (c < ' ' || c == '\u007F') {
+                        builder.append(String.format("\\u%04X", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        builder.append('"');
+    }
+}
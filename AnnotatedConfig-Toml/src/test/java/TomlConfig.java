@@ -46,6 +46,10 @@ public class TomlConfig extends TomlConfiguration {
     @Comment("Comment")
     public long longValue = 1L;
 
+    public <T> T getSection(Class<T> sectionClass) {
+        return sectionClass.cast(objectMap.get(sectionClass));
+    }
+
     // Extreme nesting example
     @Section("a")
     @Comment("Section A")
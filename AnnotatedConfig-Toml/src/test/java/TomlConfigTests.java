@@ -15,21 +15,362 @@
  * You should have received a copy of the GNU General Public License
  * along with this program.  If not, see <https://www.gnu.org/licenses/>.
  */
-
+import de.articdive.annotatedconfig.annotations.OverrideNaming;
+import de.articdive.annotatedconfig.annotations.Overrides;
+import de.articdive.annotatedconfig.annotations.Property;
+import de.articdive.annotatedconfig.annotations.Section;
+import de.articdive.annotatedconfig.api.SaveResult;
+import de.articdive.annotatedconfig.impl.TomlConfiguration;
+import de.articdive.annotatedconfig.schema.ConfigSchema;
+import de.articdive.annotatedconfig.schema.OverrideIndex;
+import de.articdive.annotatedconfig.util.FileUtil;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TomlConfigTests {
     @TempDir
     File temporaryDirectory;
 
     @Test
-    public void testYamlConfigSave() {
+    public void testTomlConfigSave() {
+        TomlConfig saveConfig = TomlConfig.createConfiguration(
+            new File(temporaryDirectory + File.separator + "save.toml"),
+            TomlConfig.class
+        );
+
+        String output = saveConfig.strOutput();
+        String expected;
+        try {
+            expected = new String(Files.readAllBytes(Paths.get(getClass().getResource("save.toml").toURI())));
+        } catch (IOException | URISyntaxException e) {
+            // Wont happen
+            Assertions.fail(e);
+            return;
+        }
+
+        assertEquals(expected.replaceAll("\r\n", "\n"), output);
+    }
+
+    @Test
+    public void testTomlConfigLoad() {
+        TomlConfig loadConfig = TomlConfig.createConfiguration(
+            new File(temporaryDirectory + File.separator + "load.toml"),
+            true,
+            getClass().getResource("load.toml"),
+            TomlConfig.class
+        );
+
+        String output = loadConfig.strOutput();
+        Assertions.assertAll(() ->
+        {
+            // Check that the updated values were passed to the fields.
+            assertEquals("", loadConfig.getSection(TomlConfig.SectionA.class).name);
+            assertEquals("Tommy", loadConfig.getSection(TomlConfig.SectionA.SectionB.class).name);
+            assertEquals("Samuel", loadConfig.getSection(TomlConfig.SectionA.SectionB.SectionC.class).name);
+            assertEquals("", loadConfig.getSection(TomlConfig.SectionA.SectionB.SectionD.class).name);
+            assertEquals(Arrays.asList("Hello", "John", "was", "here!"), loadConfig.listTest);
+            assertEquals(1.11, loadConfig.doubleValue);
+            assertFalse(loadConfig.booleanValue);
+            // The comments of the file are kept.
+            assertTrue(output.contains("# Section A Keep\n[a]\n# This is a name. Keep\nname = \"\"\n"));
+            assertTrue(output.contains("# This is a name. Keep\nname = \"Samuel\"\n"));
+            assertTrue(output.contains("# Comment Keep\nlong = 1\n"));
+        });
+    }
+
+    @Test
+    public void testTomlConfigLargeFile() throws IOException {
+        // Files above the threshold are read through a memory mapping.
+        List<String> entries = new ArrayList<>();
+        StringBuilder content = new StringBuilder("list = [\n");
+        for (int i = 0; content.length() < FileUtil.MAPPED_READ_THRESHOLD * 2; i++) {
+            String entry = "entry-" + i + "-\u00e9\u4e16\ud83d\ude00";
+            entries.add(entry);
+            content.append("    \"").append(entry).append("\",\n");
+        }
+        content.append("]\n");
+        File file = new File(temporaryDirectory + File.separator + "large.toml");
+        Files.write(file.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+
+        TomlConfig config = TomlConfig.createConfiguration(file, TomlConfig.class);
+        assertEquals(entries, config.listTest);
+    }
+
+    @Test
+    public void testTomlConfigSyntax() throws IOException {
+        File file = new File(temporaryDirectory + File.separator + "syntax.toml");
+        Files.write(file.toPath(), String.join("\n",
+            "# Comment Keep",
+            "integer = 0x1F # Trailing comment",
+            "double = -5_0.5e-1",
+            "special = -inf",
+            "boolean = true",
+            "list = [",
+            "    \"a, b\", 'C:\\path', # Comment in an array",
+            "    \"\"\"",
+            "multi\\",
+            "    line\"\"\",",
+            "]",
+            "date = 1979-05-27 07:32:00Z",
+            "inline = { x = 1, y.z = [2] }",
+            "unknown = \"kept\"",
+            "",
+            "[other]",
+            "nested = [1, 2]",
+            "",
+            "[[fruits]]",
+            "name = \"apple\"",
+            "",
+            "[a]",
+            "\"name\" = '''",
+            "Line 1",
+            "  Line 2'''",
+            "b = { name = \"inline\", escaped = \"\\u00e9\\t\\\"\" }"
+        ).getBytes(StandardCharsets.UTF_8));
+        SyntaxConfig config = SyntaxConfig.createConfiguration(file, SyntaxConfig.class);
+        SyntaxConfig.SectionB sectionB = config.getSection(SyntaxConfig.SectionB.class);
+
+        Map<String, Object> inline = new LinkedHashMap<>();
+        inline.put("x", 1);
+        inline.put("y", Collections.singletonMap("z", Collections.singletonList(2)));
+        String output = config.strOutput();
+        Assertions.assertAll(() ->
+        {
+            assertEquals(31, config.intValue);
+            assertEquals(-5.05, config.doubleValue);
+            assertEquals(Double.NEGATIVE_INFINITY, config.special);
+            assertTrue(config.booleanValue);
+            assertEquals(Arrays.asList("a, b", "C:\\path", "multiline"), config.list);
+            assertEquals(OffsetDateTime.parse("1979-05-27T07:32:00Z"), config.date);
+            assertEquals(inline, config.inline);
+            assertEquals("Line 1\n  Line 2", config.name);
+            assertEquals("inline", sectionB.name);
+            assertEquals("\u00e9\t\"", sectionB.escaped);
+            // Comments, unknown keys and unknown tables are written again.
+            assertTrue(output.contains("# Comment Keep\ninteger = 31\n"));
+            assertTrue(output.contains("unknown = \"kept\"\n"));
+            assertTrue(output.contains("\n[other]\nnested = [1, 2]\n"));
+            assertTrue(output.contains("\n[[fruits]]\nname = \"apple\"\n"));
+            // The written document is read back unchanged.
+            config.reload();
+            assertEquals(SaveResult.UNCHANGED, config.save());
+            assertEquals("\u00e9\t\"", sectionB.escaped);
+            assertEquals(inline, config.inline);
+        });
+    }
+
+    @Test
+    public void testTomlConfigArrays() throws IOException {
+        File file = new File(temporaryDirectory + File.separator + "arrays.toml");
+        Files.write(file.toPath(), String.join("\n",
+            "ints = [1, 2, 3]",
+            "longs = [",
+            "    5_000_000_000, # Comment in an array",
+            "    -1,",
+            "]",
+            "doubles = [1, 2.5, inf]",
+            "bytes = [-128, 127]",
+            "strings = [\"a\", 'b c']",
+            "mismatched = [1, 1.5]"
+        ).getBytes(StandardCharsets.UTF_8));
+        ArraysConfig config = ArraysConfig.createConfiguration(file, ArraysConfig.class);
+        String output = config.strOutput();
+
+        Assertions.assertAll(() ->
+        {
+            assertArrayEquals(new int[]{1, 2, 3}, config.ints);
+            assertArrayEquals(new long[]{5000000000L, -1}, config.longs);
+            assertArrayEquals(new double[]{1, 2.5, Double.POSITIVE_INFINITY}, config.doubles);
+            assertArrayEquals(new byte[]{-128, 127}, config.bytes);
+            assertArrayEquals(new String[]{"a", "b c"}, config.strings);
+            // 1.5 doesn't fit an int, the array keeps its value.
+            assertArrayEquals(new int[]{7}, config.mismatched);
+            assertTrue(output.contains("ints = [1, 2, 3]\n"));
+            // The written arrays are read back unchanged.
+            config.reload();
+            assertEquals(SaveResult.UNCHANGED, config.save());
+            assertArrayEquals(new long[]{5000000000L, -1}, config.longs);
+            assertArrayEquals(new String[]{"a", "b c"}, config.strings);
+        });
     }
 
     @Test
-    public void testYamlConfigLoad() {
+    public void testTomlConfigOverrides() throws IOException {
+        File file = new File(temporaryDirectory + File.separator + "overrides.toml");
+        Files.write(file.toPath(), "port = 80\nserver.name = \"file\"\n".getBytes(StandardCharsets.UTF_8));
+        System.setProperty("TOML_PORT", "8080");
+        System.setProperty("TOML_SERVER_MAX_SIZE", "64");
+        OverriddenConfig config;
+        String content;
+        int reloaded;
+        try {
+            config = OverriddenConfig.createConfiguration(file, OverriddenConfig.class);
+            content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+            System.setProperty("TOML_PORT", "9090");
+            config.reload();
+            reloaded = config.port;
+        } finally {
+            System.clearProperty("TOML_PORT");
+            System.clearProperty("TOML_SERVER_MAX_SIZE");
+        }
+        config.reload();
+        OverrideIndex index = ConfigSchema.of(OverriddenConfig.class).getSystemPropertyOverrides();
+
+        Assertions.assertAll(() ->
+        {
+            assertEquals("TOML_SERVER_MAX_SIZE", index.getName(ConfigSchema.of(OverriddenConfig.class)
+                .getProperties().get(1)));
+            assertTrue(content.contains("port = 80\n"));
+            assertTrue(content.contains("max-size = 1\n"));
+            assertEquals(9090, reloaded);
+            // Without the system properties the values of the file apply again.
+            assertEquals(80, config.port);
+            assertEquals(1L, config.maxSize);
+            assertEquals("file", config.name);
+        });
+    }
+
+    @Test
+    public void testTomlConfigPatch() throws IOException {
+        File file = new File(temporaryDirectory + File.separator + "patch.toml");
+        Files.write(file.toPath(), String.join("\n",
+            "# Kept as written",
+            "integer   =   5   #  trailing",
+            "name = 'old'",
+            "list = [ \"a\",\"b\" ]",
+            ""
+        ).getBytes(StandardCharsets.UTF_8));
+        PatchConfig config = PatchConfig.createConfiguration(file, PatchConfig.class);
+        config.intValue = 6;
+        config.name = "new value";
+        SaveResult patched = config.save();
+        String patchedContent = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        SaveResult unchanged = config.save();
+        config.reload();
+        int reloadedInt = config.intValue;
+        String reloadedName = config.name;
+        // A property set to null is removed from the file, which renders it in full.
+        config.name = null;
+        SaveResult rendered = config.save();
+        String renderedContent = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+
+        Assertions.assertAll(() ->
+        {
+            assertEquals(SaveResult.WRITTEN, patched);
+            // Only the changed values are replaced, everything else stays byte-identical.
+            assertEquals(String.join("\n",
+                "# Kept as written",
+                "integer   =   6   #  trailing",
+                "name = \"new value\"",
+                "list = [ \"a\",\"b\" ]",
+                ""
+            ), patchedContent);
+            assertEquals(SaveResult.UNCHANGED, unchanged);
+            assertEquals(6, reloadedInt);
+            assertEquals("new value", reloadedName);
+            assertEquals(SaveResult.WRITTEN, rendered);
+            assertFalse(renderedContent.contains("name"));
+            assertTrue(renderedContent.contains("integer = 6"));
+        });
+    }
+
+    public static class PatchConfig extends TomlConfiguration {
+        @Property("integer")
+        public int intValue;
+
+        @Property("name")
+        public String name;
+
+        @Property("list")
+        public List<String> list;
+    }
+
+    @Overrides(
+        environment = false, systemPropertyPrefix = "TOML_", systemPropertyNaming = OverrideNaming.UPPER_SNAKE_CASE
+    )
+    public static class OverriddenConfig extends TomlConfiguration {
+        @Property("port")
+        public int port;
+
+        @Property("server.max-size")
+        public long maxSize = 1;
+
+        @Property("server.name")
+        public String name;
+    }
+
+    public static class ArraysConfig extends TomlConfiguration {
+        @Property("ints")
+        public int[] ints = {0};
+
+        @Property("longs")
+        public long[] longs;
+
+        @Property("doubles")
+        public double[] doubles;
+
+        @Property("bytes")
+        public byte[] bytes;
+
+        @Property("strings")
+        public String[] strings;
+
+        @Property("mismatched")
+        public int[] mismatched = {7};
+    }
+
+    public static class SyntaxConfig extends TomlConfig {
+        @Property("integer")
+        public int intValue;
+
+        @Property("double")
+        public double doubleValue;
+
+        @Property("special")
+        public double special;
+
+        @Property("boolean")
+        public boolean booleanValue;
+
+        @Property("list")
+        public List<Object> list;
+
+        @Property("date")
+        public OffsetDateTime date;
+
+        @Property("inline")
+        public Map<String, Object> inline;
+
+        @Property("a.name")
+        public String name;
+
+        @Section("a.b")
+        public static class SectionB {
+            @Property("name")
+            public String name;
+
+            @Property("escaped")
+            public String escaped;
+        }
     }
 }
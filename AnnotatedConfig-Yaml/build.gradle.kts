@@ -1,6 +1,5 @@
 dependencies {
     api(project(":AnnotatedConfig-Core"))
-    api("com.amihaiemil.web:eo-yaml:5.1.0")
 }
 
 publishing {
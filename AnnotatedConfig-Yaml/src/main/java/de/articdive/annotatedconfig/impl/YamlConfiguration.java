@@ -19,19 +19,118 @@
 package de.articdive.annotatedconfig.impl;
 
 import de.articdive.annotatedconfig.api.Configuration;
+import de.articdive.annotatedconfig.exceptions.ConfigLoadException;
+import de.articdive.annotatedconfig.exceptions.ConfigSaveException;
+import de.articdive.annotatedconfig.schema.PropertySchema;
+import de.articdive.annotatedconfig.util.FileUtil;
+import de.articdive.annotatedconfig.util.ValueSpans;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-public class YamlConfiguration extends Configuration {
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.List;
+
+public abstract class YamlConfiguration extends Configuration {
+    protected volatile String output;
+    // The positions of the scalars in the file as it was last loaded or saved.
+    private ValueSpans spans;
+
+    @Override
+    protected final void load() {
+        // Ensure the file is valid.
+        if (!file.exists()) {
+            handleFileCreation();
+        }
+
+        // Properties are bound while the file is read, there is no intermediate document.
+        try (BufferedReader reader = new BufferedReader(FileUtil.openReader(file))) {
+            ValueSpans spans = new ValueSpans(schema.getProperties().size());
+            YamlParser parser = new YamlParser(reader, objectMap, spans);
+            parser.parse(schema.getKeyTree());
+            this.spans = spans;
+            recordBound(parser.getBound(), parser.getMismatched());
+        } catch (IOException e) {
+            throw new ConfigLoadException("Failed to load configuration from file.", e);
+        }
+        // The output is rendered again when it is asked for.
+        output = null;
+    }
 
     @Override
-    protected void load() {
+    protected void loadedFromCache() {
+        output = null;
+        spans = null;
+    }
+
+    @Override
+    protected final String render() {
+        // The text is saved to the file, a later patch finds the scalars in it.
+        ValueSpans spans = new ValueSpans(schema.getProperties().size());
+        String output = render(spans);
+        this.spans = spans;
+        return output;
+    }
+
+    @NotNull
+    private String render(@Nullable ValueSpans spans) {
+        // Read the comments and unknown keys of the current file.
+        YamlParser previous = null;
+        if (file.exists()) {
+            try (BufferedReader reader = new BufferedReader(FileUtil.openReader(file))) {
+                previous = new YamlParser(reader, schema.getKeyNodeCount());
+                previous.parse(schema.getKeyTree());
+            } catch (IOException e) {
+                throw new ConfigSaveException("Failed to read the comments of the configuration file.", e);
+            }
+        }
+
+        StringBuilder builder = new StringBuilder();
+        new YamlWriter(builder, objectMap, previous, spans).write(schema.getKeyTree());
+        String output = builder.toString();
+        this.output = output;
+        return output;
     }
 
     @Override
-    protected void save() {
+    protected final String patch(@NotNull String text, @NotNull List<PropertySchema> changed) {
+        ValueSpans spans = this.spans;
+        if (spans == null) {
+            return null;
+        }
+        int[] indexes = new int[changed.size()];
+        String[] values = new String[changed.size()];
+        StringBuilder builder = new StringBuilder();
+        YamlWriter writer = new YamlWriter(builder, objectMap, null, null);
+        for (int i = 0; i < indexes.length; i++) {
+            PropertySchema property = changed.get(i);
+            indexes[i] = property.getIndex();
+            builder.setLength(0);
+            // Collections are written below their key, only scalars replace a scalar on the key's line.
+            if (!spans.contains(indexes[i])
+                || !writer.writeInlineValue(property, objectMap.get(property.getSection().getType()))) {
+                return null;
+            }
+            values[i] = builder.substring(1);
+        }
+        String patched = spans.replace(text, indexes, values);
+        if (patched != null) {
+            output = patched;
+        }
+        return patched;
     }
 
     @Override
     public String strOutput() {
-        return null;
+        String output = this.output;
+        if (output == null) {
+            synchronized (this) {
+                output = this.output;
+                if (output == null) {
+                    output = render(null);
+                }
+            }
+        }
+        return output;
     }
 }
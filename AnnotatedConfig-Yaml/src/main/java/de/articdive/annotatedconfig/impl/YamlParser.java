@@ -0,0 +1,1139 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.impl;
+
+import de.articdive.annotatedconfig.accessor.ArrayBuilder;
+import de.articdive.annotatedconfig.accessor.ValueBinder;
+import de.articdive.annotatedconfig.exceptions.ConfigLoadException;
+import de.articdive.annotatedconfig.schema.KeyNode;
+import de.articdive.annotatedconfig.schema.PropertySchema;
+import de.articdive.annotatedconfig.schema.SectionSchema;
+import de.articdive.annotatedconfig.util.ValueSpans;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a YAML document line by line in a single pass, walking the key tree of the schema along with the document's
+ * mappings. Properties are bound as soon as their value was read, so the document is never held in memory.
+ * The parser supports the block and flow styles commonly used for configuration files, anchors, aliases, tags and
+ * complex keys are rejected.
+ */
+final class YamlParser {
+    private static final int NULL = 0;
+    private static final int BOOLEAN = 1;
+    private static final int INTEGER = 2;
+    private static final int FLOAT = 3;
+    private static final int STRING = 4;
+
+    private final BufferedReader reader;
+    private final Map<Class<?>, Object> objectMap;
+    private final List<List<String>> comments;
+    private final List<List<String>> unknownLines;
+    private final List<String> pendingComments = new ArrayList<>();
+
+    private String line;
+    private int lineNumber;
+    private int indent;
+    private int position;
+
+    private int scalarType;
+    private boolean booleanValue;
+    private long longValue;
+    private double doubleValue;
+    private String stringValue;
+
+    private final BitSet bound = new BitSet();
+    private int mismatched;
+    private final ValueSpans spans;
+    // The length of the byte order mark removed from the first line.
+    private int firstLineOffset;
+
+    /**
+     * Creates a parser binding the values of the document to the section instances.
+     *
+     * @param reader    The document.
+     * @param objectMap The instances of the sections, keyed by their class.
+     * @param spans     The positions of the bound scalars, recorded while they are read.
+     */
+    YamlParser(
+        @NotNull BufferedReader reader, @NotNull Map<Class<?>, Object> objectMap, @NotNull ValueSpans spans
+    ) {
+        this.reader = reader;
+        this.objectMap = objectMap;
+        this.comments = null;
+        this.unknownLines = null;
+        this.spans = spans;
+    }
+
+    /**
+     * Creates a parser that doesn't bind anything, but records the comments of known keys and the lines of unknown
+     * keys so they can be written again.
+     *
+     * @param reader    The document.
+     * @param nodeCount The number of nodes in the key tree.
+     */
+    @SuppressWarnings("unchecked")
+    YamlParser(@NotNull BufferedReader reader, int nodeCount) {
+        this.reader = reader;
+        this.objectMap = null;
+        this.comments = new ArrayList<>(Collections.nCopies(nodeCount, null));
+        this.unknownLines = new ArrayList<>(Collections.nCopies(nodeCount, null));
+        this.spans = null;
+    }
+
+    void parse(@NotNull KeyNode root) throws IOException {
+        nextLine();
+        skipBlank();
+        if (line == null) {
+            return;
+        }
+        char c = line.charAt(position);
+        if (c == '{' || c == '[') {
+            // Only an empty document can be written as a flow collection.
+            Object value = parseInlineValue(indent);
+            if (!(value instanceof Map) || !((Map<?, ?>) value).isEmpty()) {
+                throw error("The document must be a mapping.");
+            }
+        } else {
+            parseMapping(indent, root, instance(root, null));
+        }
+        skipBlank();
+        if (line != null) {
+            throw error("Unexpected indentation.");
+        }
+    }
+
+    /**
+     * @return the indexes of the properties bound from the document.
+     */
+    @NotNull
+    BitSet getBound() {
+        return bound;
+    }
+
+    /**
+     * @return the number of properties whose value in the document didn't fit their type.
+     */
+    int getMismatched() {
+        return mismatched;
+    }
+
+    private void record(@NotNull PropertySchema property, boolean set) {
+        if (set) {
+            bound.set(property.getIndex());
+        } else {
+            mismatched++;
+        }
+    }
+
+    /**
+     * @return the comments of a key in the document, null if the key is not in the document.
+     */
+    @Nullable
+    List<String> getComments(@NotNull KeyNode node) {
+        return comments.get(node.getIndex());
+    }
+
+    /**
+     * @return the lines of the keys of a mapping that are not in the schema, without the mapping's indentation.
+     */
+    @NotNull
+    List<String> getUnknownLines(@NotNull KeyNode node) {
+        List<String> lines = unknownLines.get(node.getIndex());
+        return lines == null ? Collections.emptyList() : lines;
+    }
+
+    @Nullable
+    private Object instance(@NotNull KeyNode node, @Nullable Object parentInstance) {
+        SectionSchema section = node.getSection();
+        if (objectMap == null || section == null) {
+            return parentInstance;
+        }
+        return objectMap.get(section.getType());
+    }
+
+    private void parseMapping(int mappingIndent, @NotNull KeyNode node, @Nullable Object instance) throws IOException {
+        while (true) {
+            skipBlank();
+            if (line == null || indent < mappingIndent) {
+                return;
+            }
+            if (indent > mappingIndent || isSequenceEntry()) {
+                throw error("Unexpected indentation.");
+            }
+            String key = parseKey();
+            KeyNode child = node.getChild(key);
+            if (child == null) {
+                skipUnknown(node, mappingIndent);
+                continue;
+            }
+            if (comments != null) {
+                comments.set(child.getIndex(), new ArrayList<>(pendingComments));
+            }
+            pendingComments.clear();
+
+            PropertySchema property = child.getProperty();
+            if (property != null) {
+                parseProperty(property, instance, mappingIndent);
+                continue;
+            }
+            skipSpaces();
+            if (!isLineEnd()) {
+                // A section written as a scalar or flow collection (e.g. "{}") keeps its defaults.
+                parseInlineValue(mappingIndent);
+                continue;
+            }
+            nextLine();
+            skipBlank();
+            if (line != null && indent > mappingIndent && !isSequenceEntry()) {
+                parseMapping(indent, child, instance(child, instance));
+            } else if (line != null && (indent > mappingIndent || (indent == mappingIndent && isSequenceEntry()))) {
+                // A section written as a sequence keeps its defaults.
+                parseBlockNode(mappingIndent);
+            }
+        }
+    }
+
+    private void parseProperty(
+        @NotNull PropertySchema property, @Nullable Object instance, int keyIndent
+    ) throws IOException {
+        skipSpaces();
+        char c = isLineEnd() ? '#' : line.charAt(position);
+        ArrayBuilder array = instance == null ? null : property.getBinder().newArray();
+        if (array != null && (c == '#' || c == '[')) {
+            Object value = parseArray(array, keyIndent);
+            boolean set = value == array ? array.bind(instance) : property.getBinder().bindObject(instance, value);
+            record(property, set);
+            return;
+        }
+        if (c == '#' || c == '[' || c == '{' || c == '|' || c == '>') {
+            Object value = parseValue(keyIndent);
+            if (instance != null) {
+                record(property, property.getBinder().bindObject(instance, value));
+            }
+            return;
+        }
+        // Scalars are bound without boxing them.
+        int start = position;
+        scanScalar(false);
+        if (instance != null) {
+            int offset = lineNumber == 1 ? firstLineOffset : 0;
+            spans.set(property.getIndex(), lineNumber - 1, start + offset, position + offset);
+        }
+        expectLineEnd();
+        nextLine();
+        if (instance == null) {
+            return;
+        }
+        ValueBinder binder = property.getBinder();
+        switch (scalarType) {
+            case NULL: {
+                record(property, binder.bindNull(instance));
+                break;
+            }
+            case BOOLEAN: {
+                record(property, binder.bindBoolean(instance, booleanValue));
+                break;
+            }
+            case INTEGER: {
+                record(property, binder.bindLong(instance, longValue));
+                break;
+            }
+            case FLOAT: {
+                record(property, binder.bindDouble(instance, doubleValue));
+                break;
+            }
+            default: {
+                record(property, binder.bindString(instance, stringValue));
+            }
+        }
+    }
+
+    /**
+     * Parses the value after a key, either on the key's line or below it.
+     */
+    @Nullable
+    private Object parseValue(int keyIndent) throws IOException {
+        skipSpaces();
+        if (!isLineEnd()) {
+            return parseInlineValue(keyIndent);
+        }
+        nextLine();
+        skipBlank();
+        if (line != null && (indent > keyIndent || (indent == keyIndent && isSequenceEntry()))) {
+            return parseBlockNode(keyIndent);
+        }
+        // Nothing is the same as null.
+        return null;
+    }
+
+    /**
+     * Parses the value after the key of an array property, the elements of a sequence are added to the array as they
+     * are read.
+     *
+     * @return the array if the value was a sequence, otherwise the value.
+     */
+    @Nullable
+    private Object parseArray(@NotNull ArrayBuilder array, int keyIndent) throws IOException {
+        skipSpaces();
+        if (!isLineEnd()) {
+            parseFlowSequence(array);
+            expectLineEnd();
+            nextLine();
+            return array;
+        }
+        nextLine();
+        skipBlank();
+        if (line != null && (indent > keyIndent || (indent == keyIndent && isSequenceEntry()))) {
+            if (!isSequenceEntry()) {
+                return parseBlockNode(keyIndent);
+            }
+            parseSequence(indent, array);
+            return array;
+        }
+        return null;
+    }
+
+    /**
+     * Adds the scalar scanned last to an array without boxing it.
+     */
+    private void addScalar(@NotNull ArrayBuilder array) {
+        switch (scalarType) {
+            case NULL: {
+                array.addNull();
+                break;
+            }
+            case BOOLEAN: {
+                array.addBoolean(booleanValue);
+                break;
+            }
+            case INTEGER: {
+                array.addLong(longValue);
+                break;
+            }
+            case FLOAT: {
+                array.addDouble(doubleValue);
+                break;
+            }
+            default: {
+                array.addString(stringValue);
+            }
+        }
+    }
+
+    /**
+     * Parses a value starting at the current position, afterwards the current line is the line after the value.
+     */
+    @Nullable
+    private Object parseInlineValue(int parentIndent) throws IOException {
+        char c = line.charAt(position);
+        Object value;
+        if (c == '|' || c == '>') {
+            return parseBlockScalar(parentIndent);
+        } else if (c == '[' || c == '{') {
+            value = parseFlowNode();
+        } else {
+            scanScalar(false);
+            value = scalarValue();
+        }
+        expectLineEnd();
+        nextLine();
+        return value;
+    }
+
+    /**
+     * Parses the block sequence or mapping starting at the current line.
+     */
+    @NotNull
+    private Object parseBlockNode(int parentIndent) throws IOException {
+        if (isSequenceEntry()) {
+            return parseSequence(indent, null);
+        }
+        if (findMappingColon() == -1) {
+            throw error("Multi-line scalars are not supported, quote the value or use a block scalar.");
+        }
+        return parseUntypedMapping(indent);
+    }
+
+    /**
+     * Parses a block sequence into a list, or into an array if one is given.
+     *
+     * @return the list, null if the elements were added to the array.
+     */
+    @Nullable
+    private List<Object> parseSequence(int sequenceIndent, @Nullable ArrayBuilder array) throws IOException {
+        List<Object> list = array == null ? new ArrayList<>() : null;
+        while (true) {
+            skipBlank();
+            if (line == null || indent < sequenceIndent || (indent == sequenceIndent && !isSequenceEntry())) {
+                return list;
+            }
+            if (indent > sequenceIndent) {
+                throw error("Unexpected indentation.");
+            }
+            // Comments inside values are not kept.
+            pendingComments.clear();
+            position = indent + 1;
+            skipSpaces();
+            Object item;
+            char c = isLineEnd() ? '#' : line.charAt(position);
+            if (c == '#') {
+                item = parseValue(sequenceIndent);
+            } else if (isSequenceEntry(position) || findMappingColon() != -1) {
+                // A compact nested collection, "- - a" or "- a: b", continues at the indentation of its content.
+                line = spaces(position) + line.substring(position);
+                indent = position;
+                item = parseBlockNode(sequenceIndent);
+            } else if (array != null && c != '[' && c != '{' && c != '|' && c != '>') {
+                // Scalars are added to the array without boxing them.
+                scanScalar(false);
+                expectLineEnd();
+                nextLine();
+                addScalar(array);
+                continue;
+            } else {
+                item = parseInlineValue(sequenceIndent);
+            }
+            if (list != null) {
+                list.add(item);
+            } else {
+                array.addObject(item);
+            }
+        }
+    }
+
+    @NotNull
+    private Map<String, Object> parseUntypedMapping(int mappingIndent) throws IOException {
+        Map<String, Object> map = new LinkedHashMap<>();
+        while (true) {
+            skipBlank();
+            if (line == null || indent < mappingIndent) {
+                return map;
+            }
+            if (indent > mappingIndent || isSequenceEntry()) {
+                throw error("Unexpected indentation.");
+            }
+            pendingComments.clear();
+            String key = parseKey();
+            map.put(key, parseValue(mappingIndent));
+        }
+    }
+
+    private void skipUnknown(@NotNull KeyNode node, int mappingIndent) throws IOException {
+        List<String> lines = null;
+        if (unknownLines != null) {
+            lines = unknownLines.get(node.getIndex());
+            if (lines == null) {
+                lines = new ArrayList<>();
+                unknownLines.set(node.getIndex(), lines);
+            }
+            for (String comment : pendingComments) {
+                lines.add("#" + comment);
+            }
+            lines.add(line.substring(mappingIndent));
+        }
+        pendingComments.clear();
+        // Everything indented further (or a sequence at the same indentation) belongs to the unknown key.
+        int blankLines = 0;
+        while (true) {
+            nextLine();
+            if (line == null) {
+                return;
+            }
+            if (isBlank()) {
+                blankLines++;
+                continue;
+            }
+            if (indent < mappingIndent || (indent == mappingIndent && !isSequenceEntry())) {
+                return;
+            }
+            if (lines != null) {
+                for (; blankLines > 0; blankLines--) {
+                    lines.add("");
+                }
+                lines.add(line.substring(mappingIndent));
+            }
+            blankLines = 0;
+        }
+    }
+
+    @NotNull
+    private String parseBlockScalar(int parentIndent) throws IOException {
+        boolean literal = line.charAt(position++) == '|';
+        char chomping = ' ';
+        int explicitIndent = -1;
+        for (int i = 0; i < 2 && position < line.length(); i++) {
+            char c = line.charAt(position);
+            if ((c == '-' || c == '+') && chomping == ' ') {
+                chomping = c;
+            } else if (c >= '1' && c <= '9' && explicitIndent == -1) {
+                explicitIndent = c - '0';
+            } else {
+                break;
+            }
+            position++;
+        }
+        expectLineEnd();
+
+        StringBuilder builder = new StringBuilder();
+        int contentIndent = explicitIndent == -1 ? -1 : parentIndent + explicitIndent;
+        int breaks = 0;
+        boolean first = true;
+        boolean lastMoreIndented = false;
+        while (true) {
+            nextLine();
+            if (line == null) {
+                break;
+            }
+            if (isBlank() && (contentIndent == -1 || line.length() <= contentIndent)) {
+                breaks++;
+                continue;
+            }
+            if (indent <= parentIndent || (contentIndent != -1 && indent < contentIndent)) {
+                break;
+            }
+            if (contentIndent == -1) {
+                contentIndent = indent;
+            }
+            boolean moreIndented = indent > contentIndent;
+            if (first) {
+                appendBreaks(builder, breaks);
+            } else if (literal) {
+                appendBreaks(builder, breaks + 1);
+            } else if (breaks == 0 && !moreIndented && !lastMoreIndented) {
+                builder.append(' ');
+            } else {
+                appendBreaks(builder, moreIndented || lastMoreIndented ? breaks + 1 : breaks);
+            }
+            builder.append(line, contentIndent, line.length());
+            breaks = 0;
+            first = false;
+            lastMoreIndented = moreIndented;
+        }
+        // The line after the scalar has been read, like after every other value.
+        if (chomping == '+') {
+            appendBreaks(builder, first ? breaks : breaks + 1);
+        } else if (chomping == ' ' && !first) {
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+
+    private static void appendBreaks(@NotNull StringBuilder builder, int breaks) {
+        for (int i = 0; i < breaks; i++) {
+            builder.append('\n');
+        }
+    }
+
+    @Nullable
+    private Object parseFlowNode() throws IOException {
+        skipFlowSpaces();
+        char c = line.charAt(position);
+        if (c == '[') {
+            return parseFlowSequence(null);
+        }
+        if (c == '{') {
+            position++;
+            Map<String, Object> map = new LinkedHashMap<>();
+            while (true) {
+                skipFlowSpaces();
+                if (line.charAt(position) == '}') {
+                    position++;
+                    return map;
+                }
+                scanScalar(true);
+                String key = String.valueOf(scalarValue());
+                skipFlowSpaces();
+                Object value = null;
+                if (line.charAt(position) == ':') {
+                    position++;
+                    skipFlowSpaces();
+                    char next = line.charAt(position);
+                    if (next != ',' && next != '}') {
+                        value = parseFlowNode();
+                    }
+                }
+                map.put(key, value);
+                if (!skipFlowSeparator('}')) {
+                    return map;
+                }
+            }
+        }
+        scanScalar(true);
+        return scalarValue();
+    }
+
+    /**
+     * Parses a flow sequence into a list, or into an array if one is given.
+     *
+     * @return the list, null if the elements were added to the array.
+     */
+    @Nullable
+    private List<Object> parseFlowSequence(@Nullable ArrayBuilder array) throws IOException {
+        position++;
+        List<Object> list = array == null ? new ArrayList<>() : null;
+        while (true) {
+            skipFlowSpaces();
+            char c = line.charAt(position);
+            if (c == ']') {
+                position++;
+                return list;
+            }
+            if (list != null) {
+                list.add(parseFlowNode());
+            } else if (c == '[' || c == '{') {
+                array.addObject(parseFlowNode());
+            } else {
+                scanScalar(true);
+                addScalar(array);
+            }
+            if (!skipFlowSeparator(']')) {
+                return list;
+            }
+        }
+    }
+
+    /**
+     * @return true if another entry follows, false if the collection was closed.
+     */
+    private boolean skipFlowSeparator(char end) throws IOException {
+        skipFlowSpaces();
+        char c = line.charAt(position++);
+        if (c == ',') {
+            return true;
+        }
+        if (c != end) {
+            throw error(String.format("Expected ',' or '%s'.", end));
+        }
+        return false;
+    }
+
+    private void skipFlowSpaces() throws IOException {
+        while (true) {
+            while (position < line.length() && isSpace(line.charAt(position))) {
+                position++;
+            }
+            if (position < line.length() && line.charAt(position) != '#') {
+                return;
+            }
+            // Flow collections may span several lines.
+            nextLine();
+            if (line == null) {
+                throw error("Unterminated flow collection.");
+            }
+            position = 0;
+        }
+    }
+
+    @NotNull
+    private String parseKey() {
+        char c = line.charAt(position);
+        String key;
+        if (c == '"' || c == '\'') {
+            key = parseQuoted();
+            skipSpaces();
+            if (position >= line.length() || line.charAt(position) != ':') {
+                throw error("Expected ':' after the key.");
+            }
+        } else {
+            if (c == '?' || c == '&' || c == '*' || c == '!' || c == '[' || c == '{') {
+                throw error("Complex keys, anchors, aliases and tags are not supported.");
+            }
+            int colon = findMappingColon();
+            if (colon == -1) {
+                throw error("Expected a key.");
+            }
+            key = line.substring(position, colon).trim();
+            position = colon;
+        }
+        position++;
+        return key;
+    }
+
+    /**
+     * @return the position of the colon ending a plain key on the current line, -1 if the line is no mapping entry.
+     */
+    private int findMappingColon() {
+        char first = line.charAt(position);
+        if (first == '"' || first == '\'') {
+            int end = position + 1;
+            while (end < line.length()) {
+                char c = line.charAt(end++);
+                if (c == '\\' && first == '"') {
+                    end++;
+                } else if (c == first) {
+                    if (first == '\'' && end < line.length() && line.charAt(end) == '\'') {
+                        end++;
+                    } else {
+                        break;
+                    }
+                }
+            }
+            while (end < line.length() && isSpace(line.charAt(end))) {
+                end++;
+            }
+            return end < line.length() && line.charAt(end) == ':' ? end : -1;
+        }
+        if (first == '[' || first == '{' || first == '#') {
+            return -1;
+        }
+        for (int i = position; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == ':' && (i + 1 == line.length() || isSpace(line.charAt(i + 1)))) {
+                return i;
+            }
+            if (c == '#' && isSpace(line.charAt(i - 1))) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private void scanScalar(boolean flow) {
+        char c = line.charAt(position);
+        if (c == '"' || c == '\'') {
+            scalarType = STRING;
+            stringValue = parseQuoted();
+            return;
+        }
+        if (c == '&' || c == '*' || c == '!') {
+            throw error("Anchors, aliases and tags are not supported.");
+        }
+        int start = position;
+        int end = position;
+        while (position < line.length()) {
+            c = line.charAt(position);
+            if (c == '#' && position > start && isSpace(line.charAt(position - 1))) {
+                break;
+            }
+            if (flow && (c == ',' || c == ']' || c == '}'
+                || (c == ':' && (position + 1 == line.length() || isFlowEnd(line.charAt(position + 1)))))) {
+                break;
+            }
+            position++;
+            if (!isSpace(c)) {
+                end = position;
+            }
+        }
+        position = end;
+        resolvePlain(line.substring(start, end));
+    }
+
+    /**
+     * Resolves a plain scalar with the YAML 1.2 core schema.
+     */
+    private void resolvePlain(@NotNull String value) {
+        scalarType = resolveType(value);
+        switch (scalarType) {
+            case BOOLEAN: {
+                booleanValue = value.charAt(0) == 't' || value.charAt(0) == 'T';
+                break;
+            }
+            case INTEGER: {
+                try {
+                    longValue = parseInteger(value);
+                } catch (NumberFormatException e) {
+                    // Too large for a long.
+                    scalarType = FLOAT;
+                    doubleValue = Double.parseDouble(value);
+                }
+                break;
+            }
+            case FLOAT: {
+                doubleValue = parseFloat(value);
+                break;
+            }
+            case STRING: {
+                stringValue = value;
+                break;
+            }
+        }
+    }
+
+    /**
+     * @return true if the value is read back as the same string when it is written without quotes.
+     */
+    static boolean isPlainString(@NotNull String value) {
+        return resolveType(value) == STRING;
+    }
+
+    private static int resolveType(@NotNull String value) {
+        switch (value) {
+            case "":
+            case "~":
+            case "null":
+            case "Null":
+            case "NULL": {
+                return NULL;
+            }
+            case "true":
+            case "True":
+            case "TRUE":
+            case "false":
+            case "False":
+            case "FALSE": {
+                return BOOLEAN;
+            }
+            case ".inf":
+            case ".Inf":
+            case ".INF":
+            case "+.inf":
+            case "+.Inf":
+            case "+.INF":
+            case "-.inf":
+            case "-.Inf":
+            case "-.INF":
+            case ".nan":
+            case ".NaN":
+            case ".NAN": {
+                return FLOAT;
+            }
+        }
+        char first = value.charAt(0);
+        if ((first < '0' || first > '9') && first != '-' && first != '+' && first != '.') {
+            return STRING;
+        }
+        if (value.length() > 2 && value.charAt(0) == '0' && (value.charAt(1) == 'x' || value.charAt(1) == 'o')) {
+            int radix = value.charAt(1) == 'x' ? 16 : 8;
+            for (int i = 2; i < value.length(); i++) {
+                if (Character.digit(value.charAt(i), radix) == -1) {
+                    return STRING;
+                }
+            }
+            return INTEGER;
+        }
+        // [-+]? ( \. [0-9]+ | [0-9]+ ( \. [0-9]* )? ) ( [eE] [-+]? [0-9]+ )?
+        int i = first == '-' || first == '+' ? 1 : 0;
+        int digits = skipDigits(value, i);
+        boolean integer = digits > i;
+        i = digits;
+        if (i < value.length() && value.charAt(i) == '.') {
+            int fraction = skipDigits(value, i + 1);
+            if (!integer && fraction == i + 1) {
+                return STRING;
+            }
+            integer = false;
+            i = fraction;
+        } else if (!integer) {
+            return STRING;
+        }
+        if (i < value.length() && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            i++;
+            if (i < value.length() && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+                i++;
+            }
+            int exponent = skipDigits(value, i);
+            if (exponent == i) {
+                return STRING;
+            }
+            integer = false;
+            i = exponent;
+        }
+        if (i != value.length()) {
+            return STRING;
+        }
+        return integer ? INTEGER : FLOAT;
+    }
+
+    private static int skipDigits(@NotNull String value, int i) {
+        while (i < value.length() && value.charAt(i) >= '0' && value.charAt(i) <= '9') {
+            i++;
+        }
+        return i;
+    }
+
+    private static long parseInteger(@NotNull String value) {
+        if (value.startsWith("0x")) {
+            return Long.parseLong(value.substring(2), 16);
+        }
+        if (value.startsWith("0o")) {
+            return Long.parseLong(value.substring(2), 8);
+        }
+        return Long.parseLong(value.charAt(0) == '+' ? value.substring(1) : value);
+    }
+
+    private static double parseFloat(@NotNull String value) {
+        String lower = value.toLowerCase();
+        if (lower.endsWith(".nan")) {
+            return Double.NaN;
+        }
+        if (lower.endsWith(".inf")) {
+            return value.charAt(0) == '-' ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+        return Double.parseDouble(value);
+    }
+
+    @Nullable
+    private Object scalarValue() {
+        switch (scalarType) {
+            case NULL: {
+                return null;
+            }
+            case BOOLEAN: {
+                return booleanValue;
+            }
+            case INTEGER: {
+                return ValueBinder.boxIntegral(longValue);
+            }
+            case FLOAT: {
+                return doubleValue;
+            }
+            default: {
+                return stringValue;
+            }
+        }
+    }
+
+    @NotNull
+    private String parseQuoted() {
+        char quote = line.charAt(position++);
+        StringBuilder builder = new StringBuilder();
+        while (true) {
+            if (position >= line.length()) {
+                throw error("Unterminated quoted scalar, quoted scalars must not span several lines.");
+            }
+            char c = line.charAt(position++);
+            if (c == quote) {
+                if (quote == '\'' && position < line.length() && line.charAt(position) == '\'') {
+                    builder.append('\'');
+                    position++;
+                    continue;
+                }
+                return builder.toString();
+            }
+            if (c == '\\' && quote == '"') {
+                parseEscape(builder);
+            } else {
+                builder.append(c);
+            }
+        }
+    }
+
+    private void parseEscape(@NotNull StringBuilder builder) {
+        if (position >= line.length()) {
+            throw error("Unterminated escape sequence.");
+        }
+        char c = line.charAt(position++);
+        switch (c) {
+            case '0': {
+                builder.append('\0');
+                break;
+            }
+            case 'a': {
+                builder.append('\u0007');
+                break;
+            }
+            case 'b': {
+                builder.append('\b');
+                break;
+            }
+            case 't':
+            case '\t': {
+                builder.append('\t');
+                break;
+            }
+            case 'n': {
+                builder.append('\n');
+                break;
+            }
+            case 'v': {
+                builder.append('\u000B');
+                break;
+            }
+            case 'f': {
+                builder.append('\f');
+                break;
+            }
+            case 'r': {
+                builder.append('\r');
+                break;
+            }
+            case 'e': {
+                builder.append('\u001B');
+                break;
+            }
+            case 'N': {
+                builder.append('\u0085');
+                break;
+            }
+            case '_': {
+                builder.append('\u00A0');
+                break;
+            }
+            case 'L': {
+                builder.append('\u2028');
+                break;
+            }
+            case 'P': {
+                builder.append('\u2029');
+                break;
+            }
+            case 'x': {
+                builder.appendCodePoint(parseHex(2));
+                break;
+            }
+            case 'u': {
+                builder.appendCodePoint(parseHex(4));
+                break;
+            }
+            case 'U': {
+                builder.appendCodePoint(parseHex(8));
+                break;
+            }
+            case ' ':
+            case '"':
+            case '/':
+            case '\\': {
+                builder.append(c);
+                break;
+            }
+            default: {
+                throw error(String.format("Unknown escape sequence '\\%s'.", c));
+            }
+        }
+    }
+
+    private int parseHex(int length) {
+        if (position + length > line.length()) {
+            throw error("Unterminated escape sequence.");
+        }
+        try {
+            int codePoint = Integer.parseUnsignedInt(line.substring(position, position + length), 16);
+            position += length;
+            if (!Character.isValidCodePoint(codePoint)) {
+                throw error("Invalid escape sequence.");
+            }
+            return codePoint;
+        } catch (NumberFormatException e) {
+            throw error("Invalid escape sequence.");
+        }
+    }
+
+    private void nextLine() throws IOException {
+        line = reader.readLine();
+        if (line == null) {
+            return;
+        }
+        if (lineNumber++ == 0 && !line.isEmpty() && line.charAt(0) == '\uFEFF') {
+            line = line.substring(1);
+            firstLineOffset = 1;
+        }
+        indent = 0;
+        while (indent < line.length() && line.charAt(indent) == ' ') {
+            indent++;
+        }
+        position = indent;
+    }
+
+    /**
+     * Skips blank lines, comments and document markers, the comments are kept for the next key.
+     */
+    private void skipBlank() throws IOException {
+        while (line != null) {
+            if (isBlank()) {
+                nextLine();
+                continue;
+            }
+            char c = line.charAt(indent);
+            if (c == '#') {
+                pendingComments.add(line.substring(indent + 1));
+            } else if (indent == 0 && c == '%') {
+                // Directives don't change how the document is read.
+                pendingComments.clear();
+            } else if (indent == 0 && (line.startsWith("---") || line.startsWith("..."))
+                && (line.length() == 3 || isSpace(line.charAt(3)))) {
+                String rest = line.substring(3).trim();
+                if (!rest.isEmpty() && rest.charAt(0) != '#') {
+                    throw error("Content after a document marker is not supported.");
+                }
+            } else if (c == '\t') {
+                throw error("Tabs can't be used for indentation.");
+            } else {
+                position = indent;
+                return;
+            }
+            nextLine();
+        }
+    }
+
+    private boolean isBlank() {
+        for (int i = indent; i < line.length(); i++) {
+            if (!isSpace(line.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isSequenceEntry() {
+        return isSequenceEntry(indent);
+    }
+
+    private boolean isSequenceEntry(int index) {
+        return line.charAt(index) == '-' && (index + 1 == line.length() || isSpace(line.charAt(index + 1)));
+    }
+
+    private void skipSpaces() {
+        while (position < line.length() && isSpace(line.charAt(position))) {
+            position++;
+        }
+    }
+
+    private boolean isLineEnd() {
+        return position >= line.length() || line.charAt(position) == '#';
+    }
+
+    private void expectLineEnd() {
+        skipSpaces();
+        if (!isLineEnd()) {
+            throw error(String.format("Unexpected '%s'.", line.charAt(position)));
+        }
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    private static boolean isFlowEnd(char c) {
+        return isSpace(c) || c == ',' || c == ']' || c == '}';
+    }
+
+    @NotNull
+    private static String spaces(int count) {
+        StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            builder.append(' ');
+        }
+        return builder.toString();
+    }
+
+    @NotNull
+    private ConfigLoadException error(@NotNull String message) {
+        return new ConfigLoadException(String.format("Invalid YAML at line %d: %s", lineNumber, message));
+    }
+}
@@ -0,0 +1,388 @@
+/*
+ * AnnotatedConfig
+ * Copyright (C) 2020 Articdive
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.articdive.annotatedconfig.impl;
+
+import de.articdive.annotatedconfig.accessor.PropertyAccessor;
+import de.articdive.annotatedconfig.exceptions.ConfigSaveException;
+import de.articdive.annotatedconfig.schema.KeyNode;
+import de.articdive.annotatedconfig.schema.PropertySchema;
+import de.articdive.annotatedconfig.schema.SectionSchema;
+import de.articdive.annotatedconfig.util.ValueSpans;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the properties of a configuration as a YAML document, walking the key tree of its schema.
+ * Comments and unknown keys are taken from the previous document if there was one.
+ */
+final class YamlWriter {
+    private static final int INDENT = 2;
+
+    private final StringBuilder builder;
+    private final Map<Class<?>, Object> objectMap;
+    private final YamlParser previous;
+    private final ValueSpans spans;
+
+    /**
+     * @param builder   The builder to append the document to.
+     * @param objectMap The instances of the sections, keyed by their class.
+     * @param previous  The parser that read the previous document, null if there was none.
+     * @param spans     The positions of the scalars written on the line of their key, null to not record them.
+     */
+    YamlWriter(
+        @NotNull StringBuilder builder, @NotNull Map<Class<?>, Object> objectMap, @Nullable YamlParser previous,
+        @Nullable ValueSpans spans
+    ) {
+        this.builder = builder;
+        this.objectMap = objectMap;
+        this.previous = previous;
+        this.spans = spans;
+    }
+
+    void write(@NotNull KeyNode root) {
+        writeMapping(root, objectMap.get(root.getSection().getType()), 0);
+    }
+
+    private void writeMapping(@NotNull KeyNode node, @NotNull Object instance, int indent) {
+        for (KeyNode child : node.getChildren()) {
+            writeComments(child, indent);
+            indent(indent);
+            writeString(child.getKey());
+            builder.append(':');
+
+            PropertySchema property = child.getProperty();
+            if (property != null) {
+                writeProperty(property, instance, indent);
+                continue;
+            }
+            SectionSchema section = child.getSection();
+            if (child.getChildren().isEmpty() && (previous == null || previous.getUnknownLines(child).isEmpty())) {
+                builder.append(" {}\n");
+                continue;
+            }
+            builder.append('\n');
+            writeMapping(child, section == null ? instance : objectMap.get(section.getType()), indent + INDENT);
+        }
+        if (previous != null) {
+            for (String line : previous.getUnknownLines(node)) {
+                if (!line.isEmpty()) {
+                    indent(indent);
+                }
+                builder.append(line).append('\n');
+            }
+        }
+    }
+
+    private void writeComments(@NotNull KeyNode node, int indent) {
+        List<String> comments = previous == null ? null : previous.getComments(node);
+        if (comments != null) {
+            // Comments of the previous document are written as they were.
+            for (String comment : comments) {
+                indent(indent);
+                builder.append('#').append(comment).append('\n');
+            }
+            return;
+        }
+        List<String> annotatedComments = node.getProperty() != null ? node.getProperty().getComments()
+            : node.getSection() != null ? node.getSection().getComments() : null;
+        if (annotatedComments != null) {
+            for (String comment : annotatedComments) {
+                indent(indent);
+                builder.append("# ").append(comment).append('\n');
+            }
+        }
+    }
+
+    private void writeProperty(@NotNull PropertySchema property, @NotNull Object instance, int indent) {
+        int start = builder.length() + 1;
+        if (writeInlineValue(property, instance)) {
+            if (spans != null) {
+                spans.setOffsets(property.getIndex(), builder, start, builder.length());
+            }
+            builder.append('\n');
+        } else {
+            writeValue(property.getBinder().read(instance), indent);
+        }
+    }
+
+    /**
+     * Writes the value of a property after its key if it is a scalar, which is written on the key's line.
+     *
+     * @return false if nothing was written, the value is a collection written below its key.
+     */
+    boolean writeInlineValue(@NotNull PropertySchema property, @NotNull Object instance) {
+        PropertyAccessor accessor = property.getAccessor();
+        Class<?> type = accessor.getType();
+        // Primitives are written without boxing them.
+        if (type == int.class || type == short.class || type == byte.class) {
+            builder.append(' ').append(accessor.getInt(instance));
+        } else if (type == long.class) {
+            builder.append(' ').append(accessor.getLong(instance));
+        } else if (type == double.class) {
+            builder.append(' ');
+            writeDouble(accessor.getDouble(instance));
+        } else if (type == float.class) {
+            builder.append(' ');
+            writeFloat(accessor.getFloat(instance));
+        } else if (type == boolean.class) {
+            builder.append(' ').append(accessor.getBoolean(instance));
+        } else {
+            Object value = property.getBinder().read(instance);
+            if (!isScalar(value)) {
+                return false;
+            }
+            builder.append(' ');
+            writeScalar(value);
+        }
+        return true;
+    }
+
+    private static boolean isScalar(@Nullable Object value) {
+        return !(value instanceof Map && !((Map<?, ?>) value).isEmpty())
+            && !(value instanceof Collection && !((Collection<?>) value).isEmpty())
+            && !(value != null && value.getClass().isArray() && Array.getLength(value) != 0);
+    }
+
+    /**
+     * Writes a value after a key, scalars on the key's line and collections below it.
+     */
+    private void writeValue(@Nullable Object value, int indent) {
+        if (value instanceof Map && !((Map<?, ?>) value).isEmpty()) {
+            builder.append('\n');
+            writeEntries((Map<?, ?>) value, indent + INDENT, false);
+        } else if (value instanceof Collection && !((Collection<?>) value).isEmpty()) {
+            builder.append('\n');
+            writeItems((Collection<?>) value, indent + INDENT);
+        } else if (value != null && value.getClass().isArray() && Array.getLength(value) != 0) {
+            builder.append('\n');
+            writeArray(value, indent + INDENT);
+        } else {
+            builder.append(' ');
+            writeScalar(value);
+            builder.append('\n');
+        }
+    }
+
+    private void writeEntries(@NotNull Map<?, ?> map, int indent, boolean inline) {
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            // The first entry of a mapping in a sequence follows the dash.
+            if (!inline) {
+                indent(indent);
+            }
+            inline = false;
+            writeString(String.valueOf(entry.getKey()));
+            builder.append(':');
+            writeValue(entry.getValue(), indent);
+        }
+    }
+
+    private void writeItems(@NotNull Collection<?> collection, int indent) {
+        for (Object item : collection) {
+            indent(indent);
+            builder.append('-');
+            if (item instanceof Map && !((Map<?, ?>) item).isEmpty()) {
+                builder.append(' ');
+                writeEntries((Map<?, ?>) item, indent + INDENT, true);
+            } else if (item instanceof Collection && !((Collection<?>) item).isEmpty()) {
+                builder.append('\n');
+                writeItems((Collection<?>) item, indent + INDENT);
+            } else {
+                builder.append(' ');
+                writeScalar(item);
+                builder.append('\n');
+            }
+        }
+    }
+
+    /**
+     * Writes the arrays of array properties without boxing their elements.
+     */
+    private void writeArray(@NotNull Object array, int indent) {
+        if (array instanceof int[]) {
+            for (int item : (int[]) array) {
+                item(indent).append(item).append('\n');
+            }
+        } else if (array instanceof long[]) {
+            for (long item : (long[]) array) {
+                item(indent).append(item).append('\n');
+            }
+        } else if (array instanceof double[]) {
+            for (double item : (double[]) array) {
+                item(indent);
+                writeDouble(item);
+                builder.append('\n');
+            }
+        } else if (array instanceof byte[]) {
+            for (byte item : (byte[]) array) {
+                item(indent).append(item).append('\n');
+            }
+        } else {
+            for (Object item : (Object[]) array) {
+                item(indent);
+                writeScalar(item);
+                builder.append('\n');
+            }
+        }
+    }
+
+    @NotNull
+    private StringBuilder item(int indent) {
+        indent(indent);
+        return builder.append("- ");
+    }
+
+    private void writeScalar(@Nullable Object value) {
+        if (value == null) {
+            builder.append("null");
+        } else if (value instanceof String) {
+            writeString((String) value);
+        } else if (value instanceof Double) {
+            writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            writeFloat((Float) value);
+        } else if (value instanceof Number || value instanceof Boolean) {
+            builder.append(value);
+        } else if (value instanceof Character || value instanceof Enum) {
+            writeString(value.toString());
+        } else if (value instanceof Map) {
+            builder.append("{}");
+        } else if (value instanceof Collection || value.getClass().isArray()) {
+            builder.append("[]");
+        } else {
+            throw new ConfigSaveException(String.format("Can't save a value of type %s as YAML.", value.getClass()));
+        }
+    }
+
+    private void writeDouble(double value) {
+        if (Double.isNaN(value)) {
+            builder.append(".nan");
+        } else if (Double.isInfinite(value)) {
+            builder.append(value > 0 ? ".inf" : "-.inf");
+        } else {
+            builder.append(value);
+        }
+    }
+
+    private void writeFloat(float value) {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            writeDouble(value);
+        } else {
+            builder.append(value);
+        }
+    }
+
+    private void writeString(@NotNull String value) {
+        if (needsEscapes(value)) {
+            writeDoubleQuoted(value);
+        } else if (isPlain(value)) {
+            builder.append(value);
+        } else {
+            builder.append('\'');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '\'') {
+                    builder.append('\'');
+                }
+                builder.append(c);
+            }
+            builder.append('\'');
+        }
+    }
+
+    private static boolean needsEscapes(@NotNull String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (isNonPrintable(value.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isNonPrintable(char c) {
+        return c < ' ' || c == '\u007F' || c == '\u0085' || c == '\u2028' || c == '\u2029' || c == '\uFEFF';
+    }
+
+    private static boolean isPlain(@NotNull String value) {
+        if (value.isEmpty() || value.charAt(0) == ' ' || value.charAt(value.length() - 1) == ' ') {
+            return false;
+        }
+        if ("-?:,[]{}#&*!|>'\"%@`".indexOf(value.charAt(0)) != -1 || value.charAt(value.length() - 1) == ':') {
+            return false;
+        }
+        if (value.contains(": ") || value.contains(" #") || value.indexOf('\t') != -1) {
+            return false;
+        }
+        // Flow collections end plain scalars at these characters.
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '[' || c == ']' || c == '{' || c == '}') {
+                return false;
+            }
+        }
+        return YamlParser.isPlainString(value);
+    }
+
+    private void writeDoubleQuoted(@NotNull String value) {
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': {
+                    builder.append("\\\"");
+                    break;
+                }
+                case '\\': {
+                    builder.append("\\\\");
+                    break;
+                }
+                case '\n': {
+                    builder.append("\\n");
+                    break;
+                }
+                case '\r': {
+                    builder.append("\\r");
+                    break;
+                }
+                case '\t': {
+                    builder.append("\\t");
+                    break;
+                }
+                default: {
+                    if (isNonPrintable(c)) {
+                        builder.append(String.format("\\u%04X", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        builder.append('"');
+    }
+
+    private void indent(int indent) {
+        for (int i = 0; i < indent; i++) {
+            builder.append(' ');
+        }
+    }
+}
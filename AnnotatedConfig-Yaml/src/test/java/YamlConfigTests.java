@@ -16,10 +16,30 @@
  * along with this program.  If not, see <https://www.gnu.org/licenses/>.
  */
 
+import de.articdive.annotatedconfig.annotations.Property;
+import de.articdive.annotatedconfig.annotations.Section;
+import de.articdive.annotatedconfig.api.SaveResult;
+import de.articdive.annotatedconfig.impl.YamlConfiguration;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class YamlConfigTests {
     @TempDir
@@ -27,9 +47,240 @@ public class YamlConfigTests {
 
     @Test
     public void testYamlConfigSave() {
+        YamlConfig saveConfig = YamlConfig.createConfiguration(
+            new File(temporaryDirectory + File.separator + "save.yml"),
+            YamlConfig.class
+        );
+
+        String output = saveConfig.strOutput();
+        String expected;
+        try {
+            expected = new String(Files.readAllBytes(Paths.get(getClass().getResource("save.yml").toURI())));
+        } catch (IOException | URISyntaxException e) {
+            // Wont happen
+            Assertions.fail(e);
+            return;
+        }
+
+        assertEquals(expected.replaceAll("\r\n", "\n"), output);
     }
 
     @Test
     public void testYamlConfigLoad() {
+        YamlConfig loadConfig = YamlConfig.createConfiguration(
+            new File(temporaryDirectory + File.separator + "load.yml"),
+            true,
+            getClass().getResource("load.yml"),
+            YamlConfig.class
+        );
+
+        String output = loadConfig.strOutput();
+        Assertions.assertAll(() ->
+        {
+            // Check that the updated values were passed to the fields.
+            assertEquals("", loadConfig.getSection(YamlConfig.SectionA.class).name);
+            assertEquals("Tommy", loadConfig.getSection(YamlConfig.SectionA.SectionB.class).name);
+            assertEquals("Samuel", loadConfig.getSection(YamlConfig.SectionA.SectionB.SectionC.class).name);
+            assertEquals("", loadConfig.getSection(YamlConfig.SectionA.SectionB.SectionD.class).name);
+            assertEquals(Arrays.asList("Hello", "John", "was", "here!"), loadConfig.listTest);
+            assertEquals(1.11, loadConfig.doubleValue);
+            assertFalse(loadConfig.booleanValue);
+            // The comments of the file are kept.
+            assertTrue(output.contains("# Section A Keep\na:\n  # This is a name. Keep\n  name: ''\n"));
+            assertTrue(output.contains("      # This is a name. Keep\n      name: Samuel\n"));
+            assertTrue(output.contains("# Comment Keep\nlong: 1\n"));
+        });
+    }
+
+    @Test
+    public void testYamlConfigSyntax() throws IOException {
+        File file = new File(temporaryDirectory + File.separator + "syntax.yml");
+        Files.write(file.toPath(), String.join("\n",
+            "%YAML 1.2",
+            "---",
+            "# Comment Keep",
+            "integer: 0x1F # Trailing comment",
+            "double: -.5e1",
+            "boolean: True",
+            "unknown:",
+            "    nested: [1, 2]",
+            "",
+            "    other: |",
+            "        kept",
+            "list: [\"a, b\", 'it''s',",
+            "  plain text, ~]",
+            "a:",
+            "    \"name\": |-",
+            "        Line 1",
+            "          Line 2",
+            "",
+            "    b:",
+            "        name: >",
+            "            folded",
+            "            text",
+            "",
+            "            end",
+            "        escaped: \"\\u00e9\\t\\\"\"",
+            "objects:",
+            "- key: value",
+            "  other: [x, {y: 1}]",
+            "- - nested",
+            "..."
+        ).getBytes(StandardCharsets.UTF_8));
+        SyntaxConfig config = SyntaxConfig.createConfiguration(file, SyntaxConfig.class);
+        SyntaxConfig.SectionB sectionB = config.getSection(SyntaxConfig.SectionB.class);
+
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("key", "value");
+        entry.put("other", Arrays.asList("x", Collections.singletonMap("y", 1)));
+        String output = config.strOutput();
+        Assertions.assertAll(() ->
+        {
+            assertEquals(31, config.intValue);
+            assertEquals(-5, config.doubleValue);
+            assertTrue(config.booleanValue);
+            assertEquals(Arrays.asList("a, b", "it's", "plain text", null), config.list);
+            assertEquals("Line 1\n  Line 2", config.name);
+            assertEquals("folded text\nend\n", sectionB.name);
+            assertEquals("\u00e9\t\"", sectionB.escaped);
+            assertEquals(Arrays.asList(entry, Collections.singletonList("nested")), config.objects);
+            // Comments and unknown keys are written again.
+            assertTrue(output.contains("# Comment Keep\ninteger: 31\n"));
+            assertTrue(output.contains("unknown:\n    nested: [1, 2]\n\n    other: |\n        kept\n"));
+            // The written document is read back unchanged.
+            config.reload();
+            assertEquals(SaveResult.UNCHANGED, config.save());
+            assertEquals("\u00e9\t\"", sectionB.escaped);
+            assertEquals(Arrays.asList(entry, Collections.singletonList("nested")), config.objects);
+        });
+    }
+
+    @Test
+    public void testYamlConfigArrays() throws IOException {
+        File file = new File(temporaryDirectory + File.separator + "arrays.yml");
+        Files.write(file.toPath(), String.join("\n",
+            "ints: [1, 2, 3]",
+            "longs:",
+            "    - 5000000000",
+            "    - -1",
+            "doubles: [1, 2.5, .inf]",
+            "bytes: [-128, 127]",
+            "strings:",
+            "    - a",
+            "    - \"b c\"",
+            "    - null",
+            "mismatched: [1, 1.5]"
+        ).getBytes(StandardCharsets.UTF_8));
+        ArraysConfig config = ArraysConfig.createConfiguration(file, ArraysConfig.class);
+        String output = config.strOutput();
+
+        Assertions.assertAll(() ->
+        {
+            assertArrayEquals(new int[]{1, 2, 3}, config.ints);
+            assertArrayEquals(new long[]{5000000000L, -1}, config.longs);
+            assertArrayEquals(new double[]{1, 2.5, Double.POSITIVE_INFINITY}, config.doubles);
+            assertArrayEquals(new byte[]{-128, 127}, config.bytes);
+            assertArrayEquals(new String[]{"a", "b c", null}, config.strings);
+            // 1.5 doesn't fit an int, the array keeps its value.
+            assertArrayEquals(new int[]{7}, config.mismatched);
+            assertTrue(output.contains("ints:\n  - 1\n  - 2\n  - 3\n"));
+            // The written arrays are read back unchanged.
+            config.reload();
+            assertEquals(SaveResult.UNCHANGED, config.save());
+            assertArrayEquals(new long[]{5000000000L, -1}, config.longs);
+            assertArrayEquals(new String[]{"a", "b c", null}, config.strings);
+        });
+    }
+
+    @Test
+    public void testYamlConfigPatch() throws IOException {
+        File file = new File(temporaryDirectory + File.separator + "patch.yml");
+        Files.write(file.toPath(), String.join("\n",
+            "# Kept as written",
+            "integer:   5   #  trailing",
+            "name: 'old'",
+            "list: [a,   b]",
+            ""
+        ).getBytes(StandardCharsets.UTF_8));
+        PatchConfig config = PatchConfig.createConfiguration(file, PatchConfig.class);
+        config.intValue = 6;
+        config.name = "new value";
+
+        Assertions.assertAll(() ->
+        {
+            assertEquals(SaveResult.WRITTEN, config.save());
+            // Only the changed values are replaced, everything else stays byte-identical.
+            assertEquals(String.join("\n",
+                "# Kept as written",
+                "integer:   6   #  trailing",
+                "name: new value",
+                "list: [a,   b]",
+                ""
+            ), new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+            assertEquals(SaveResult.UNCHANGED, config.save());
+            config.reload();
+            assertEquals(6, config.intValue);
+            assertEquals("new value", config.name);
+        });
+    }
+
+    public static class ArraysConfig extends YamlConfiguration {
+        @Property("ints")
+        public int[] ints = {0};
+
+        @Property("longs")
+        public long[] longs;
+
+        @Property("doubles")
+        public double[] doubles;
+
+        @Property("bytes")
+        public byte[] bytes;
+
+        @Property("strings")
+        public String[] strings;
+
+        @Property("mismatched")
+        public int[] mismatched = {7};
+    }
+
+    public static class PatchConfig extends YamlConfiguration {
+        @Property("integer")
+        public int intValue;
+
+        @Property("name")
+        public String name;
+
+        @Property("list")
+        public List<String> list;
+    }
+
+    public static class SyntaxConfig extends YamlConfig {
+        @Property("integer")
+        public int intValue;
+
+        @Property("double")
+        public double doubleValue;
+
+        @Property("boolean")
+        public boolean booleanValue;
+
+        @Property("list")
+        public List<Object> list;
+
+        @Property("a.name")
+        public String name;
+
+        @Property("objects")
+        public List<Object> objects;
+
+        @Section("a.b")
+        public static class SectionB {
+            @Property("name")
+            public String name;
+
+            @Property("escaped")
+            public String escaped;
+        }
     }
 }
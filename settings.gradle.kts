@@ -3,3 +3,5 @@ include("AnnotatedConfig-Core")
 include("AnnotatedConfig-Hocon")
 include("AnnotatedConfig-Yaml")
 include("AnnotatedConfig-Toml")
+include("AnnotatedConfig-Processor")
+include("AnnotatedConfig-Benchmarks")